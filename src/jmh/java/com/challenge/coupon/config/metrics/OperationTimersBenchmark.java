@@ -0,0 +1,36 @@
+package com.challenge.coupon.config.metrics;
+
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OperationTimersBenchmark {
+
+    private OperationTimers timers;
+    private Method method;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        timers = new OperationTimers(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT), "coupon.operations");
+        method = OperationTimersBenchmark.class.getMethod("record");
+    }
+
+    @Benchmark
+    public long baseline() {
+        return System.nanoTime();
+    }
+
+    @Benchmark
+    public void record() {
+        timers.record(method, OperationTimers.Outcome.SUCCESS, System.nanoTime());
+    }
+}
@@ -0,0 +1,105 @@
+package com.challenge.coupon.controller.api;
+
+import com.challenge.coupon.domain.entity.coupon.Coupon;
+import com.challenge.coupon.domain.entity.coupon.CouponStatus;
+import com.challenge.coupon.service.coupon.EncodedCouponCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CouponResponseBenchmark {
+
+    private Coupon coupon;
+    private CouponResponse response;
+    private byte[] requestJson;
+
+    private ObjectWriter responseWriter;
+    private ObjectWriter cborResponseWriter;
+    private ObjectReader requestReader;
+    private EncodedCouponCache encodedCouponCache;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        responseWriter = objectMapper.writerFor(CouponResponse.class);
+        requestReader = objectMapper.readerFor(CouponCreateRequest.class);
+
+        MappingJackson2CborHttpMessageConverter cborConverter = new MappingJackson2CborHttpMessageConverter(
+                Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build()
+        );
+        cborResponseWriter = cborConverter.getObjectMapper().writerFor(CouponResponse.class);
+        encodedCouponCache = new EncodedCouponCache(
+                objectMapper, cborConverter, new SimpleMeterRegistry(), true, DataSize.ofMegabytes(16), Duration.ofMinutes(10)
+        );
+
+        coupon = new Coupon(
+                UUID.randomUUID(),
+                "ABC123",
+                "Ten percent off every order placed during the spring campaign",
+                new BigDecimal("12.50"),
+                LocalDateTime.now().plusDays(30),
+                CouponStatus.ACTIVE,
+                true,
+                false
+        );
+        coupon.setVersion(0L);
+        response = CouponResponse.from(coupon);
+        requestJson = objectMapper.writeValueAsBytes(new CouponCreateRequest(
+                coupon.getCode(),
+                coupon.getDescription(),
+                coupon.getDiscountValue(),
+                coupon.getExpirationDate(),
+                coupon.getPublished()
+        ));
+    }
+
+    @Benchmark
+    public CouponResponse from() {
+        return CouponResponse.from(coupon);
+    }
+
+    @Benchmark
+    public byte[] serializeResponse() throws IOException {
+        return responseWriter.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] mapAndSerializeResponse() throws IOException {
+        return responseWriter.writeValueAsBytes(CouponResponse.from(coupon));
+    }
+
+    @Benchmark
+    public byte[] mapAndSerializeResponseCbor() throws IOException {
+        return cborResponseWriter.writeValueAsBytes(CouponResponse.from(coupon));
+    }
+
+    @Benchmark
+    public byte[] encodedCacheHit() {
+        return encodedCouponCache.encode(coupon, MediaType.APPLICATION_JSON);
+    }
+
+    @Benchmark
+    public CouponCreateRequest deserializeRequest() throws IOException {
+        return requestReader.readValue(requestJson);
+    }
+}
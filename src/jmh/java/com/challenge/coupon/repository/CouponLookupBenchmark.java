@@ -0,0 +1,62 @@
+package com.challenge.coupon.repository;
+
+import com.challenge.coupon.CouponApplication;
+import com.challenge.coupon.domain.entity.coupon.CouponStatus;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// existsByCodeAndStatus latency as the coupon table grows 100x; flat scores mean the (code, status) index is used
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CouponLookupBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private CouponRepository couponRepository;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(CouponApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:lookup-benchmark-" + rows,
+                        "coupon.outbox.relay.enabled=false",
+                        "coupon.expiration.enabled=false",
+                        "coupon.archive.enabled=false",
+                        "logging.level.root=WARN"
+                )
+                .run();
+        couponRepository = context.getBean(CouponRepository.class);
+
+        context.getBean(JdbcTemplate.class).update("""
+                insert into coupon (id, code, description, discount_value, expiration_date, status, published, redeemed)
+                select random_uuid(), lpad(x, 6, '0'), 'Lookup benchmark', 10, dateadd('DAY', 30, current_timestamp),
+                       case when mod(x, 4) = 0 then 'DELETED' else 'ACTIVE' end, true, false
+                from system_range(0, ?)
+                """, rows - 1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Boolean existsByCodeAndStatus() {
+        return couponRepository.existsByCodeAndStatus(
+                String.format("%06d", ThreadLocalRandom.current().nextInt(rows)), CouponStatus.ACTIVE
+        );
+    }
+}
@@ -0,0 +1,113 @@
+package com.challenge.coupon.repository;
+
+import com.challenge.coupon.CouponApplication;
+import com.challenge.coupon.domain.entity.coupon.Coupon;
+import com.challenge.coupon.domain.entity.coupon.CouponStatus;
+import com.challenge.coupon.service.coupon.CouponCode;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.unit.DataSize;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// The CouponStore operations of create, find and delete on JPA over in-memory H2 against the mapped record log
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CouponStoreBenchmark {
+
+    private static final int PRELOADED = 10_000;
+
+    @Param({"jpa", "mapped"})
+    private String backend;
+
+    private ConfigurableApplicationContext context;
+    private MappedCouponStore mappedStore;
+    private CouponStore store;
+    private final List<UUID> ids = new ArrayList<>(PRELOADED);
+    private final List<String> codes = new ArrayList<>(PRELOADED);
+    private long nextCode = CouponCode.SPACE / 2;
+
+    @Setup
+    public void setUp() {
+        if (backend.equals("jpa")) {
+            context = new SpringApplicationBuilder(CouponApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .properties(
+                            "spring.datasource.url=jdbc:h2:mem:store-benchmark",
+                            "coupon.outbox.relay.enabled=false",
+                            "coupon.expiration.enabled=false",
+                            "coupon.archive.enabled=false",
+                            "logging.level.root=WARN"
+                    )
+                    .run();
+            store = context.getBean(CouponRepository.class);
+        } else {
+            mappedStore = new MappedCouponStore("", DataSize.ofMegabytes(256), 0.5, DataSize.ofMegabytes(16), false);
+            store = mappedStore;
+        }
+
+        for (int i = 0; i < PRELOADED; i++) {
+            Coupon coupon = store.saveAndFlush(newCoupon());
+            ids.add(coupon.getId());
+            codes.add(coupon.getCode());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (context != null) {
+            context.close();
+        }
+        if (mappedStore != null) {
+            mappedStore.close();
+        }
+    }
+
+    @Benchmark
+    public Object findById() {
+        return store.findById(ids.get(ThreadLocalRandom.current().nextInt(PRELOADED)));
+    }
+
+    @Benchmark
+    public Boolean existsByCodeAndStatus() {
+        return store.existsByCodeAndStatus(codes.get(ThreadLocalRandom.current().nextInt(PRELOADED)), CouponStatus.ACTIVE);
+    }
+
+    @Benchmark
+    public Coupon save() {
+        return store.saveAndFlush(newCoupon());
+    }
+
+    // Read, change status, version-checked save: what delete does, toggled so the coupon can be picked again
+    @Benchmark
+    public Coupon changeStatus() {
+        Coupon coupon = store.findById(ids.get(ThreadLocalRandom.current().nextInt(PRELOADED))).orElseThrow();
+        coupon.setStatus(coupon.getStatus() == CouponStatus.ACTIVE ? CouponStatus.INACTIVE : CouponStatus.ACTIVE);
+        return store.saveAndFlush(coupon);
+    }
+
+    private Coupon newCoupon() {
+        return new Coupon(
+                null,
+                CouponCode.unpack(nextCode++),
+                "Benchmark discount",
+                new BigDecimal("12.50"),
+                LocalDateTime.now().plusDays(30),
+                CouponStatus.ACTIVE,
+                true,
+                false
+        );
+    }
+}
@@ -0,0 +1,52 @@
+package com.challenge.coupon.service.coupon;
+
+import com.challenge.coupon.CouponApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// generate latency by batch size, against a bitmap rebuilt from an empty table; CouponCodeGeneratorTest checks uniqueness only
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CouponCodeGeneratorBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int count;
+
+    private ConfigurableApplicationContext context;
+    private CouponCodeGenerator generator;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(CouponApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:generator-benchmark-" + count,
+                        "coupon.outbox.relay.enabled=false",
+                        "coupon.expiration.enabled=false",
+                        "coupon.archive.enabled=false",
+                        "logging.level.root=WARN"
+                )
+                .run();
+        generator = context.getBean(CouponCodeGenerator.class);
+        generator.usedCount();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<String> generate() {
+        return generator.generate(count);
+    }
+}
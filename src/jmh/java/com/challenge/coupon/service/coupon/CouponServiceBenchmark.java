@@ -0,0 +1,83 @@
+package com.challenge.coupon.service.coupon;
+
+import com.challenge.coupon.controller.api.CouponCreateRequest;
+import com.challenge.coupon.domain.entity.coupon.Coupon;
+import com.challenge.coupon.domain.entity.exception.DomainException;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CouponServiceBenchmark {
+
+    @Param({"ABC123", "ab-c 12.3"})
+    private String code;
+
+    // Frames between the servlet container and the service on a real request, which an exception's stack trace captures
+    @Param({"0", "120"})
+    private int depth;
+
+    private CouponCreateRequest request;
+    private CouponCreateRequest invalidRequest;
+
+    @Setup
+    public void setUp() {
+        request = new CouponCreateRequest(
+                code,
+                "Benchmark discount",
+                new BigDecimal("12.50"),
+                LocalDateTime.now().plusDays(30),
+                true
+        );
+        invalidRequest = new CouponCreateRequest(
+                code.substring(1),
+                "Benchmark discount",
+                new BigDecimal("0.10"),
+                LocalDateTime.now().minusDays(1),
+                true
+        );
+    }
+
+    @Benchmark
+    public String replaceCode() {
+        return CouponService.replaceCode(code);
+    }
+
+    @Benchmark
+    public CouponValidation validate() {
+        return CouponService.validate(request);
+    }
+
+    @Benchmark
+    public Object validateRejected() {
+        return atDepth(depth, () -> CouponService.validate(invalidRequest));
+    }
+
+    @Benchmark
+    public Coupon toCoupon() {
+        return CouponService.toCoupon(request);
+    }
+
+    @Benchmark
+    public Object toCouponRejected() {
+        return atDepth(depth, () -> {
+            try {
+                return CouponService.toCoupon(invalidRequest);
+            } catch (DomainException e) {
+                return e;
+            }
+        });
+    }
+
+    private static Object atDepth(int depth, Supplier<Object> call) {
+        return depth == 0 ? call.get() : atDepth(depth - 1, call);
+    }
+}
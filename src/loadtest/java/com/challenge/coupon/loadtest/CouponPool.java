@@ -0,0 +1,51 @@
+package com.challenge.coupon.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Coupons created during a run, so reads and deletes target rows that exist.
+ */
+final class CouponPool {
+
+    record Entry(String id, String code) {
+    }
+
+    // CouponResponse serializes id then code, for single and batch responses alike
+    private static final Pattern COUPON = Pattern.compile("\"id\":\"([^\"]+)\",\"code\":\"([^\"]+)\"");
+
+    private final List<Entry> entries = new ArrayList<>();
+
+    void addAll(String responseBody) {
+        Matcher matcher = COUPON.matcher(responseBody);
+        List<Entry> found = new ArrayList<>();
+        while (matcher.find()) {
+            found.add(new Entry(matcher.group(1), matcher.group(2)));
+        }
+
+        synchronized (this) {
+            entries.addAll(found);
+        }
+    }
+
+    synchronized Entry any() {
+        return entries.isEmpty() ? null : entries.get(ThreadLocalRandom.current().nextInt(entries.size()));
+    }
+
+    synchronized Entry take() {
+        if (entries.isEmpty()) {
+            return null;
+        }
+
+        int index = ThreadLocalRandom.current().nextInt(entries.size());
+        Entry last = entries.removeLast();
+        return index == entries.size() ? last : entries.set(index, last);
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,121 @@
+package com.challenge.coupon.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-operation latency histograms, in microseconds, measured from each request's intended
+ * send time. Writes a fixed-layout {@code summary.txt} meant to be diffed between builds,
+ * plus one HdrHistogram percentile distribution ({@code .hgrm}) per operation.
+ */
+final class LatencyReport {
+
+    private static final long HIGHEST_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    private final Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> dropped = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> skipped = new EnumMap<>(Operation.class);
+    private final Histogram all = newHistogram();
+    private long elapsedNanos;
+
+    LatencyReport() {
+        for (Operation operation : Operation.values()) {
+            histograms.put(operation, newHistogram());
+            errors.put(operation, new LongAdder());
+            dropped.put(operation, new LongAdder());
+            skipped.put(operation, new LongAdder());
+        }
+    }
+
+    void record(Operation operation, long latencyNanos, boolean success) {
+        long micros = Math.min(Math.max(1, latencyNanos / 1_000), HIGHEST_MICROS);
+        histograms.get(operation).recordValue(micros);
+        all.recordValue(micros);
+        if (!success) {
+            errors.get(operation).increment();
+        }
+    }
+
+    void dropped(Operation operation) {
+        dropped.get(operation).increment();
+    }
+
+    void skipped(Operation operation) {
+        skipped.get(operation).increment();
+    }
+
+    String summary(String header) {
+        StringBuilder summary = new StringBuilder(header);
+        summary.append(String.format(Locale.ROOT, "%-8s %9s %7s %7s %7s %9s %9s %9s %9s%n",
+                "op", "count", "errors", "dropped", "skipped", "p50_ms", "p99_ms", "p999_ms", "max_ms"));
+
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = histograms.get(operation);
+            if (histogram.getTotalCount() + skipped.get(operation).sum() + dropped.get(operation).sum() > 0) {
+                line(summary, operation.name().toLowerCase(), histogram,
+                        errors.get(operation).sum(), dropped.get(operation).sum(), skipped.get(operation).sum());
+            }
+        }
+
+        line(summary, "all", all,
+                errors.values().stream().mapToLong(LongAdder::sum).sum(),
+                dropped.values().stream().mapToLong(LongAdder::sum).sum(),
+                skipped.values().stream().mapToLong(LongAdder::sum).sum());
+        return summary.toString();
+    }
+
+    void write(Path directory, String summary) throws IOException {
+        Files.createDirectories(directory);
+        Files.writeString(directory.resolve("summary.txt"), summary);
+
+        for (Operation operation : Operation.values()) {
+            if (histograms.get(operation).getTotalCount() > 0) {
+                writeDistribution(directory.resolve(operation.name().toLowerCase() + ".hgrm"), histograms.get(operation));
+            }
+        }
+        writeDistribution(directory.resolve("all.hgrm"), all);
+    }
+
+    void finished(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Completed requests per second over the whole run, including draining requests still in flight at the end.
+     */
+    double throughput() {
+        return elapsedNanos == 0 ? 0 : all.getTotalCount() * 1e9 / elapsedNanos;
+    }
+
+    private static void line(StringBuilder summary, String name, Histogram histogram, long errors, long dropped, long skipped) {
+        summary.append(String.format(Locale.ROOT, "%-8s %9d %7d %7d %7d %9.2f %9.2f %9.2f %9.2f%n",
+                name, histogram.getTotalCount(), errors, dropped, skipped,
+                millis(histogram, 50.0), millis(histogram, 99.0), millis(histogram, 99.9),
+                histogram.getMaxValue() / 1_000.0));
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1_000.0;
+    }
+
+    private static void writeDistribution(Path file, Histogram histogram) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+            histogram.outputPercentileDistribution(out, 1_000.0);
+        }
+    }
+
+    private static Histogram newHistogram() {
+        return new ConcurrentHistogram(HIGHEST_MICROS, 3);
+    }
+}
@@ -0,0 +1,191 @@
+package com.challenge.coupon.loadtest;
+
+import com.challenge.coupon.CouponApplication;
+import com.challenge.coupon.service.coupon.CouponCode;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load generator: requests are started on a fixed schedule ({@code --rate} per
+ * second) whether or not earlier ones have completed, and latency is measured from the
+ * scheduled start, so a stalled server shows up in the percentiles instead of silently
+ * lowering the offered load (coordinated omission).
+ * <p>
+ * Boots the application on a random port against its embedded H2 unless {@code --url} points
+ * at a running instance. Options, all {@code --key=value}:
+ * {@code profile} (mixed, read-heavy, write-heavy, checkout) or {@code mix}
+ * ({@code create:20,get:70,delete:10}), {@code rate}, {@code duration}, {@code warmup},
+ * {@code seed} (coupons created before the run), {@code max-in-flight}, {@code timeout},
+ * {@code report} (output directory).
+ */
+public final class LoadTest {
+
+    private static final int SEED_BATCH = 1_000;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final Operation.Target target;
+    private final Workload workload;
+    private final int rate;
+    private final int maxInFlight;
+
+    private LoadTest(Operation.Target target, Workload workload, int rate, int maxInFlight) {
+        this.target = target;
+        this.workload = workload;
+        this.rate = rate;
+        this.maxInFlight = maxInFlight;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+
+        Workload workload = Workload.of(options.getOrDefault("mix", options.getOrDefault("profile", "mixed")));
+        int rate = Integer.parseInt(options.getOrDefault("rate", "200"));
+        Duration duration = Duration.parse("PT" + options.getOrDefault("duration", "30s"));
+        Duration warmup = Duration.parse("PT" + options.getOrDefault("warmup", "10s"));
+        int seed = Integer.parseInt(options.getOrDefault("seed", "1000"));
+        int maxInFlight = Integer.parseInt(options.getOrDefault("max-in-flight", "10000"));
+        Duration timeout = Duration.parse("PT" + options.getOrDefault("timeout", "30s"));
+        Path reportDir = Path.of(options.getOrDefault("report", "target/loadtest/" + workload.name()));
+
+        ConfigurableApplicationContext context = null;
+        URI base;
+        if (options.containsKey("url")) {
+            base = URI.create(options.get("url"));
+        } else {
+            context = SpringApplication.run(CouponApplication.class,
+                    "--server.port=0",
+                    "--logging.level.com.challenge.coupon=WARN",
+                    "--spring.jpa.open-in-view=false");
+            base = URI.create("http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort());
+        }
+
+        try {
+            long firstCode = ThreadLocalRandom.current().nextLong(CouponCode.UPPER_SPACE);
+            Operation.Target target = new Operation.Target(base, new CouponPool(), new AtomicLong(firstCode), timeout);
+            LoadTest loadTest = new LoadTest(target, workload, rate, maxInFlight);
+
+            loadTest.seed(seed);
+            loadTest.run(warmup);
+            LatencyReport report = loadTest.run(duration);
+
+            String header = String.format(Locale.ROOT,
+                    "# profile=%s mix=%s rate=%d/s duration=%ds warmup=%ds seed=%d%n# achieved=%.1f/s%n",
+                    workload.name(), workload.describe(), rate, duration.toSeconds(), warmup.toSeconds(), seed,
+                    report.throughput());
+            String summary = report.summary(header);
+
+            report.write(reportDir, summary);
+            System.out.print(summary);
+            System.out.println("# report written to " + reportDir.toAbsolutePath());
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    private void seed(int count) throws Exception {
+        for (int created = 0; created < count; created += SEED_BATCH) {
+            StringJoiner batch = new StringJoiner(",", "[", "]");
+            for (int i = 0; i < Math.min(SEED_BATCH, count - created); i++) {
+                batch.add(Operation.couponJson(target.nextCode()));
+            }
+
+            HttpResponse<String> response = client.send(
+                    target.post("/coupon/batch", batch.toString()), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Seeding failed with HTTP " + response.statusCode() + ": " + response.body());
+            }
+            target.pool().addAll(response.body());
+        }
+    }
+
+    private LatencyReport run(Duration duration) {
+        LatencyReport report = new LatencyReport();
+        AtomicInteger inFlight = new AtomicInteger();
+        long durationNanos = duration.toNanos();
+        long start = System.nanoTime();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; ; i++) {
+                long offset = i * 1_000_000_000L / rate;
+                if (offset >= durationNanos) {
+                    break;
+                }
+
+                long intended = start + offset;
+                long wait = intended - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+
+                Operation operation = workload.next();
+                if (inFlight.get() >= maxInFlight) {
+                    report.dropped(operation);
+                    continue;
+                }
+
+                inFlight.incrementAndGet();
+                executor.submit(() -> {
+                    try {
+                        send(operation, intended, report);
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                });
+            }
+        }
+
+        report.finished(System.nanoTime() - start);
+        return report;
+    }
+
+    private void send(Operation operation, long intended, LatencyReport report) {
+        HttpRequest request = operation.request(target);
+        if (request == null) {
+            report.skipped(operation);
+            return;
+        }
+
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            report.record(operation, System.nanoTime() - intended, response.statusCode() < 400);
+            operation.completed(target, response.statusCode(), response.body());
+        } catch (Exception e) {
+            report.record(operation, System.nanoTime() - intended, false);
+        }
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --key=value, got '" + arg + "'");
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return options;
+    }
+}
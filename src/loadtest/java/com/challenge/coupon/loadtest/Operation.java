@@ -0,0 +1,111 @@
+package com.challenge.coupon.loadtest;
+
+import com.challenge.coupon.service.coupon.CouponCode;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One kind of request the load generator can send. Each call returns the HTTP request to
+ * send, or {@code null} when there is nothing to act on yet (e.g. delete with no coupons).
+ */
+enum Operation {
+
+    CREATE {
+        @Override
+        HttpRequest request(Target target) {
+            String body = couponJson(target.nextCode());
+            return target.post("/coupon", body);
+        }
+
+        @Override
+        void completed(Target target, int status, String body) {
+            if (status == 201) {
+                target.pool().addAll(body);
+            }
+        }
+    },
+
+    GET {
+        @Override
+        HttpRequest request(Target target) {
+            CouponPool.Entry entry = target.pool().any();
+            return entry == null ? null : target.get("/coupon/" + entry.id());
+        }
+    },
+
+    DELETE {
+        @Override
+        HttpRequest request(Target target) {
+            CouponPool.Entry entry = target.pool().take();
+            return entry == null ? null : target.delete("/coupon/" + entry.id());
+        }
+    },
+
+    LOOKUP {
+        @Override
+        HttpRequest request(Target target) {
+            StringBuilder codes = new StringBuilder();
+            for (int i = 0; i < LOOKUP_SIZE; i++) {
+                CouponPool.Entry entry = target.pool().any();
+                if (entry == null) {
+                    return null;
+                }
+                codes.append(i == 0 ? "" : ",").append('"').append(entry.code()).append('"');
+            }
+            return target.post("/coupon/lookup", "{\"codes\":[" + codes + "]}");
+        }
+    },
+
+    LIST {
+        @Override
+        HttpRequest request(Target target) {
+            return target.get("/coupon?status=ACTIVE&size=50");
+        }
+    };
+
+    static final int LOOKUP_SIZE = 5;
+
+    abstract HttpRequest request(Target target);
+
+    void completed(Target target, int status, String body) {
+    }
+
+    static String couponJson(String code) {
+        return "{\"code\":\"" + code + "\",\"description\":\"Load test\",\"discountValue\":"
+                + ThreadLocalRandom.current().nextInt(1, 100)
+                + ",\"expirationDate\":\"2099-01-01T00:00:00\",\"published\":true}";
+    }
+
+    /**
+     * Base URI, shared coupon pool and code sequence for one run.
+     */
+    record Target(URI base, CouponPool pool, AtomicLong codes, Duration timeout) {
+
+        String nextCode() {
+            return CouponCode.unpackUpper(Math.floorMod(codes.getAndIncrement(), CouponCode.UPPER_SPACE));
+        }
+
+        HttpRequest get(String path) {
+            return builder(path).GET().build();
+        }
+
+        HttpRequest delete(String path) {
+            return builder(path).DELETE().build();
+        }
+
+        HttpRequest post(String path, String json) {
+            return builder(path)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(json))
+                    .build();
+        }
+
+        private HttpRequest.Builder builder(String path) {
+            return HttpRequest.newBuilder(base.resolve(path)).timeout(timeout);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.challenge.coupon.loadtest;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Weighted mix of operations, either one of the named profiles or an explicit
+ * {@code create:20,get:70,delete:10} list.
+ */
+final class Workload {
+
+    private static final Map<String, String> PROFILES = Map.of(
+            "mixed", "create:20,get:70,delete:10",
+            "read-heavy", "create:5,get:80,lookup:10,list:5",
+            "write-heavy", "create:60,get:20,delete:20",
+            "checkout", "create:5,lookup:80,get:15"
+    );
+
+    private final String name;
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+
+    private Workload(String name, Map<Operation, Integer> weights) {
+        this.name = name;
+        this.operations = weights.keySet().toArray(Operation[]::new);
+        this.cumulativeWeights = new int[operations.length];
+
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += weights.get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+
+        if (total <= 0) {
+            throw new IllegalArgumentException("Workload " + name + " has no positive weights");
+        }
+    }
+
+    static Workload of(String nameOrMix) {
+        String mix = PROFILES.getOrDefault(nameOrMix, nameOrMix);
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+
+        for (String part : mix.split(",")) {
+            String[] pair = part.trim().split(":");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Expected operation:weight, got '" + part + "'. Profiles: " + PROFILES.keySet());
+            }
+            weights.merge(Operation.valueOf(pair[0].trim().toUpperCase()), Integer.parseInt(pair[1].trim()), Integer::sum);
+        }
+
+        return new Workload(PROFILES.containsKey(nameOrMix) ? nameOrMix : "custom", weights);
+    }
+
+    Operation next() {
+        int roll = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < operations.length; i++) {
+            if (roll < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    String name() {
+        return name;
+    }
+
+    String describe() {
+        StringBuilder description = new StringBuilder();
+        int previous = 0;
+        for (int i = 0; i < operations.length; i++) {
+            description.append(i == 0 ? "" : ",")
+                    .append(operations[i].name().toLowerCase())
+                    .append(':')
+                    .append(cumulativeWeights[i] - previous);
+            previous = cumulativeWeights[i];
+        }
+        return description.toString();
+    }
+}
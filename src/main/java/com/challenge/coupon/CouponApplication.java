@@ -2,8 +2,12 @@ package com.challenge.coupon;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
 
-@SpringBootApplication
+// R2DBC is wired by ReactiveConfig for the reactive profile only; a second, auto-configured
+// transaction manager would make @Transactional on the JPA services ambiguous.
+@SpringBootApplication(exclude = {R2dbcAutoConfiguration.class, R2dbcTransactionManagerAutoConfiguration.class})
 public class CouponApplication {
 
 	public static void main(String[] args) {
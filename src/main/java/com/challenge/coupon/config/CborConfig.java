@@ -0,0 +1,22 @@
+package com.challenge.coupon.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Serves and accepts {@code application/cbor} next to JSON. The mapper comes from Boot's builder,
+ * so dates, BigDecimals and enums use the same settings as the JSON converter and the records
+ * round-trip the same way in both formats.
+ */
+@Configuration
+public class CborConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+}
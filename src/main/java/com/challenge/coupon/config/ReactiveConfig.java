@@ -0,0 +1,64 @@
+package com.challenge.coupon.config;
+
+import io.r2dbc.spi.Closeable;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+/**
+ * R2DBC wiring for the reactive profile. The URL must point at the same database as
+ * {@code spring.datasource.url}: Flyway still migrates it over JDBC at startup.
+ * Neither the connection factory nor the transaction manager are beans: a
+ * {@code ConnectionFactory} bean switches off the JDBC DataSource auto-configuration,
+ * and a second transaction manager makes {@code @Transactional} ambiguous.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveConfig {
+
+    private final ConnectionFactory connectionFactory;
+
+    public ReactiveConfig(
+            @Value("${coupon.reactive.r2dbc-url:r2dbc:pool:h2:mem:///coupon?maxSize=20}") String url,
+            @Value("${spring.datasource.username:sa}") String username,
+            @Value("${spring.datasource.password:}") String password
+    ) {
+        this.connectionFactory = ConnectionFactories.get(ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build());
+    }
+
+    // Tomcat is on the classpath for the servlet stack and would otherwise win over Netty
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Bean
+    public DatabaseClient databaseClient() {
+        return DatabaseClient.create(connectionFactory);
+    }
+
+    @Bean
+    public TransactionalOperator reactiveTransactionalOperator() {
+        return TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory));
+    }
+
+    @PreDestroy
+    void close() {
+        if (connectionFactory instanceof Closeable closeable) {
+            Mono.from(closeable.close()).block();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.challenge.coupon.config.admission;
+
+import com.challenge.coupon.support.AdaptiveConcurrencyLimit;
+import com.challenge.coupon.support.StripedTokenBuckets;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Admission control in front of {@code CouponController}: a token bucket per client
+ * ({@code coupon.admission.client-*}) and an adaptive concurrency limit per endpoint
+ * ({@code coupon.admission.*-limit}), see {@link AdmissionInterceptor}.
+ */
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(name = "coupon.admission.enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionConfig implements WebMvcConfigurer {
+
+    private static final int CLIENT_STRIPES = 64;
+    private static final int CLIENT_SLOTS_PER_STRIPE = 1024;
+
+    private final AdmissionInterceptor interceptor;
+
+    public AdmissionConfig(
+            MeterRegistry meterRegistry,
+            @Value("${coupon.admission.initial-limit:20}") int initialLimit,
+            @Value("${coupon.admission.min-limit:2}") int minLimit,
+            @Value("${coupon.admission.max-limit:200}") int maxLimit,
+            @Value("${coupon.admission.latency-tolerance:1.5}") double latencyTolerance,
+            @Value("${coupon.admission.client-rate:1000}") double clientRate,
+            @Value("${coupon.admission.client-burst:2000}") int clientBurst,
+            @Value("${coupon.admission.client-header:X-Client-Id}") String clientHeader,
+            @Value("${coupon.admission.trusted-proxies:}") String trustedProxies
+    ) {
+        this.interceptor = new AdmissionInterceptor(
+                new StripedTokenBuckets(CLIENT_STRIPES, CLIENT_SLOTS_PER_STRIPE, clientRate, clientBurst, System::nanoTime),
+                () -> new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit, latencyTolerance),
+                clientHeader,
+                StringUtils.commaDelimitedListToSet(trustedProxies.replace(" ", "")),
+                meterRegistry
+        );
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(interceptor).addPathPatterns("/coupon", "/coupon/**");
+    }
+}
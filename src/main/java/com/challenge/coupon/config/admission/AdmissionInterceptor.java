@@ -0,0 +1,119 @@
+package com.challenge.coupon.config.admission;
+
+import com.challenge.coupon.domain.entity.exception.ServiceOverloadedException;
+import com.challenge.coupon.domain.entity.exception.TooManyRequestsException;
+import com.challenge.coupon.support.AdaptiveConcurrencyLimit;
+import com.challenge.coupon.support.StripedTokenBuckets;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Admits a request only if its client has a token left and its endpoint is under its
+ * concurrency limit; otherwise it fails at once with 429 or 503, before a Tomcat thread waits on
+ * the connection pool. The permit is held until the response completes, across the async
+ * dispatch of a streamed export, and its latency feeds the endpoint's limit.
+ */
+public class AdmissionInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String PERMIT = AdmissionInterceptor.class.getName() + ".permit";
+
+    private final StripedTokenBuckets clientBuckets;
+    private final Supplier<AdaptiveConcurrencyLimit> limits;
+    private final String clientHeader;
+    private final Set<String> trustedProxies;
+    private final MeterRegistry meterRegistry;
+    private final Map<Method, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    public AdmissionInterceptor(
+            StripedTokenBuckets clientBuckets,
+            Supplier<AdaptiveConcurrencyLimit> limits,
+            String clientHeader,
+            Set<String> trustedProxies,
+            MeterRegistry meterRegistry
+    ) {
+        this.clientBuckets = clientBuckets;
+        this.limits = limits;
+        this.clientHeader = clientHeader;
+        this.trustedProxies = trustedProxies;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+
+        if (!(handler instanceof HandlerMethod method) || request.getAttribute(PERMIT) != null) {
+            return true;
+        }
+
+        Endpoint endpoint = endpoints.computeIfAbsent(method.getMethod(), this::register);
+
+        long waitNanos = clientBuckets.tryTake(clientId(request));
+        if (waitNanos > 0) {
+            endpoint.rateLimited.increment();
+            long retryAfterSeconds = TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1);
+            throw new TooManyRequestsException("Too many requests from this client", retryAfterSeconds);
+        }
+
+        if (!endpoint.limit.tryAcquire()) {
+            endpoint.shed.increment();
+            throw new ServiceOverloadedException("Coupon service is overloaded, retry later");
+        }
+
+        request.setAttribute(PERMIT, new Permit(endpoint.limit, System.nanoTime()));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+
+        if (request.getAttribute(PERMIT) instanceof Permit permit) {
+            request.removeAttribute(PERMIT);
+            permit.limit.release(System.nanoTime() - permit.startNanos);
+        }
+    }
+
+    // Any caller can send the header, so it names the client only when a trusted gateway forwarded the request
+    private String clientId(HttpServletRequest request) {
+        String address = request.getRemoteAddr();
+        if (!trustedProxies.contains(address)) {
+            return address;
+        }
+
+        String client = request.getHeader(clientHeader);
+        return client == null || client.isBlank() ? address : client;
+    }
+
+    private Endpoint register(Method method) {
+        AdaptiveConcurrencyLimit limit = limits.get();
+
+        Gauge.builder("coupon.admission.limit", limit, AdaptiveConcurrencyLimit::limit)
+                .description("Concurrent requests the endpoint currently admits")
+                .tag("endpoint", method.getName())
+                .register(meterRegistry);
+
+        return new Endpoint(limit, rejected(method, "rate"), rejected(method, "overload"));
+    }
+
+    private Counter rejected(Method method, String reason) {
+        return Counter.builder("coupon.admission.rejected")
+                .tag("endpoint", method.getName())
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    private record Endpoint(AdaptiveConcurrencyLimit limit, Counter rateLimited, Counter shed) {}
+
+    private record Permit(AdaptiveConcurrencyLimit limit, long startNanos) {}
+}
@@ -0,0 +1,176 @@
+package com.challenge.coupon.config.datasource;
+
+import com.challenge.coupon.domain.entity.coupon.ShardedUuidGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Picks the shard for a coupon code or id and pins the work that follows to it, see
+ * {@link ShardRoutingDataSource}. Work on a code or id runs on the caller's thread and
+ * transaction; work that spans shards runs in parallel, one transaction per shard, since a
+ * transaction holds a single connection. With one shard, the default when
+ * {@code coupon.sharding.urls} is not set, everything runs inline in the caller's transaction.
+ */
+@Component
+public class CouponShards implements AutoCloseable {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private final int count;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final ExecutorService executor;
+
+    public CouponShards(
+            @Value("${coupon.sharding.urls:}") String urls,
+            PlatformTransactionManager transactionManager
+    ) {
+        this.count = Math.max(1, urls(urls).size());
+
+        if (count > 1) {
+            this.readTransaction = new TransactionTemplate(transactionManager);
+            this.readTransaction.setReadOnly(true);
+            this.writeTransaction = new TransactionTemplate(transactionManager);
+            this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        } else {
+            this.readTransaction = null;
+            this.writeTransaction = null;
+            this.executor = null;
+        }
+    }
+
+    static List<String> urls(String urls) {
+        return Arrays.stream(StringUtils.commaDelimitedListToStringArray(urls))
+                .map(String::trim)
+                .filter(url -> !url.isEmpty())
+                .toList();
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public int forCode(String code) {
+        return ShardedUuidGenerator.bucket(code) % count;
+    }
+
+    public int forId(UUID id) {
+        return ShardedUuidGenerator.bucket(id) % count;
+    }
+
+    /**
+     * Runs {@code work} against {@code shard}. Must be called before the surrounding
+     * transaction touches the database, which then stays on that shard until it ends.
+     */
+    public <T> T on(int shard, Supplier<T> work) {
+        if (count == 1) {
+            return work.get();
+        }
+
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return work.get();
+        } finally {
+            CURRENT.set(previous);
+        }
+    }
+
+    public void on(int shard, Runnable work) {
+        on(shard, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    // One shard after the other on the caller's thread, for background jobs that open their own transactions
+    public void forEach(IntConsumer work) {
+        for (int shard = 0; shard < count; shard++) {
+            int current = shard;
+            on(shard, () -> work.accept(current));
+        }
+    }
+
+    /**
+     * Runs {@code work} once per shard and returns the results in shard order. With more than
+     * one shard each call gets its own virtual thread and transaction; the first failure is
+     * rethrown once every shard has finished, and shards that succeeded stay committed.
+     */
+    public <T> List<T> fanOut(boolean readOnly, IntFunction<T> work) {
+        RuntimeException[] failure = new RuntimeException[1];
+        List<T> results = fanOutEach(readOnly, work, e -> {
+            if (failure[0] == null) {
+                failure[0] = e;
+            }
+            return null;
+        });
+
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+        return results;
+    }
+
+    /**
+     * Like {@link #fanOut}, for callers that report what each shard committed: a shard that
+     * fails gets {@code onFailure} of its exception in its slot, after its transaction rolled
+     * back, and the others keep their results. With one shard the work runs in the caller's
+     * transaction, so its failure is thrown as is and nothing is committed.
+     */
+    public <T> List<T> fanOutEach(boolean readOnly, IntFunction<T> work, Function<RuntimeException, T> onFailure) {
+        if (count == 1) {
+            return Collections.singletonList(work.apply(0));
+        }
+
+        TransactionTemplate transaction = readOnly ? readTransaction : writeTransaction;
+        List<Future<T>> futures = new ArrayList<>(count);
+        for (int shard = 0; shard < count; shard++) {
+            int current = shard;
+            futures.add(executor.submit(() -> on(current, () -> transaction.execute(status -> work.apply(current)))));
+        }
+
+        List<T> results = new ArrayList<>(count);
+        for (Future<T> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                results.add(onFailure.apply(e.getCause() instanceof RuntimeException cause
+                        ? cause
+                        : new IllegalStateException("Shard work failed", e.getCause())));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the shards", e);
+            }
+        }
+        return results;
+    }
+
+    static int currentShard() {
+        Integer shard = CURRENT.get();
+        return shard == null ? 0 : shard;
+    }
+
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+}
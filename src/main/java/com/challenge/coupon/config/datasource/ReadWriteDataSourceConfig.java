@@ -0,0 +1,77 @@
+package com.challenge.coupon.config.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Read/write split, active when {@code coupon.datasource.replica.url} is set. The primary
+ * pool is still configured by {@code spring.datasource.*}; the replica pool by
+ * {@code coupon.datasource.replica.*}. The application-wide DataSource routes each
+ * transaction's connection, see {@link ReadWriteRoutingDataSource}.
+ */
+@Configuration
+@ConditionalOnProperty("coupon.datasource.replica.url")
+public class ReadWriteDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("coupon.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(
+            @Value("${coupon.datasource.replica.url}") String url,
+            @Value("${coupon.datasource.replica.username:${spring.datasource.username:sa}}") String username,
+            @Value("${coupon.datasource.replica.password:${spring.datasource.password:}}") String password
+    ) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(
+            @Qualifier("primaryDataSource") DataSource primary,
+            @Qualifier("replicaDataSource") DataSource replica,
+            @Value("${coupon.datasource.replica.max-lag:2s}") Duration maxLag,
+            MeterRegistry meterRegistry
+    ) {
+        return new ReplicaLagMonitor(primary, replica, maxLag, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            @Qualifier("primaryDataSource") DataSource primary,
+            @Qualifier("replicaDataSource") DataSource replica,
+            ReplicaLagMonitor replicaLagMonitor,
+            MeterRegistry meterRegistry
+    ) {
+        return new LazyConnectionDataSourceProxy(
+                new ReadWriteRoutingDataSource(primary, replica, replicaLagMonitor::replicaUsable, meterRegistry)
+        );
+    }
+}
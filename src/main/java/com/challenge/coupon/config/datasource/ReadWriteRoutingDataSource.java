@@ -0,0 +1,59 @@
+package com.challenge.coupon.config.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Sends connections for read-only transactions to the replica while it is within the lag
+ * tolerance and the read is not pinned by {@link ReadYourWrites}; everything else goes to the
+ * primary. Only correct behind a {@code LazyConnectionDataSourceProxy}, which defers the
+ * lookup until the transaction's read-only flag is set.
+ */
+class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Route {
+        PRIMARY, REPLICA
+    }
+
+    private final BooleanSupplier replicaUsable;
+    private final Map<Route, Counter> routed = new EnumMap<>(Route.class);
+
+    ReadWriteRoutingDataSource(
+            DataSource primary,
+            DataSource replica,
+            BooleanSupplier replicaUsable,
+            MeterRegistry meterRegistry
+    ) {
+        this.replicaUsable = replicaUsable;
+
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+
+        for (Route route : Route.values()) {
+            routed.put(route, Counter.builder("coupon.datasource.route")
+                    .description("Connections handed out per datasource")
+                    .tag("target", route.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Route route = TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && !ReadYourWrites.primaryForced()
+                && replicaUsable.getAsBoolean()
+                ? Route.REPLICA
+                : Route.PRIMARY;
+
+        routed.get(route).increment();
+        return route;
+    }
+}
@@ -0,0 +1,66 @@
+package com.challenge.coupon.config.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the keys (coupon ids and codes) written on this node for a short window, and
+ * pins reads of those keys to the primary so a client sees its own write even while the
+ * replica is still catching up. A no-op when no replica is configured.
+ */
+@Component
+public class ReadYourWrites {
+
+    private static final ThreadLocal<Boolean> PRIMARY = new ThreadLocal<>();
+
+    private final boolean enabled;
+    private final Cache<String, Boolean> recent;
+
+    public ReadYourWrites(
+            @Value("${coupon.datasource.replica.url:}") String replicaUrl,
+            @Value("${coupon.datasource.replica.sticky-window:5s}") Duration stickyWindow
+    ) {
+        this.enabled = !replicaUrl.isBlank();
+        this.recent = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(stickyWindow)
+                .build();
+    }
+
+    public void written(UUID id, String code) {
+        if (!enabled) {
+            return;
+        }
+
+        recent.put(id.toString(), Boolean.TRUE);
+        recent.put(code, Boolean.TRUE);
+    }
+
+    /**
+     * Runs {@code read} on the primary if any of {@code keys} was written within the window.
+     * Must be called before the surrounding read-only transaction touches the database.
+     */
+    public <T> T read(Collection<String> keys, Supplier<T> read) {
+        if (!enabled || PRIMARY.get() != null || keys.stream().noneMatch(key -> recent.getIfPresent(key) != null)) {
+            return read.get();
+        }
+
+        PRIMARY.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            PRIMARY.remove();
+        }
+    }
+
+    static boolean primaryForced() {
+        return PRIMARY.get() != null;
+    }
+}
@@ -0,0 +1,71 @@
+package com.challenge.coupon.config.datasource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures replication lag with a heartbeat row: each probe stamps the current time on the
+ * primary and reads the stamp back from the replica. The replica is usable while the
+ * difference stays within {@code coupon.datasource.replica.max-lag}; until the first
+ * successful probe, or when the replica cannot be read, it is not.
+ */
+public class ReplicaLagMonitor {
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final long maxLagMillis;
+    private final AtomicLong lagMillis = new AtomicLong(Long.MAX_VALUE);
+    private volatile boolean usable;
+
+    public ReplicaLagMonitor(DataSource primary, DataSource replica, Duration maxLag, MeterRegistry meterRegistry) {
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.maxLagMillis = maxLag.toMillis();
+
+        TimeGauge.builder("coupon.datasource.replica.lag", lagMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("Age of the newest primary heartbeat visible on the replica")
+                .register(meterRegistry);
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    @Scheduled(fixedDelayString = "${coupon.datasource.replica.lag-probe-interval:1s}")
+    public void probe() {
+        LocalDateTime now = LocalDateTime.now();
+
+        try {
+            primary.update("update replication_heartbeat set beat_at = ? where id = 1", Timestamp.valueOf(now));
+            Timestamp beat = replica.queryForObject("select beat_at from replication_heartbeat where id = 1", Timestamp.class);
+            lagMillis.set(Math.max(0, Duration.between(beat.toLocalDateTime(), now).toMillis()));
+        } catch (RuntimeException e) {
+            lagMillis.set(Long.MAX_VALUE);
+            log.warn("Replica lag probe failed, reads go to the primary: {}", e.getMessage());
+        }
+
+        boolean wasUsable = usable;
+        usable = lagMillis.get() <= maxLagMillis;
+
+        if (wasUsable != usable) {
+            log.info("Replica {} (lag {} ms, tolerance {} ms)", usable ? "in use" : "bypassed", lagMillis.get(), maxLagMillis);
+        }
+    }
+
+    public boolean replicaUsable() {
+        return usable;
+    }
+
+    public long lagMillis() {
+        return lagMillis.get();
+    }
+}
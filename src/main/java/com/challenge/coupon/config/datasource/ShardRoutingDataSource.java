@@ -0,0 +1,45 @@
+package com.challenge.coupon.config.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hands out connections from the pool of the shard selected by {@link CouponShards}, shard 0
+ * when none is. Only correct behind a {@code LazyConnectionDataSourceProxy}, which defers the
+ * lookup to the transaction's first statement, after the shard has been picked.
+ */
+class ShardRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private final List<HikariDataSource> shards;
+
+    ShardRoutingDataSource(List<HikariDataSource> shards) {
+        this.shards = shards;
+
+        Map<Object, Object> targets = new HashMap<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            targets.put(shard, shards.get(shard));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(shards.getFirst());
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    List<HikariDataSource> shards() {
+        return shards;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return CouponShards.currentShard();
+    }
+
+    @Override
+    public void close() {
+        shards.forEach(HikariDataSource::close);
+    }
+}
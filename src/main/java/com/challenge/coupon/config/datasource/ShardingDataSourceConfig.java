@@ -0,0 +1,87 @@
+package com.challenge.coupon.config.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sharded persistence, active when {@code coupon.sharding.urls} lists the JDBC URLs of the
+ * shards, in a fixed order: a coupon's shard is its id bucket modulo the number of URLs. Every
+ * shard holds the full schema, including its own outbox and archive, and is migrated by
+ * Flyway on start. Replaces {@code spring.datasource.url}. Refuses to start with a replica,
+ * which would add a second primary DataSource, or with the mapped store, which is one per
+ * process and would be read once per shard by every fan-out.
+ */
+@Configuration
+@ConditionalOnProperty("coupon.sharding.urls")
+public class ShardingDataSourceConfig {
+
+    public ShardingDataSourceConfig(
+            @Value("${coupon.datasource.replica.url:}") String replicaUrl,
+            @Value("${coupon.storage.backend:jpa}") String storageBackend
+    ) {
+        if (!replicaUrl.isBlank()) {
+            throw new IllegalStateException(
+                    "coupon.sharding.urls cannot be combined with coupon.datasource.replica.url"
+            );
+        }
+        if ("mapped".equals(storageBackend)) {
+            throw new IllegalStateException(
+                    "coupon.sharding.urls cannot be combined with coupon.storage.backend=mapped"
+            );
+        }
+    }
+
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(
+            @Value("${coupon.sharding.urls}") String urls,
+            @Value("${spring.datasource.username:sa}") String username,
+            @Value("${spring.datasource.password:}") String password,
+            @Value("${coupon.sharding.hikari.maximum-pool-size:10}") int maximumPoolSize
+    ) {
+        List<HikariDataSource> shards = new ArrayList<>();
+        for (String url : CouponShards.urls(urls)) {
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(url)
+                    .username(username)
+                    .password(password)
+                    .build();
+            dataSource.setPoolName("shard-" + shards.size());
+            dataSource.setMaximumPoolSize(maximumPoolSize);
+            shards.add(dataSource);
+        }
+        return new ShardRoutingDataSource(shards);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+
+    // Boot's Flyway only sees the routing DataSource, which would migrate shard 0 alone
+    @Bean
+    public FlywayMigrationStrategy shardedMigration(ShardRoutingDataSource shardRoutingDataSource) {
+        return flyway -> {
+            for (HikariDataSource shard : shardRoutingDataSource.shards()) {
+                Flyway.configure()
+                        .configuration(flyway.getConfiguration())
+                        .dataSource(shard)
+                        .load()
+                        .migrate();
+            }
+        };
+    }
+}
@@ -1,55 +1,62 @@
 package com.challenge.coupon.config.exception;
 
 import com.challenge.coupon.domain.entity.exception.*;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
     private static final Logger log = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
-    @ExceptionHandler(DomainException.class)
-    public ResponseEntity<ErrorResponse> domainException(DomainException ex) {
-
-        ErrorResponse error = new ErrorResponse(HttpStatus.BAD_REQUEST.value(), List.of(ex.getMessage()));
+    private final MeterRegistry meterRegistry;
+    private final Map<Class<?>, Counter> counters = new ConcurrentHashMap<>();
 
-        log.info("domainException: {}", ex.getMessage());
-        return ResponseEntity.badRequest().body(error);
+    public GlobalExceptionHandler(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
     }
 
-    @ExceptionHandler(InvalidCodeException.class)
-    public ResponseEntity<ErrorResponse> invalidCodeException(InvalidCodeException ex) {
-
-        ErrorResponse error = new ErrorResponse(HttpStatus.BAD_REQUEST.value(), List.of(ex.getMessage()));
-
-        log.info("invalidCodeException: {}", ex.getMessage());
-        return ResponseEntity.badRequest().body(error);
+    private void count(Exception ex) {
+        counters.computeIfAbsent(ex.getClass(), type -> Counter.builder("coupon.exceptions")
+                .tag("type", type.getSimpleName())
+                .register(meterRegistry)
+        ).increment();
     }
 
-    @ExceptionHandler(InvalidDiscountValueException.class)
-    public ResponseEntity<ErrorResponse> invalidDiscountValueException(InvalidDiscountValueException ex) {
+    @ExceptionHandler(DomainException.class)
+    public ResponseEntity<ErrorResponse> domainException(DomainException ex) {
 
         ErrorResponse error = new ErrorResponse(HttpStatus.BAD_REQUEST.value(), List.of(ex.getMessage()));
 
-        log.info("invalidDiscountValueException: {}", ex.getMessage());
+        count(ex);
+        log.info("domainException: {}", ex.getMessage());
         return ResponseEntity.badRequest().body(error);
     }
 
-    @ExceptionHandler(InvalidExpirationDateException.class)
-    public ResponseEntity<ErrorResponse> invalidExpirationDateException(InvalidExpirationDateException ex) {
+    @ExceptionHandler(CouponValidationException.class)
+    public ResponseEntity<ErrorResponse> couponValidationException(CouponValidationException ex) {
 
-        ErrorResponse error = new ErrorResponse(HttpStatus.BAD_REQUEST.value(), List.of(ex.getMessage()));
+        ErrorResponse error = new ErrorResponse(HttpStatus.BAD_REQUEST.value(), ex.getErrors());
 
-        log.info("invalidExpirationDateException: {}", ex.getMessage());
+        count(ex);
+        log.info("couponValidationException: {}", ex.getErrors());
         return ResponseEntity.badRequest().body(error);
     }
 
@@ -58,6 +65,7 @@ public class GlobalExceptionHandler {
 
         ErrorResponse error = new ErrorResponse(HttpStatus.BAD_REQUEST.value(), List.of(ex.getMessage()));
 
+        count(ex);
         log.info("domainNotFoundException: {}", ex.getMessage());
         return ResponseEntity.badRequest().body(error);
     }
@@ -67,25 +75,109 @@ public class GlobalExceptionHandler {
 
         ErrorResponse error = new ErrorResponse(HttpStatus.BAD_REQUEST.value(), List.of(ex.getMessage()));
 
+        count(ex);
         log.info("duplicateCodeException: {}", ex.getMessage());
         return ResponseEntity.badRequest().body(error);
     }
 
+    @ExceptionHandler(CouponNotRedeemableException.class)
+    public ResponseEntity<ErrorResponse> couponNotRedeemableException(CouponNotRedeemableException ex) {
+
+        ErrorResponse error = new ErrorResponse(HttpStatus.CONFLICT.value(), List.of(ex.getMessage()));
+
+        count(ex);
+        log.info("couponNotRedeemableException: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ErrorResponse> preconditionFailedException(PreconditionFailedException ex) {
+
+        ErrorResponse error = new ErrorResponse(HttpStatus.PRECONDITION_FAILED.value(), List.of(ex.getMessage()));
+
+        count(ex);
+        log.info("preconditionFailedException: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(error);
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> optimisticLockingFailureException(OptimisticLockingFailureException ex) {
+
+        ErrorResponse error = new ErrorResponse(
+                HttpStatus.CONFLICT.value(), List.of("Coupon was modified concurrently, retry the request")
+        );
+
+        count(ex);
+        log.info("optimisticLockingFailureException: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
+    // Shed under overload, so logged at debug: one line per rejection would add to the load being shed
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ErrorResponse> tooManyRequestsException(TooManyRequestsException ex) {
+
+        ErrorResponse error = new ErrorResponse(HttpStatus.TOO_MANY_REQUESTS.value(), List.of(ex.getMessage()));
+
+        count(ex);
+        log.debug("tooManyRequestsException: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(error);
+    }
+
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<ErrorResponse> serviceOverloadedException(ServiceOverloadedException ex) {
+
+        ErrorResponse error = new ErrorResponse(HttpStatus.SERVICE_UNAVAILABLE.value(), List.of(ex.getMessage()));
+
+        count(ex);
+        log.debug("serviceOverloadedException: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(error);
+    }
+
     @ExceptionHandler(InvalidUuidException.class)
     public ResponseEntity<ErrorResponse> invalidUuidException(InvalidUuidException ex) {
 
         ErrorResponse error = new ErrorResponse(HttpStatus.BAD_REQUEST.value(), List.of(ex.getMessage()));
 
+        count(ex);
         log.info("invalidUuidException: {}", ex.getMessage());
         return ResponseEntity.badRequest().body(error);
     }
 
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<ErrorResponse> methodArgumentTypeMismatchException(MethodArgumentTypeMismatchException ex) {
+
+        ErrorResponse error = new ErrorResponse(
+                HttpStatus.BAD_REQUEST.value(), List.of("Invalid value '" + ex.getValue() + "' for parameter " + ex.getName())
+        );
+
+        count(ex);
+        log.info("methodArgumentTypeMismatchException: {}", ex.getMessage());
+        return ResponseEntity.badRequest().body(error);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorResponse> methodArgumentNotValidException(MethodArgumentNotValidException ex) {
 
+        count(ex);
+        return validationErrors(ex.getBindingResult());
+    }
+
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<ErrorResponse> webExchangeBindException(WebExchangeBindException ex) {
+
+        count(ex);
+        return validationErrors(ex.getBindingResult());
+    }
+
+    private ResponseEntity<ErrorResponse> validationErrors(BindingResult bindingResult) {
+
         List<String> errors = new ArrayList<>();
 
-        ex.getBindingResult().getAllErrors().forEach(error -> {
+        bindingResult.getAllErrors().forEach(error -> {
             String errorMessage = error.getDefaultMessage();
 
             errors.add(errorMessage);
@@ -0,0 +1,91 @@
+package com.challenge.coupon.config.metrics;
+
+import com.challenge.coupon.config.datasource.CouponShards;
+import com.challenge.coupon.domain.entity.coupon.CouponStatus;
+import com.challenge.coupon.repository.CouponStatusCount;
+import com.challenge.coupon.repository.CouponStore;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coupon counts per status, refreshed in the background with one grouped query so that a
+ * scrape never touches the table, plus the saturation of the Hikari pool (active / max).
+ */
+@Component
+public class CouponGauges {
+
+    private final CouponStore couponStore;
+    private final CouponShards couponShards;
+    private final Map<CouponStatus, AtomicLong> counts = new EnumMap<>(CouponStatus.class);
+
+    public CouponGauges(
+            CouponStore couponStore,
+            CouponShards couponShards,
+            MeterRegistry meterRegistry,
+            DataSource dataSource
+    ) {
+        this.couponStore = couponStore;
+        this.couponShards = couponShards;
+
+        for (CouponStatus status : CouponStatus.values()) {
+            AtomicLong count = new AtomicLong();
+            counts.put(status, count);
+            Gauge.builder("coupon.count", count, AtomicLong::get)
+                    .tag("status", status.name())
+                    .register(meterRegistry);
+        }
+
+        HikariDataSource hikari = unwrap(dataSource);
+        if (hikari != null) {
+            Gauge.builder("coupon.db.pool.saturation", hikari, CouponGauges::saturation)
+                    .description("Active connections divided by the maximum pool size")
+                    .register(meterRegistry);
+        }
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(CouponGauges.class);
+
+    @Scheduled(fixedDelayString = "${coupon.metrics.count-refresh:30s}")
+    public void refreshCounts() {
+
+        Map<CouponStatus, Long> totals = new EnumMap<>(CouponStatus.class);
+        couponShards.forEach(shard -> {
+            for (CouponStatusCount count : couponStore.countByStatus()) {
+                if (count.getStatus() != null) {
+                    totals.merge(count.getStatus(), count.getTotal(), Long::sum);
+                }
+            }
+        });
+
+        counts.forEach((status, count) -> count.set(totals.getOrDefault(status, 0L)));
+    }
+
+    private static double saturation(HikariDataSource hikari) {
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        if (pool == null) {
+            return 0;
+        }
+        return (double) pool.getActiveConnections() / hikari.getMaximumPoolSize();
+    }
+
+    private static HikariDataSource unwrap(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException e) {
+            log.warn("Could not unwrap the datasource, pool saturation gauge disabled", e);
+            return null;
+        }
+    }
+}
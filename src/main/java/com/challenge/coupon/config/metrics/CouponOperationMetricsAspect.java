@@ -0,0 +1,39 @@
+package com.challenge.coupon.config.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times every public {@code CouponService} operation as {@code coupon.operations}, tagged by
+ * operation and outcome (success, rejected by a domain rule, or error).
+ */
+@Aspect
+@Component
+public class CouponOperationMetricsAspect {
+
+    private final OperationTimers timers;
+
+    public CouponOperationMetricsAspect(MeterRegistry meterRegistry) {
+        this.timers = new OperationTimers(meterRegistry, "coupon.operations");
+    }
+
+    @Around("execution(public * com.challenge.coupon.service.coupon.CouponService.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+
+        long start = System.nanoTime();
+        Throwable error = null;
+
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            error = e;
+            throw e;
+        } finally {
+            timers.record(((MethodSignature) joinPoint.getSignature()).getMethod(), OperationTimers.Outcome.of(error), start);
+        }
+    }
+}
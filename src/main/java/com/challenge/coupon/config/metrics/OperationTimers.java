@@ -0,0 +1,56 @@
+package com.challenge.coupon.config.metrics;
+
+import com.challenge.coupon.domain.entity.exception.DomainException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Percentile-histogram timers per operation and outcome. Timers are resolved once per
+ * method and then looked up by identity, so recording allocates nothing on the hot path.
+ */
+public class OperationTimers {
+
+    public enum Outcome {
+        SUCCESS, REJECTED, ERROR;
+
+        public static Outcome of(Throwable error) {
+            if (error == null) {
+                return SUCCESS;
+            }
+            return error instanceof DomainException ? REJECTED : ERROR;
+        }
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final String name;
+    private final Map<Method, Timer[]> timers = new ConcurrentHashMap<>();
+
+    public OperationTimers(MeterRegistry meterRegistry, String name) {
+        this.meterRegistry = meterRegistry;
+        this.name = name;
+    }
+
+    public void record(Method method, Outcome outcome, long startNanos) {
+        Timer[] byOutcome = timers.computeIfAbsent(method, this::register);
+        byOutcome[outcome.ordinal()].record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer[] register(Method method) {
+        Outcome[] outcomes = Outcome.values();
+        Timer[] byOutcome = new Timer[outcomes.length];
+
+        for (Outcome outcome : outcomes) {
+            byOutcome[outcome.ordinal()] = Timer.builder(name)
+                    .tag("operation", method.getName())
+                    .tag("outcome", outcome.name().toLowerCase())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+        return byOutcome;
+    }
+}
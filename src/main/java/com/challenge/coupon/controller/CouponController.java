@@ -1,23 +1,64 @@
 package com.challenge.coupon.controller;
 
+import com.challenge.coupon.controller.api.CouponBatchResponse;
 import com.challenge.coupon.controller.api.CouponCreateRequest;
+import com.challenge.coupon.controller.api.CouponGenerateResponse;
+import com.challenge.coupon.controller.api.CouponLookupRequest;
+import com.challenge.coupon.controller.api.CouponLookupResponse;
+import com.challenge.coupon.controller.api.CouponPageResponse;
+import com.challenge.coupon.controller.api.CouponQuoteRequest;
+import com.challenge.coupon.controller.api.CouponQuoteResponse;
 import com.challenge.coupon.controller.api.CouponResponse;
 import com.challenge.coupon.domain.entity.coupon.Coupon;
+import com.challenge.coupon.domain.entity.coupon.CouponStatus;
+import com.challenge.coupon.repository.CouponVersion;
+import com.challenge.coupon.service.coupon.CouponCodeGenerator;
+import com.challenge.coupon.service.coupon.CouponExporter;
+import com.challenge.coupon.service.coupon.CouponFilter;
 import com.challenge.coupon.service.coupon.CouponService;
+import com.challenge.coupon.service.coupon.EncodedCouponCache;
 import jakarta.validation.Valid;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ETag;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/coupon")
+@Profile("!reactive")
 public class CouponController {
 
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final String CBOR_ETAG_SUFFIX = "-cbor";
+
     private final CouponService couponService;
+    private final CouponExporter couponExporter;
+    private final CouponCodeGenerator couponCodeGenerator;
+    private final EncodedCouponCache encodedCouponCache;
 
-    public CouponController(CouponService couponService) {
+    public CouponController(
+            CouponService couponService,
+            CouponExporter couponExporter,
+            CouponCodeGenerator couponCodeGenerator,
+            EncodedCouponCache encodedCouponCache
+    ) {
 
         this.couponService = couponService;
+        this.couponExporter = couponExporter;
+        this.couponCodeGenerator = couponCodeGenerator;
+        this.encodedCouponCache = encodedCouponCache;
     }
 
     @PostMapping
@@ -27,17 +68,167 @@ public class CouponController {
         return ResponseEntity.status(HttpStatus.CREATED).body(CouponResponse.from(couponCreated));
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<CouponBatchResponse> createBatch(@RequestBody List<CouponCreateRequest> requests) {
+
+        var results = couponService.createBatch(requests);
+        return ResponseEntity.status(HttpStatus.OK).body(CouponBatchResponse.from(results));
+    }
+
+    @PostMapping("/generate")
+    public ResponseEntity<CouponGenerateResponse> generate(@RequestParam(value = "count", defaultValue = "1") int count) {
+
+        var codes = couponCodeGenerator.generate(count);
+        return ResponseEntity.status(HttpStatus.OK).body(new CouponGenerateResponse(codes.size(), codes));
+    }
+
+    @PostMapping("/lookup")
+    public ResponseEntity<CouponLookupResponse> lookup(@RequestBody CouponLookupRequest request) {
+
+        var results = couponService.lookup(request.codes(), request.ids());
+        return ResponseEntity.status(HttpStatus.OK).body(CouponLookupResponse.from(results));
+    }
+
+    @PostMapping("/quote")
+    public ResponseEntity<CouponQuoteResponse> quote(@RequestBody CouponQuoteRequest request) {
+
+        var results = couponService.quote(request.carts());
+        return ResponseEntity.status(HttpStatus.OK).body(CouponQuoteResponse.from(results));
+    }
+
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> delete(@PathVariable("id") String id) {
+    public ResponseEntity<Void> delete(
+            @PathVariable("id") String id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
 
-        couponService.delete(id);
+        couponService.delete(id, ifMatchVersions(ifMatch));
         return ResponseEntity.status(HttpStatus.NO_CONTENT).body(null);
     }
 
-    @GetMapping("/{id}")
-    public ResponseEntity<CouponResponse> findById(@PathVariable("id") String id) {
+    @GetMapping
+    public ResponseEntity<CouponPageResponse> list(
+            @RequestParam(value = "status", required = false) CouponStatus status,
+            @RequestParam(value = "published", required = false) Boolean published,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "size", defaultValue = "100") int size
+    ) {
+
+        var coupons = couponService.list(new CouponFilter(status, published), after, size);
+        return ResponseEntity.status(HttpStatus.OK).body(CouponPageResponse.from(coupons, size));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(value = "status", required = false) CouponStatus status,
+            @RequestParam(value = "published", required = false) Boolean published
+    ) {
+
+        CouponFilter filter = new CouponFilter(status, published);
+        StreamingResponseBody body = output -> couponExporter.export(filter, output);
+        return ResponseEntity.status(HttpStatus.OK).contentType(NDJSON).body(body);
+    }
+
+    @GetMapping(value = "/{id}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<byte[]> findById(
+            @PathVariable("id") String id,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+
+        MediaType format = responseFormat(accept);
+
+        // Pollers revalidate against the version alone, without loading or serializing the coupon
+        if (ifNoneMatch != null) {
+            CouponVersion current = couponService.findVersion(id);
+            ETag etag = etag(current.version(), format);
+
+            if (ETag.parse(ifNoneMatch).stream().anyMatch(tag -> tag.isWildcard() || tag.compare(etag, false))) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(etag.formattedTag())
+                        .lastModified(lastModified(current.updatedAt()))
+                        .varyBy(HttpHeaders.ACCEPT)
+                        .build();
+            }
+        }
 
         Coupon coupon = couponService.findById(id);
+        return ResponseEntity.status(HttpStatus.OK)
+                .contentType(format)
+                .eTag(etag(coupon.getVersion(), format).formattedTag())
+                .lastModified(lastModified(coupon.getUpdatedAt()))
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(encodedCouponCache.encode(coupon, format));
+    }
+
+    @PostMapping("/{id}/redeem")
+    public ResponseEntity<CouponResponse> redeem(@PathVariable("id") String id) {
+
+        Coupon coupon = couponService.redeem(id);
+        return ResponseEntity.status(HttpStatus.OK).body(CouponResponse.from(coupon));
+    }
+
+    // JSON unless the client prefers CBOR; wildcards and a missing Accept keep JSON
+    private static MediaType responseFormat(String accept) {
+
+        if (accept == null) {
+            return MediaType.APPLICATION_JSON;
+        }
+
+        List<MediaType> accepted = MediaType.parseMediaTypes(accept);
+        MimeTypeUtils.sortBySpecificity(accepted);
+
+        for (MediaType type : accepted) {
+            if (type.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return MediaType.APPLICATION_JSON;
+            }
+            if (type.isCompatibleWith(MediaType.APPLICATION_CBOR)) {
+                return MediaType.APPLICATION_CBOR;
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+
+    // Strong validators must differ per representation, so CBOR carries a suffix; If-Match accepts either
+    private static ETag etag(long version, MediaType format) {
+        String tag = Long.toString(version);
+        return new ETag(MediaType.APPLICATION_CBOR.equals(format) ? tag + CBOR_ETAG_SUFFIX : tag, false);
+    }
+
+    private static Instant lastModified(LocalDateTime updatedAt) {
+        return updatedAt.atZone(ZoneId.systemDefault()).toInstant();
+    }
+
+    // If-Match uses strong comparison, so weak or non-numeric tags never match; "*" matches any existing coupon
+    private static Set<Long> ifMatchVersions(String ifMatch) {
+
+        if (ifMatch == null) {
+            return null;
+        }
+
+        Set<Long> versions = new HashSet<>();
+        for (ETag tag : ETag.parse(ifMatch)) {
+            if (tag.isWildcard()) {
+                return null;
+            }
+            if (!tag.weak()) {
+                String version = tag.tag().endsWith(CBOR_ETAG_SUFFIX)
+                        ? tag.tag().substring(0, tag.tag().length() - CBOR_ETAG_SUFFIX.length())
+                        : tag.tag();
+                try {
+                    versions.add(Long.parseLong(version));
+                } catch (NumberFormatException ignored) {
+                    // Not one of ours, so it cannot match
+                }
+            }
+        }
+        return versions;
+    }
+
+    @PostMapping("/code/{code}/redeem")
+    public ResponseEntity<CouponResponse> redeemByCode(@PathVariable("code") String code) {
+
+        Coupon coupon = couponService.redeemByCode(code);
         return ResponseEntity.status(HttpStatus.OK).body(CouponResponse.from(coupon));
     }
 }
\ No newline at end of file
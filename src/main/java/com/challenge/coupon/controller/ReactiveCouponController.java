@@ -0,0 +1,45 @@
+package com.challenge.coupon.controller;
+
+import com.challenge.coupon.controller.api.CouponCreateRequest;
+import com.challenge.coupon.controller.api.CouponResponse;
+import com.challenge.coupon.service.coupon.ReactiveCouponService;
+import jakarta.validation.Valid;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/coupon")
+@Profile("reactive")
+public class ReactiveCouponController {
+
+    private final ReactiveCouponService couponService;
+
+    public ReactiveCouponController(ReactiveCouponService couponService) {
+
+        this.couponService = couponService;
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<CouponResponse>> create(@RequestBody @Valid CouponCreateRequest request) {
+
+        return couponService.create(request)
+                .map(coupon -> ResponseEntity.status(HttpStatus.CREATED).body(CouponResponse.from(coupon)));
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> delete(@PathVariable("id") String id) {
+
+        return couponService.delete(id)
+                .then(Mono.fromSupplier(() -> ResponseEntity.status(HttpStatus.NO_CONTENT).<Void>body(null)));
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<CouponResponse>> findById(@PathVariable("id") String id) {
+
+        return couponService.findById(id)
+                .map(coupon -> ResponseEntity.status(HttpStatus.OK).body(CouponResponse.from(coupon)));
+    }
+}
@@ -0,0 +1,25 @@
+package com.challenge.coupon.controller.api;
+
+import com.challenge.coupon.service.coupon.CouponBatchResult;
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+
+public record CouponBatchItemResponse(
+        int index,
+        int status,
+        CouponResponse coupon,
+        List<String> errors
+) {
+
+    public static CouponBatchItemResponse from(CouponBatchResult result) {
+
+        if (result.created()) {
+            return new CouponBatchItemResponse(
+                    result.index(), HttpStatus.CREATED.value(), CouponResponse.from(result.coupon()), List.of()
+            );
+        }
+
+        return new CouponBatchItemResponse(result.index(), HttpStatus.BAD_REQUEST.value(), null, result.errors());
+    }
+}
@@ -0,0 +1,20 @@
+package com.challenge.coupon.controller.api;
+
+import com.challenge.coupon.service.coupon.CouponBatchResult;
+
+import java.util.List;
+
+public record CouponBatchResponse(
+        int created,
+        int failed,
+        List<CouponBatchItemResponse> items
+) {
+
+    public static CouponBatchResponse from(List<CouponBatchResult> results) {
+
+        List<CouponBatchItemResponse> items = results.stream().map(CouponBatchItemResponse::from).toList();
+        int created = (int) results.stream().filter(CouponBatchResult::created).count();
+
+        return new CouponBatchResponse(created, results.size() - created, items);
+    }
+}
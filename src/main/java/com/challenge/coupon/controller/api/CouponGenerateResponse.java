@@ -0,0 +1,9 @@
+package com.challenge.coupon.controller.api;
+
+import java.util.List;
+
+public record CouponGenerateResponse(
+        int count,
+        List<String> codes
+) {
+}
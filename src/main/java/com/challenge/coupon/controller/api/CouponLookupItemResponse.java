@@ -0,0 +1,23 @@
+package com.challenge.coupon.controller.api;
+
+import com.challenge.coupon.service.coupon.CouponLookupResult;
+
+public record CouponLookupItemResponse(
+        String key,
+        boolean found,
+        boolean valid,
+        String reason,
+        CouponResponse coupon
+) {
+
+    public static CouponLookupItemResponse from(CouponLookupResult result) {
+
+        return new CouponLookupItemResponse(
+                result.key(),
+                result.found(),
+                result.valid(),
+                result.reason(),
+                result.found() ? CouponResponse.from(result.coupon()) : null
+        );
+    }
+}
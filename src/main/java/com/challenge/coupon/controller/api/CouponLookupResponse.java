@@ -0,0 +1,20 @@
+package com.challenge.coupon.controller.api;
+
+import com.challenge.coupon.service.coupon.CouponLookupResult;
+
+import java.util.List;
+
+public record CouponLookupResponse(
+        int valid,
+        int invalid,
+        List<CouponLookupItemResponse> items
+) {
+
+    public static CouponLookupResponse from(List<CouponLookupResult> results) {
+
+        int valid = (int) results.stream().filter(CouponLookupResult::valid).count();
+        List<CouponLookupItemResponse> items = results.stream().map(CouponLookupItemResponse::from).toList();
+
+        return new CouponLookupResponse(valid, results.size() - valid, items);
+    }
+}
@@ -0,0 +1,19 @@
+package com.challenge.coupon.controller.api;
+
+import com.challenge.coupon.domain.entity.coupon.Coupon;
+
+import java.util.List;
+
+public record CouponPageResponse(
+        List<CouponResponse> items,
+        String next
+) {
+
+    public static CouponPageResponse from(List<Coupon> coupons, int size) {
+
+        List<CouponResponse> items = coupons.stream().map(CouponResponse::from).toList();
+        String next = coupons.size() == size ? items.getLast().id() : null;
+
+        return new CouponPageResponse(items, next);
+    }
+}
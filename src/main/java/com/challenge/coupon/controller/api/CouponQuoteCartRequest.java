@@ -0,0 +1,10 @@
+package com.challenge.coupon.controller.api;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public record CouponQuoteCartRequest(
+        BigDecimal amount,
+        List<String> codes
+) {
+}
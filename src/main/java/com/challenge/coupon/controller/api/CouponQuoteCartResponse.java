@@ -0,0 +1,32 @@
+package com.challenge.coupon.controller.api;
+
+import com.challenge.coupon.service.coupon.CouponQuoteResult;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public record CouponQuoteCartResponse(
+        int index,
+        BigDecimal amount,
+        BigDecimal discount,
+        BigDecimal total,
+        List<CouponQuoteLineResponse> coupons,
+        List<String> errors
+) {
+
+    public static CouponQuoteCartResponse from(CouponQuoteResult result) {
+
+        if (!result.quoted()) {
+            return new CouponQuoteCartResponse(result.index(), null, null, null, List.of(), result.errors());
+        }
+
+        return new CouponQuoteCartResponse(
+                result.index(),
+                result.amount(),
+                result.discount(),
+                result.total(),
+                result.coupons().stream().map(CouponQuoteLineResponse::from).toList(),
+                List.of()
+        );
+    }
+}
@@ -0,0 +1,20 @@
+package com.challenge.coupon.controller.api;
+
+import com.challenge.coupon.service.coupon.CouponQuoteLine;
+
+import java.math.BigDecimal;
+
+public record CouponQuoteLineResponse(
+        String code,
+        boolean applied,
+        BigDecimal discount,
+        String reason
+) {
+
+    public static CouponQuoteLineResponse from(CouponQuoteLine line) {
+
+        return new CouponQuoteLineResponse(
+                line.code(), line.applied(), line.discount(), line.reason()
+        );
+    }
+}
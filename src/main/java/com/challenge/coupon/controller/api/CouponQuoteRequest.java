@@ -0,0 +1,8 @@
+package com.challenge.coupon.controller.api;
+
+import java.util.List;
+
+public record CouponQuoteRequest(
+        List<CouponQuoteCartRequest> carts
+) {
+}
@@ -0,0 +1,20 @@
+package com.challenge.coupon.controller.api;
+
+import com.challenge.coupon.service.coupon.CouponQuoteResult;
+
+import java.util.List;
+
+public record CouponQuoteResponse(
+        int quoted,
+        int failed,
+        List<CouponQuoteCartResponse> carts
+) {
+
+    public static CouponQuoteResponse from(List<CouponQuoteResult> results) {
+
+        List<CouponQuoteCartResponse> carts = results.stream().map(CouponQuoteCartResponse::from).toList();
+        int quoted = (int) results.stream().filter(CouponQuoteResult::quoted).count();
+
+        return new CouponQuoteResponse(quoted, results.size() - quoted, carts);
+    }
+}
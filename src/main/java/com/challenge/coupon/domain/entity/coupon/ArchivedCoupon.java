@@ -0,0 +1,91 @@
+package com.challenge.coupon.domain.entity.coupon;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A DELETED or long-INACTIVE coupon moved out of the live table by the archiver. Rows are
+ * copied in bulk with SQL, so this entity is only read, or flipped to DELETED.
+ */
+@Entity(name = "coupon_archive")
+public class ArchivedCoupon {
+
+    @Id
+    private UUID id;
+
+    @Column(nullable = false, length = 6)
+    private String code;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String description;
+
+    @Column(nullable = false)
+    private BigDecimal discountValue;
+
+    @Column(nullable = false)
+    private LocalDateTime expirationDate;
+
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(length = 16)
+    private CouponStatus status;
+
+    @Column(nullable = false)
+    private Boolean published;
+
+    @Column(nullable = false)
+    private Boolean redeemed;
+
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+
+    public ArchivedCoupon() {}
+
+    @PreUpdate
+    void touch() {
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public Coupon toCoupon() {
+        Coupon coupon = new Coupon(id, code, description, discountValue, expirationDate, status, published, redeemed);
+        coupon.setVersion(version);
+        coupon.setUpdatedAt(updatedAt);
+        return coupon;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public CouponStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(CouponStatus status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+}
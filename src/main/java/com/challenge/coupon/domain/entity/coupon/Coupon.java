@@ -1,6 +1,8 @@
 package com.challenge.coupon.domain.entity.coupon;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -10,7 +12,7 @@ import java.util.UUID;
 public class Coupon {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @ShardedUuid
     private UUID id;
 
     @Column(nullable = false, length = 6)
@@ -26,6 +28,8 @@ public class Coupon {
     private LocalDateTime expirationDate;
 
     @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(length = 16)
     private CouponStatus status;
 
     @Column(nullable = false)
@@ -34,6 +38,13 @@ public class Coupon {
     @Column(nullable = false)
     private Boolean redeemed;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
     public Coupon(
             UUID id,
             String code,
@@ -56,6 +67,12 @@ public class Coupon {
 
     public Coupon() {}
 
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        this.updatedAt = LocalDateTime.now();
+    }
+
     public UUID getId() {
         return id;
     }
@@ -119,4 +136,20 @@ public class Coupon {
     public void setRedeemed(Boolean redeemed) {
         this.redeemed = redeemed;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
 }
\ No newline at end of file
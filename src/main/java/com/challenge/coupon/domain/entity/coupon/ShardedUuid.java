@@ -0,0 +1,17 @@
+package com.challenge.coupon.domain.entity.coupon;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+// Random UUID carrying the bucket of the coupon's code, see ShardedUuidGenerator
+@IdGeneratorType(ShardedUuidGenerator.class)
+@Retention(RUNTIME)
+@Target({FIELD, METHOD})
+public @interface ShardedUuid {
+}
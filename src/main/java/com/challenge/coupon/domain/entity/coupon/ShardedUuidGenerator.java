@@ -0,0 +1,45 @@
+package com.challenge.coupon.domain.entity.coupon;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+import java.util.EnumSet;
+import java.util.UUID;
+
+/**
+ * Random (version 4) UUIDs whose most significant byte is the bucket of the coupon's code.
+ * A coupon's id and code therefore hash to the same bucket, and a shard is picked as
+ * {@code bucket % shards}: lookups by either one touch a single shard. The bucket, not the
+ * shard, is what gets stored, so the shard count can change without rewriting ids.
+ */
+public class ShardedUuidGenerator implements BeforeExecutionGenerator {
+
+    public static final int BUCKETS = 256;
+
+    public static UUID newId(String code) {
+        UUID random = UUID.randomUUID();
+        long msb = (random.getMostSignificantBits() & 0x00FF_FFFF_FFFF_FFFFL) | ((long) bucket(code) << 56);
+        return new UUID(msb, random.getLeastSignificantBits());
+    }
+
+    public static int bucket(UUID id) {
+        return (int) (id.getMostSignificantBits() >>> 56);
+    }
+
+    // Fibonacci hashing: the top 8 bits of the product spread the 6-character codes evenly
+    public static int bucket(String code) {
+        return (code.hashCode() * 0x9E3779B9) >>> 24;
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue, EventType eventType) {
+        return newId(((Coupon) owner).getCode());
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+}
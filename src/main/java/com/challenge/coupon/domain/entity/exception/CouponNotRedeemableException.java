@@ -0,0 +1,8 @@
+package com.challenge.coupon.domain.entity.exception;
+
+public class CouponNotRedeemableException extends DomainException {
+
+    public CouponNotRedeemableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,17 @@
+package com.challenge.coupon.domain.entity.exception;
+
+import java.util.List;
+
+public class CouponValidationException extends DomainException {
+
+    private final List<String> errors;
+
+    public CouponValidationException(List<String> errors) {
+        super(String.join("; ", errors));
+        this.errors = errors;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+}
@@ -1,8 +1,12 @@
 package com.challenge.coupon.domain.entity.exception;
 
+/**
+ * A business rule rejection. These are expected, answered as an {@code ErrorResponse} and only
+ * logged by message, so no stack trace is captured: under abusive traffic most requests end here.
+ */
 public class DomainException extends RuntimeException {
 
     public DomainException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
@@ -1,8 +0,0 @@
-package com.challenge.coupon.domain.entity.exception;
-
-public class InvalidCodeException extends DomainException {
-
-    public InvalidCodeException(String message) {
-        super(message);
-    }
-}
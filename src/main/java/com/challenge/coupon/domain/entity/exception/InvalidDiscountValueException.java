@@ -1,8 +0,0 @@
-package com.challenge.coupon.domain.entity.exception;
-
-public class InvalidDiscountValueException extends DomainException {
-
-    public InvalidDiscountValueException(String message) {
-        super(message);
-    }
-}
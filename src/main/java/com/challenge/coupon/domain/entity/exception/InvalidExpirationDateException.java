@@ -1,8 +0,0 @@
-package com.challenge.coupon.domain.entity.exception;
-
-public class InvalidExpirationDateException extends DomainException {
-
-    public InvalidExpirationDateException(String message) {
-        super(message);
-    }
-}
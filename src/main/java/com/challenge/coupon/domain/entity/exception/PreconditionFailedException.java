@@ -0,0 +1,8 @@
+package com.challenge.coupon.domain.entity.exception;
+
+public class PreconditionFailedException extends DomainException {
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
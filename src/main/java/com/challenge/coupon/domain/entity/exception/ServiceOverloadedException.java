@@ -0,0 +1,8 @@
+package com.challenge.coupon.domain.entity.exception;
+
+public class ServiceOverloadedException extends DomainException {
+
+    public ServiceOverloadedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,15 @@
+package com.challenge.coupon.domain.entity.exception;
+
+public class TooManyRequestsException extends DomainException {
+
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
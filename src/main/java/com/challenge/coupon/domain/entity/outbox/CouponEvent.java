@@ -0,0 +1,61 @@
+package com.challenge.coupon.domain.entity.outbox;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity(name = "coupon_event")
+public class CouponEvent {
+
+    // Matches the sequence's increment by 50: one sequence call per 50 events, so batch creates stay batched
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "coupon_event_seq")
+    @SequenceGenerator(name = "coupon_event_seq", sequenceName = "coupon_event_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(nullable = false, length = 16)
+    private CouponEventType type;
+
+    @Column(nullable = false)
+    private UUID couponId;
+
+    @Column(nullable = false, length = 6)
+    private String code;
+
+    @Column(nullable = false)
+    private LocalDateTime occurredAt;
+
+    public CouponEvent(CouponEventType type, UUID couponId, String code, LocalDateTime occurredAt) {
+        this.type = type;
+        this.couponId = couponId;
+        this.code = code;
+        this.occurredAt = occurredAt;
+    }
+
+    public CouponEvent() {}
+
+    public Long getId() {
+        return id;
+    }
+
+    public CouponEventType getType() {
+        return type;
+    }
+
+    public UUID getCouponId() {
+        return couponId;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+}
@@ -0,0 +1,7 @@
+package com.challenge.coupon.domain.entity.outbox;
+
+public enum CouponEventType {
+
+    CREATED,
+    DELETED
+}
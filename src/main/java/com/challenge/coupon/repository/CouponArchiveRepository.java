@@ -0,0 +1,71 @@
+package com.challenge.coupon.repository;
+
+import com.challenge.coupon.domain.entity.coupon.ArchivedCoupon;
+import com.challenge.coupon.domain.entity.coupon.CouponStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+@Service
+public interface CouponArchiveRepository extends JpaRepository<ArchivedCoupon, UUID> {
+
+    // Rechecks the archiving rule, so a coupon changed since it was picked is not copied
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            insert into coupon_archive
+                (id, code, description, discount_value, expiration_date, status, published, redeemed,
+                 version, updated_at, archived_at)
+            select id, code, description, discount_value, expiration_date, status, published, redeemed,
+                   version, updated_at, :archivedAt
+            from coupon
+            where id in :ids
+              and (status = 'DELETED' or (status = 'INACTIVE' and expiration_date <= :inactiveBefore))
+            """)
+    int copyFromLive(Collection<UUID> ids, LocalDateTime inactiveBefore, LocalDateTime archivedAt);
+
+    // Copies whose live row was kept by CouponRepository.deleteArchived because it changed after the copy
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            delete from coupon_archive a
+            where a.id in :ids and exists (select 1 from coupon c where c.id = a.id)
+            """)
+    int deleteStillLive(Collection<UUID> ids);
+
+    @Query("select new com.challenge.coupon.repository.CouponVersion(c.version, c.updatedAt) from coupon_archive c where c.id = :id")
+    Optional<CouponVersion> findVersionById(UUID id);
+
+    @Query("select c from coupon_archive c where c.code in :codes")
+    List<ArchivedCoupon> findByCodeIn(Collection<String> codes);
+
+    @Query("""
+            select c from coupon_archive c
+            where (:after is null or c.id > :after)
+              and (:status is null or c.status = :status)
+              and (:published is null or c.published = :published)
+            order by c.id
+            """)
+    List<ArchivedCoupon> findPage(UUID after, CouponStatus status, Boolean published, Limit limit);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            select c from coupon_archive c
+            where (:status is null or c.status = :status)
+              and (:published is null or c.published = :published)
+            """)
+    Stream<ArchivedCoupon> streamAll(CouponStatus status, Boolean published);
+}
@@ -0,0 +1,18 @@
+package com.challenge.coupon.repository;
+
+import com.challenge.coupon.domain.entity.outbox.CouponEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+public interface CouponEventRepository extends JpaRepository<CouponEvent, Long> {
+
+    // Ids come in per-node blocks, so occurred_at is what orders a coupon's events; idx_coupon_event_occurred_at serves it
+    @Query("select e from coupon_event e where e.occurredAt <= :settledBefore order by e.occurredAt, e.id")
+    List<CouponEvent> findBatch(LocalDateTime settledBefore, Limit limit);
+}
@@ -0,0 +1,10 @@
+package com.challenge.coupon.repository;
+
+import java.util.UUID;
+
+public interface CouponKey {
+
+    UUID getId();
+
+    String getCode();
+}
@@ -2,13 +2,132 @@ package com.challenge.coupon.repository;
 
 import com.challenge.coupon.domain.entity.coupon.Coupon;
 import com.challenge.coupon.domain.entity.coupon.CouponStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Service
-public interface CouponRepository extends JpaRepository<Coupon, UUID> {
+public interface CouponRepository extends JpaRepository<Coupon, UUID>, CouponStore {
 
+    // Redeclared so the CouponStore and JpaRepository signatures resolve to one method; all run SimpleJpaRepository's
+    @Override
+    <S extends Coupon> S saveAndFlush(S coupon);
+
+    @Override
+    <S extends Coupon> List<S> saveAllAndFlush(Iterable<S> coupons);
+
+    @Override
+    Optional<Coupon> findById(UUID id);
+
+    @Override
+    List<Coupon> findAllById(Iterable<UUID> ids);
+
+    @Override
     Boolean existsByCodeAndStatus(String code, CouponStatus status);
+
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select c.code from coupon c where c.status = :status")
+    Stream<String> streamCodesByStatus(CouponStatus status);
+
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(nativeQuery = true, value = "select code from coupon union all select code from coupon_archive")
+    Stream<String> streamAllCodes();
+
+    @Override
+    @Query("select c.code from coupon c where c.code in :codes and c.status = :status")
+    List<String> findCodesByCodeInAndStatus(Collection<String> codes, CouponStatus status);
+
+    @Override
+    Optional<Coupon> findByCodeAndStatus(String code, CouponStatus status);
+
+    @Override
+    @Query("select new com.challenge.coupon.repository.CouponVersion(c.version, c.updatedAt) from coupon c where c.id = :id")
+    Optional<CouponVersion> findVersionById(UUID id);
+
+    @Override
+    @Query("select c from coupon c where c.code in :codes")
+    List<Coupon> findByCodeIn(Collection<String> codes);
+
+    @Modifying(clearAutomatically = true)
+    @Query("""
+            update coupon c set c.redeemed = true, c.version = c.version + 1, c.updatedAt = :now
+            where c.id = :id
+              and c.status = com.challenge.coupon.domain.entity.coupon.CouponStatus.ACTIVE
+              and c.redeemed = false
+              and c.expirationDate > :now
+            """)
+    @Override
+    int redeemById(UUID id, LocalDateTime now);
+
+    @Override
+    @Query("""
+            select c from coupon c
+            where (:after is null or c.id > :after)
+              and (:status is null or c.status = :status)
+              and (:published is null or c.published = :published)
+            order by c.id
+            """)
+    List<Coupon> findPage(UUID after, CouponStatus status, Boolean published, Limit limit);
+
+    @Override
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            select c from coupon c
+            where (:status is null or c.status = :status)
+              and (:published is null or c.published = :published)
+            """)
+    Stream<Coupon> streamAll(CouponStatus status, Boolean published);
+
+    @Override
+    @Query("select c.status as status, count(c) as total from coupon c group by c.status")
+    List<CouponStatusCount> countByStatus();
+
+    @Override
+    @Query("""
+            select c.id as id, c.code as code from coupon c
+            where c.status = :status and c.expirationDate <= :now
+            order by c.expirationDate
+            """)
+    List<CouponKey> findExpired(CouponStatus status, LocalDateTime now, Limit limit);
+
+    @Query("select c.id as id, c.code as code from coupon c where c.status = :status")
+    List<CouponKey> findKeysByStatus(CouponStatus status, Limit limit);
+
+    @Override
+    @Query("select min(c.expirationDate) from coupon c where c.status = :status and c.expirationDate <= :now")
+    Optional<LocalDateTime> findOldestExpiration(CouponStatus status, LocalDateTime now);
+
+    // Only rows still at the status and version copied to the archive, so a coupon changed since the copy stays live
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            delete from coupon c
+            where c.id in :ids
+              and exists (select 1 from coupon_archive a where a.id = c.id and a.version = c.version and a.status = c.status)
+            """)
+    int deleteArchived(Collection<UUID> ids);
+
+    @Override
+    @Modifying
+    @Query("""
+            update coupon c set c.status = :to, c.version = c.version + 1, c.updatedAt = local datetime
+            where c.id in :ids and c.status = :from
+            """)
+    int updateStatus(Collection<UUID> ids, CouponStatus from, CouponStatus to);
 }
@@ -0,0 +1,10 @@
+package com.challenge.coupon.repository;
+
+import com.challenge.coupon.domain.entity.coupon.CouponStatus;
+
+public interface CouponStatusCount {
+
+    CouponStatus getStatus();
+
+    long getTotal();
+}
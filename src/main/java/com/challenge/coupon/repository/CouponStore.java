@@ -0,0 +1,64 @@
+package com.challenge.coupon.repository;
+
+import com.challenge.coupon.domain.entity.coupon.Coupon;
+import com.challenge.coupon.domain.entity.coupon.CouponStatus;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Every read and write of live coupons. {@link CouponRepository} provides them over JPA;
+ * {@link MappedCouponStore} keeps them in an embedded record log when
+ * {@code coupon.storage.backend=mapped}, so the one-ACTIVE-per-code rule is checked in one
+ * place whichever path writes. Saves are version-checked like a JPA {@code @Version} entity
+ * and throw {@code OptimisticLockingFailureException} on a stale version. Archived coupons
+ * stay in {@link CouponArchiveRepository}.
+ */
+public interface CouponStore {
+
+    <S extends Coupon> S saveAndFlush(S coupon);
+
+    <S extends Coupon> List<S> saveAllAndFlush(Iterable<S> coupons);
+
+    Optional<Coupon> findById(UUID id);
+
+    List<Coupon> findAllById(Iterable<UUID> ids);
+
+    Optional<CouponVersion> findVersionById(UUID id);
+
+    Boolean existsByCodeAndStatus(String code, CouponStatus status);
+
+    Optional<Coupon> findByCodeAndStatus(String code, CouponStatus status);
+
+    // Every coupon with one of the codes; the mapped store returns only the ACTIVE one for a code that has one
+    List<Coupon> findByCodeIn(Collection<String> codes);
+
+    // Callers close the stream inside a transaction
+    Stream<String> streamCodesByStatus(CouponStatus status);
+
+    List<String> findCodesByCodeInAndStatus(Collection<String> codes, CouponStatus status);
+
+    // Every code stored, live or archived, in any status; callers close the stream inside a transaction
+    Stream<String> streamAllCodes();
+
+    int redeemById(UUID id, LocalDateTime now);
+
+    // Ordered by id, the order CouponService merges shard and archive pages in
+    List<Coupon> findPage(UUID after, CouponStatus status, Boolean published, Limit limit);
+
+    Stream<Coupon> streamAll(CouponStatus status, Boolean published);
+
+    List<CouponStatusCount> countByStatus();
+
+    // Oldest expiration first
+    List<CouponKey> findExpired(CouponStatus status, LocalDateTime now, Limit limit);
+
+    Optional<LocalDateTime> findOldestExpiration(CouponStatus status, LocalDateTime now);
+
+    int updateStatus(Collection<UUID> ids, CouponStatus from, CouponStatus to);
+}
@@ -0,0 +1,6 @@
+package com.challenge.coupon.repository;
+
+import java.time.LocalDateTime;
+
+public record CouponVersion(long version, LocalDateTime updatedAt) {
+}
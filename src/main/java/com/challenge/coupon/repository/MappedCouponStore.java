@@ -0,0 +1,936 @@
+package com.challenge.coupon.repository;
+
+import com.challenge.coupon.domain.entity.coupon.Coupon;
+import com.challenge.coupon.domain.entity.coupon.CouponStatus;
+import com.challenge.coupon.domain.entity.coupon.ShardedUuidGenerator;
+import com.challenge.coupon.domain.entity.exception.DuplicateCodeException;
+import com.challenge.coupon.service.coupon.CouponCode;
+import com.challenge.coupon.support.LongHashSet;
+import com.challenge.coupon.support.LongIntHashMap;
+import com.challenge.coupon.support.MappedRecordLog;
+import com.challenge.coupon.support.UuidIntHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * {@link CouponStore} over an append-only {@link MappedRecordLog}, for nodes that serve
+ * create, find, delete and redeem without a database. Every save appends the whole coupon as
+ * one record: a fixed 64-byte layout (id, code packed with {@link CouponCode#pack}, discount in
+ * cents, expiration and updated-at in epoch microseconds, version, status, flags) followed by
+ * the UTF-8 description. The latest record of an id wins; two primitive maps index the latest
+ * offset by id and the ACTIVE coupon by packed code, which also enforces the one-ACTIVE-per-code
+ * rule of {@code uk_coupon_active_code}; a third chains every id stored under each code, for
+ * lookups by a code with no ACTIVE coupon. All are rebuilt by replaying the log on start.
+ * Lists, export and expiration scan the live records under the read lock.
+ * Inside a transaction, saves are appended only once it commits, so a coupon and the outbox
+ * event written next to it in the database stand or fall together.
+ * Superseded records are dropped by a background compaction that copies the live ones into a
+ * new file and renames it over the log, blocking writers only while the records appended
+ * during the copy are carried over.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "coupon.storage.backend", havingValue = "mapped")
+public class MappedCouponStore implements CouponStore, AutoCloseable {
+
+    private static final int ID_MOST = 0;
+    private static final int ID_LEAST = 8;
+    private static final int CODE = 16;
+    private static final int DISCOUNT_CENTS = 24;
+    private static final int EXPIRATION = 32;
+    private static final int VERSION = 40;
+    private static final int UPDATED_AT = 48;
+    private static final int STATUS = 56;
+    private static final int FLAGS = 57;
+    private static final int DESCRIPTION_LENGTH = 60;
+    private static final int FIXED_SIZE = 64;
+
+    private static final byte PUBLISHED = 1;
+    private static final byte REDEEMED = 2;
+    private static final byte NO_STATUS = -1;
+    private static final CouponStatus[] STATUSES = CouponStatus.values();
+
+    private static final int COMPACTION_CHUNK = 4_096;
+    // Same order as H2's uuid comparison, so pages come out as they would from the coupon table
+    private static final Comparator<UUID> ID_ORDER = Comparator
+            .comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+            .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock compaction = new ReentrantLock();
+    private final Path file;
+    private final boolean temporary;
+    private final int initialSize;
+    private final double compactionGarbageRatio;
+    private final long compactionMinSize;
+    private final boolean fsync;
+
+    private MappedRecordLog records;
+    private Index index;
+    // Ids and ACTIVE codes of saves waiting for their transaction to commit, guarded by lock like the index
+    private final Set<UUID> pendingIds = new HashSet<>();
+    private final LongHashSet pendingCodes = new LongHashSet();
+
+    public MappedCouponStore(
+            @Value("${coupon.storage.file:}") String file,
+            @Value("${coupon.storage.initial-size:64MB}") DataSize initialSize,
+            @Value("${coupon.storage.compaction-garbage-ratio:0.5}") double compactionGarbageRatio,
+            @Value("${coupon.storage.compaction-min-size:16MB}") DataSize compactionMinSize,
+            @Value("${coupon.storage.fsync:false}") boolean fsync
+    ) {
+        this.temporary = file.isBlank();
+        this.file = temporary ? createTempFile() : Path.of(file);
+        this.initialSize = Math.toIntExact(initialSize.toBytes());
+        this.compactionGarbageRatio = compactionGarbageRatio;
+        this.compactionMinSize = compactionMinSize.toBytes();
+        this.fsync = fsync;
+
+        try {
+            Files.deleteIfExists(compactionFile());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not delete unfinished compaction of " + this.file, e);
+        }
+
+        Index replayed = new Index(1_024);
+        this.records = MappedRecordLog.open(this.file, this.initialSize, (offset, payload) -> replayed.add(offset, payload));
+        replayed.liveBytes = replayed.sizes(records);
+        this.index = replayed;
+
+        if (records.tornTail()) {
+            log.warn("Discarded a torn write at the end of coupon store {}", this.file);
+        }
+        log.info("Opened coupon store {} with {} coupons in {} bytes", this.file, index.ids.size(), records.end());
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(MappedCouponStore.class);
+
+    @Override
+    public <S extends Coupon> S saveAndFlush(S coupon) {
+
+        return saveAllAndFlush(List.of(coupon)).getFirst();
+    }
+
+    // Every coupon is checked before the first append, so a rejected batch writes nothing
+    @Override
+    public <S extends Coupon> List<S> saveAllAndFlush(Iterable<S> coupons) {
+
+        List<S> batch = new ArrayList<>();
+        coupons.forEach(batch::add);
+
+        long[] codes = new long[batch.size()];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = CouponCode.pack(batch.get(i).getCode());
+            if (codes[i] == CouponCode.INVALID) {
+                throw new IllegalArgumentException("Coupon code must contain exactly 6 alphanumeric characters");
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            UUID[] ids = new UUID[codes.length];
+            long[] versions = new long[codes.length];
+            LongHashSet activeInBatch = new LongHashSet(codes.length);
+
+            for (int i = 0; i < codes.length; i++) {
+                S coupon = batch.get(i);
+                ids[i] = coupon.getId() == null ? ShardedUuidGenerator.newId(coupon.getCode()) : coupon.getId();
+                if (pendingIds.contains(ids[i])) {
+                    throw new OptimisticLockingFailureException("Coupon " + ids[i] + " was modified concurrently");
+                }
+                int current = index.ids.get(ids[i]);
+                versions[i] = nextVersion(ids[i], current, coupon.getVersion());
+                // The code indexes are keyed by the code a coupon was stored with, which no service ever changes
+                if (current != UuidIntHashMap.MISSING && records.read(current).getLong(CODE) != codes[i]) {
+                    throw new IllegalArgumentException("Coupon code cannot be changed");
+                }
+
+                if (coupon.getStatus() == CouponStatus.ACTIVE) {
+                    int holder = index.activeCodes.get(codes[i]);
+                    if ((holder != LongIntHashMap.MISSING && !ids[i].equals(idAt(holder)))
+                            || pendingCodes.contains(codes[i])
+                            || !activeInBatch.add(codes[i])) {
+                        throw new DuplicateCodeException("Coupon code already exists");
+                    }
+                }
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            List<ByteBuffer> encoded = new ArrayList<>(codes.length);
+            for (int i = 0; i < codes.length; i++) {
+                S coupon = batch.get(i);
+                encoded.add(encode(coupon, ids[i], codes[i], versions[i], now));
+                coupon.setId(ids[i]);
+                coupon.setVersion(versions[i]);
+                coupon.setUpdatedAt(now);
+            }
+
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                long[] active = new long[activeInBatch.size()];
+                for (int i = 0, found = 0; i < codes.length; i++) {
+                    if (batch.get(i).getStatus() == CouponStatus.ACTIVE) {
+                        active[found++] = codes[i];
+                    }
+                }
+                appendAfterCommit(encoded, List.of(ids), active);
+            } else {
+                encoded.forEach(this::append);
+            }
+            return batch;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Holds the records back until the surrounding transaction commits, so a coupon never
+     * outlives a rollback of the outbox event written with it. Until then its id and ACTIVE code
+     * are reserved: a concurrent save of either fails as it would against the uncommitted row.
+     */
+    private void appendAfterCommit(List<ByteBuffer> pending, List<UUID> ids, long[] activeCodes) {
+
+        pendingIds.addAll(ids);
+        for (long code : activeCodes) {
+            pendingCodes.add(code);
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                lock.writeLock().lock();
+                try {
+                    pending.forEach(MappedCouponStore.this::append);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                lock.writeLock().lock();
+                try {
+                    ids.forEach(pendingIds::remove);
+                    for (long code : activeCodes) {
+                        pendingCodes.remove(code);
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        });
+    }
+
+    @Override
+    public Optional<Coupon> findById(UUID id) {
+
+        lock.readLock().lock();
+        try {
+            int offset = index.ids.get(id);
+            return offset == UuidIntHashMap.MISSING ? Optional.empty() : Optional.of(decode(records.read(offset)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Coupon> findAllById(Iterable<UUID> ids) {
+
+        List<Coupon> coupons = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            for (UUID id : ids) {
+                int offset = index.ids.get(id);
+                if (offset != UuidIntHashMap.MISSING) {
+                    coupons.add(decode(records.read(offset)));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return coupons;
+    }
+
+    @Override
+    public Optional<CouponVersion> findVersionById(UUID id) {
+
+        lock.readLock().lock();
+        try {
+            int offset = index.ids.get(id);
+            if (offset == UuidIntHashMap.MISSING) {
+                return Optional.empty();
+            }
+            ByteBuffer payload = records.read(offset);
+            return Optional.of(new CouponVersion(payload.getLong(VERSION), fromMicros(payload.getLong(UPDATED_AT))));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Boolean existsByCodeAndStatus(String code, CouponStatus status) {
+
+        return findOffset(CouponCode.pack(code), status) != UuidIntHashMap.MISSING;
+    }
+
+    @Override
+    public Optional<Coupon> findByCodeAndStatus(String code, CouponStatus status) {
+
+        lock.readLock().lock();
+        try {
+            int offset = findOffset(CouponCode.pack(code), status);
+            return offset == UuidIntHashMap.MISSING ? Optional.empty() : Optional.of(decode(records.read(offset)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // A code with an ACTIVE coupon returns just that one, which is the one every caller prefers; others return all of theirs
+    @Override
+    public List<Coupon> findByCodeIn(Collection<String> codes) {
+
+        List<Coupon> coupons = new ArrayList<>();
+        LongHashSet seen = new LongHashSet(codes.size());
+
+        lock.readLock().lock();
+        try {
+            for (String code : codes) {
+                long packed = CouponCode.pack(code);
+                if (packed == CouponCode.INVALID || !seen.add(packed)) {
+                    continue;
+                }
+
+                int offset = index.activeCodes.get(packed);
+                if (offset != LongIntHashMap.MISSING) {
+                    coupons.add(decode(records.read(offset)));
+                    continue;
+                }
+
+                for (int stored : index.offsetsOf(packed)) {
+                    coupons.add(decode(records.read(stored)));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return coupons;
+    }
+
+    @Override
+    public Stream<String> streamCodesByStatus(CouponStatus status) {
+
+        return LongStream.of(packedCodes(payload -> statusOf(payload) == status)).mapToObj(CouponCode::unpack);
+    }
+
+    @Override
+    public List<String> findCodesByCodeInAndStatus(Collection<String> codes, CouponStatus status) {
+
+        List<String> found = new ArrayList<>();
+        for (String code : codes) {
+            if (findOffset(CouponCode.pack(code), status) != UuidIntHashMap.MISSING) {
+                found.add(code);
+            }
+        }
+        return found;
+    }
+
+    // Nothing is archived out of this store, so every code ever stored is still in the log
+    @Override
+    public Stream<String> streamAllCodes() {
+
+        return LongStream.of(packedCodes(payload -> true)).mapToObj(CouponCode::unpack);
+    }
+
+    @Override
+    public int redeemById(UUID id, LocalDateTime now) {
+
+        lock.writeLock().lock();
+        try {
+            int offset = index.ids.get(id);
+            if (offset == UuidIntHashMap.MISSING) {
+                return 0;
+            }
+            if (pendingIds.contains(id)) {
+                throw new OptimisticLockingFailureException("Coupon " + id + " was modified concurrently");
+            }
+
+            Coupon coupon = decode(records.read(offset));
+            if (coupon.getStatus() != CouponStatus.ACTIVE
+                    || coupon.getRedeemed()
+                    || !coupon.getExpirationDate().isAfter(now)) {
+                return 0;
+            }
+
+            coupon.setRedeemed(true);
+            append(encode(coupon, id, CouponCode.pack(coupon.getCode()), coupon.getVersion() + 1, now));
+            return 1;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Coupon> findPage(UUID after, CouponStatus status, Boolean published, Limit limit) {
+
+        int size = limit.isLimited() ? limit.max() : Integer.MAX_VALUE;
+        // Largest id on top, so the heap keeps the first size ids after the cursor
+        PriorityQueue<UUID> page = new PriorityQueue<>(ID_ORDER.reversed());
+
+        lock.readLock().lock();
+        try {
+            for (int offset : index.ids.values()) {
+                ByteBuffer payload = records.read(offset);
+                UUID id = new UUID(payload.getLong(ID_MOST), payload.getLong(ID_LEAST));
+
+                if ((after == null || ID_ORDER.compare(id, after) > 0) && matches(payload, status, published)) {
+                    page.add(id);
+                    if (page.size() > size) {
+                        page.poll();
+                    }
+                }
+            }
+
+            List<Coupon> coupons = new ArrayList<>(page.size());
+            for (UUID id : page) {
+                coupons.add(decode(records.read(index.ids.get(id))));
+            }
+            coupons.sort(Comparator.comparing(Coupon::getId, ID_ORDER));
+            return coupons;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Ids are taken up front and each coupon is read when the stream reaches it, so the export never holds the lock
+    @Override
+    public Stream<Coupon> streamAll(CouponStatus status, Boolean published) {
+
+        List<UUID> ids = scan(payload -> matches(payload, status, published), payload ->
+                new UUID(payload.getLong(ID_MOST), payload.getLong(ID_LEAST)));
+
+        return ids.stream()
+                .map(id -> findById(id).orElse(null))
+                .filter(Objects::nonNull)
+                .filter(coupon -> (status == null || coupon.getStatus() == status)
+                        && (published == null || published.equals(coupon.getPublished())));
+    }
+
+    @Override
+    public List<CouponStatusCount> countByStatus() {
+
+        Map<CouponStatus, Long> totals = new EnumMap<>(CouponStatus.class);
+        for (CouponStatus status : scan(payload -> statusOf(payload) != null, MappedCouponStore::statusOf)) {
+            totals.merge(status, 1L, Long::sum);
+        }
+
+        List<CouponStatusCount> counts = new ArrayList<>(totals.size());
+        totals.forEach((status, total) -> counts.add(new StatusCount(status, total)));
+        return counts;
+    }
+
+    @Override
+    public List<CouponKey> findExpired(CouponStatus status, LocalDateTime now, Limit limit) {
+
+        long nowMicros = toMicros(now);
+        List<Expired> expired = scan(
+                payload -> statusOf(payload) == status && payload.getLong(EXPIRATION) <= nowMicros,
+                payload -> new Expired(payload.getLong(EXPIRATION), new Key(
+                        new UUID(payload.getLong(ID_MOST), payload.getLong(ID_LEAST)),
+                        CouponCode.unpack(payload.getLong(CODE))
+                ))
+        );
+
+        return expired.stream()
+                .sorted(Comparator.comparingLong(Expired::expiration))
+                .limit(limit.isLimited() ? limit.max() : Long.MAX_VALUE)
+                .<CouponKey>map(Expired::key)
+                .toList();
+    }
+
+    @Override
+    public Optional<LocalDateTime> findOldestExpiration(CouponStatus status, LocalDateTime now) {
+
+        long nowMicros = toMicros(now);
+        return scan(payload -> statusOf(payload) == status && payload.getLong(EXPIRATION) <= nowMicros,
+                payload -> payload.getLong(EXPIRATION))
+                .stream()
+                .min(Long::compare)
+                .map(MappedCouponStore::fromMicros);
+    }
+
+    @Override
+    public int updateStatus(Collection<UUID> ids, CouponStatus from, CouponStatus to) {
+
+        lock.writeLock().lock();
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            int updated = 0;
+
+            for (UUID id : ids) {
+                int offset = index.ids.get(id);
+                // A coupon with an uncommitted save is left for the next sweep rather than overwritten by it
+                if (offset == UuidIntHashMap.MISSING || pendingIds.contains(id) || statusOf(records.read(offset)) != from) {
+                    continue;
+                }
+
+                Coupon coupon = decode(records.read(offset));
+                coupon.setStatus(to);
+                append(encode(coupon, id, CouponCode.pack(coupon.getCode()), coupon.getVersion() + 1, now));
+                updated++;
+            }
+            return updated;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+
+        lock.readLock().lock();
+        try {
+            return index.ids.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Scheduled(
+            initialDelayString = "${coupon.storage.compaction-interval:1m}",
+            fixedDelayString = "${coupon.storage.compaction-interval:1m}"
+    )
+    public void compactIfNeeded() {
+
+        long end;
+        long garbage;
+
+        lock.readLock().lock();
+        try {
+            end = records.end();
+            garbage = end - index.liveBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        if (end >= compactionMinSize && garbage >= end * compactionGarbageRatio) {
+            compact();
+        }
+    }
+
+    /**
+     * Rewrites the log with only the latest record of each coupon. Reads and writes keep running
+     * while the live records are copied, in chunks under the read lock; only the tail appended
+     * meanwhile is copied under the write lock, right before the new file replaces the old one.
+     */
+    public void compact() {
+
+        if (!compaction.tryLock()) {
+            return;
+        }
+
+        try {
+            int[] live;
+            int copiedUpTo;
+            long liveBytes;
+
+            lock.readLock().lock();
+            try {
+                live = index.ids.values();
+                copiedUpTo = records.end();
+                liveBytes = index.liveBytes;
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            Arrays.sort(live);
+            Path target = compactionFile();
+            Files.deleteIfExists(target);
+
+            int size = (int) Math.min(Integer.MAX_VALUE, Math.max(initialSize, liveBytes + liveBytes / 4));
+            MappedRecordLog compacted = MappedRecordLog.open(target, size, (offset, payload) -> {});
+            Index rebuilt = new Index(live.length);
+
+            for (int from = 0; from < live.length; from += COMPACTION_CHUNK) {
+                lock.readLock().lock();
+                try {
+                    for (int i = from; i < Math.min(from + COMPACTION_CHUNK, live.length); i++) {
+                        ByteBuffer payload = records.read(live[i]);
+                        rebuilt.add(compacted.append(payload), payload);
+                    }
+                } finally {
+                    lock.readLock().unlock();
+                }
+            }
+
+            lock.writeLock().lock();
+            try {
+                records.replay(copiedUpTo, (offset, payload) -> rebuilt.add(compacted.append(payload), payload));
+                rebuilt.liveBytes = rebuilt.sizes(compacted);
+
+                int before = records.end();
+                compacted.moveTo(file);
+                records.close();
+                records = compacted;
+                index = rebuilt;
+
+                log.info("Compacted coupon store {} from {} to {} bytes", file, before, records.end());
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not compact coupon store " + file, e);
+        } finally {
+            compaction.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+
+        lock.writeLock().lock();
+        try {
+            records.close();
+            if (temporary) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not delete coupon store " + file, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private long nextVersion(UUID id, int current, Long expected) {
+
+        if (current == UuidIntHashMap.MISSING) {
+            if (expected != null) {
+                throw new OptimisticLockingFailureException("Coupon " + id + " no longer exists");
+            }
+            return 0;
+        }
+
+        long stored = records.read(current).getLong(VERSION);
+        if (expected == null || expected != stored) {
+            throw new OptimisticLockingFailureException("Coupon " + id + " was modified concurrently");
+        }
+        return stored + 1;
+    }
+
+    private void append(ByteBuffer record) {
+
+        int offset = records.append(record);
+        int previous = index.add(offset, records.read(offset));
+
+        index.liveBytes += records.sizeAt(offset);
+        if (previous != UuidIntHashMap.MISSING) {
+            index.liveBytes -= records.sizeAt(previous);
+        }
+
+        if (fsync) {
+            records.force();
+        }
+    }
+
+    private int findOffset(long code, CouponStatus status) {
+
+        if (code == CouponCode.INVALID) {
+            return UuidIntHashMap.MISSING;
+        }
+
+        lock.readLock().lock();
+        try {
+            if (status == CouponStatus.ACTIVE) {
+                return index.activeCodes.get(code);
+            }
+
+            for (int offset : index.offsetsOf(code)) {
+                if (statusOf(records.read(offset)) == status) {
+                    return offset;
+                }
+            }
+            return UuidIntHashMap.MISSING;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // The payloads handed to extract are only valid until the lock is released, so extract copies what it needs
+    private <T> List<T> scan(Predicate<ByteBuffer> filter, Function<ByteBuffer, T> extract) {
+
+        List<T> found = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            for (int offset : index.ids.values()) {
+                ByteBuffer payload = records.read(offset);
+                if (filter.test(payload)) {
+                    found.add(extract.apply(payload));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return found;
+    }
+
+    // Codes stay packed, 8 bytes each, until the caller's stream turns them into strings one at a time
+    private long[] packedCodes(Predicate<ByteBuffer> filter) {
+
+        lock.readLock().lock();
+        try {
+            int[] offsets = index.ids.values();
+            long[] codes = new long[offsets.length];
+            int found = 0;
+            for (int offset : offsets) {
+                ByteBuffer payload = records.read(offset);
+                if (filter.test(payload)) {
+                    codes[found++] = payload.getLong(CODE);
+                }
+            }
+            return Arrays.copyOf(codes, found);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static boolean matches(ByteBuffer payload, CouponStatus status, Boolean published) {
+
+        return (status == null || statusOf(payload) == status)
+                && (published == null || published == ((payload.get(FLAGS) & PUBLISHED) != 0));
+    }
+
+    private UUID idAt(int offset) {
+
+        ByteBuffer payload = records.read(offset);
+        return new UUID(payload.getLong(ID_MOST), payload.getLong(ID_LEAST));
+    }
+
+    private Path compactionFile() {
+
+        return file.resolveSibling(file.getFileName() + ".compact");
+    }
+
+    private static Path createTempFile() {
+
+        try {
+            return Files.createTempFile("coupon-store-", ".log");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create coupon store file", e);
+        }
+    }
+
+    private static ByteBuffer encode(Coupon coupon, UUID id, long code, long version, LocalDateTime updatedAt) {
+
+        byte[] description = coupon.getDescription() == null
+                ? new byte[0]
+                : coupon.getDescription().getBytes(StandardCharsets.UTF_8);
+        byte flags = (byte) ((Boolean.TRUE.equals(coupon.getPublished()) ? PUBLISHED : 0)
+                | (Boolean.TRUE.equals(coupon.getRedeemed()) ? REDEEMED : 0));
+
+        ByteBuffer record = ByteBuffer.allocate(FIXED_SIZE + description.length);
+        record.putLong(ID_MOST, id.getMostSignificantBits());
+        record.putLong(ID_LEAST, id.getLeastSignificantBits());
+        record.putLong(CODE, code);
+        record.putLong(DISCOUNT_CENTS, coupon.getDiscountValue().setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+        record.putLong(EXPIRATION, toMicros(coupon.getExpirationDate()));
+        record.putLong(VERSION, version);
+        record.putLong(UPDATED_AT, toMicros(updatedAt));
+        record.put(STATUS, coupon.getStatus() == null ? NO_STATUS : (byte) coupon.getStatus().ordinal());
+        record.put(FLAGS, flags);
+        record.putInt(DESCRIPTION_LENGTH, description.length);
+        record.put(FIXED_SIZE, description);
+        return record;
+    }
+
+    private static Coupon decode(ByteBuffer payload) {
+
+        byte[] description = new byte[payload.getInt(DESCRIPTION_LENGTH)];
+        payload.get(FIXED_SIZE, description);
+        byte flags = payload.get(FLAGS);
+
+        Coupon coupon = new Coupon(
+                new UUID(payload.getLong(ID_MOST), payload.getLong(ID_LEAST)),
+                CouponCode.unpack(payload.getLong(CODE)),
+                new String(description, StandardCharsets.UTF_8),
+                BigDecimal.valueOf(payload.getLong(DISCOUNT_CENTS), 2),
+                fromMicros(payload.getLong(EXPIRATION)),
+                statusOf(payload),
+                (flags & PUBLISHED) != 0,
+                (flags & REDEEMED) != 0
+        );
+        coupon.setVersion(payload.getLong(VERSION));
+        coupon.setUpdatedAt(fromMicros(payload.getLong(UPDATED_AT)));
+        return coupon;
+    }
+
+    private static CouponStatus statusOf(ByteBuffer payload) {
+
+        byte status = payload.get(STATUS);
+        return status == NO_STATUS ? null : STATUSES[status];
+    }
+
+    private static long toMicros(LocalDateTime time) {
+
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+
+        return LocalDateTime.ofEpochSecond(
+                Math.floorDiv(micros, 1_000_000), (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC
+        );
+    }
+
+    private record Key(UUID id, String code) implements CouponKey {
+
+        @Override
+        public UUID getId() {
+            return id;
+        }
+
+        @Override
+        public String getCode() {
+            return code;
+        }
+    }
+
+    private record Expired(long expiration, Key key) {
+    }
+
+    private record StatusCount(CouponStatus status, long total) implements CouponStatusCount {
+
+        @Override
+        public CouponStatus getStatus() {
+            return status;
+        }
+
+        @Override
+        public long getTotal() {
+            return total;
+        }
+    }
+
+    /**
+     * Latest offset per id and per ACTIVE code, for one log file, plus every id stored under each
+     * code: a chain of entries in parallel arrays, headed by the code's newest entry. Codes never
+     * change, so an id is chained once, by its first record, and resolved to its latest on lookup.
+     */
+    private static final class Index {
+
+        private static final int NO_ENTRY = LongIntHashMap.MISSING;
+
+        private final UuidIntHashMap ids;
+        private final LongIntHashMap activeCodes;
+        private final LongIntHashMap codeHeads;
+        private long[] entryMost;
+        private long[] entryLeast;
+        private int[] entryNext;
+        private int entries;
+        private long liveBytes;
+
+        private Index(int expectedSize) {
+            this.ids = new UuidIntHashMap(expectedSize);
+            this.activeCodes = new LongIntHashMap(expectedSize);
+            this.codeHeads = new LongIntHashMap(expectedSize);
+            this.entryMost = new long[Math.max(16, expectedSize)];
+            this.entryLeast = new long[entryMost.length];
+            this.entryNext = new int[entryMost.length];
+        }
+
+        // Returns the offset this record supersedes, if any
+        private int add(int offset, ByteBuffer payload) {
+
+            long code = payload.getLong(CODE);
+            long most = payload.getLong(ID_MOST);
+            long least = payload.getLong(ID_LEAST);
+            int previous = ids.put(new UUID(most, least), offset);
+
+            if (statusOf(payload) == CouponStatus.ACTIVE) {
+                activeCodes.put(code, offset);
+            } else if (previous != UuidIntHashMap.MISSING && activeCodes.get(code) == previous) {
+                activeCodes.remove(code);
+            }
+
+            if (previous == UuidIntHashMap.MISSING) {
+                chain(code, most, least);
+            }
+            return previous;
+        }
+
+        // Latest offsets of the coupons stored with this code, newest first
+        private int[] offsetsOf(long code) {
+
+            int[] offsets = new int[4];
+            int found = 0;
+
+            for (int entry = codeHeads.get(code); entry != NO_ENTRY; entry = entryNext[entry]) {
+                if (found == offsets.length) {
+                    offsets = Arrays.copyOf(offsets, found * 2);
+                }
+                offsets[found++] = ids.get(new UUID(entryMost[entry], entryLeast[entry]));
+            }
+            return Arrays.copyOf(offsets, found);
+        }
+
+        private void chain(long code, long most, long least) {
+
+            if (entries == entryMost.length) {
+                entryMost = Arrays.copyOf(entryMost, entries * 2);
+                entryLeast = Arrays.copyOf(entryLeast, entries * 2);
+                entryNext = Arrays.copyOf(entryNext, entries * 2);
+            }
+
+            entryMost[entries] = most;
+            entryLeast[entries] = least;
+            entryNext[entries] = codeHeads.put(code, entries);
+            entries++;
+        }
+
+        private long sizes(MappedRecordLog records) {
+
+            long total = 0;
+            for (int offset : ids.values()) {
+                total += records.sizeAt(offset);
+            }
+            return total;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.challenge.coupon.service.coupon;
+
+import com.challenge.coupon.config.datasource.CouponShards;
+import com.challenge.coupon.domain.entity.coupon.CouponStatus;
+import com.challenge.coupon.repository.CouponStore;
+import com.challenge.coupon.support.LongHashSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Iterator;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Decides whether {@link CouponService#create} must query for an ACTIVE duplicate before
+ * inserting, according to {@code coupon.duplicate-check}. In {@code index} mode it keeps an
+ * in-process set of ACTIVE codes: a miss means the code is definitely not ACTIVE on this node;
+ * a hit, or any check before the index is warmed, still goes to the database. The unique
+ * index on active codes rejects whatever a skipped check lets through.
+ */
+@Component
+public class ActiveCodeIndex {
+
+    public enum Mode {
+        INDEX, DATABASE, CONSTRAINT
+    }
+
+    private static final int WARM_UP_CHUNK_SIZE = 4_096;
+
+    private final CouponStore couponStore;
+    private final CouponShards couponShards;
+    private final TransactionTemplate readTransaction;
+    private final Mode mode;
+    private final boolean enabled;
+
+    private final LongHashSet codes = new LongHashSet(1 << 16);
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean warm;
+
+    public ActiveCodeIndex(
+            CouponStore couponStore,
+            CouponShards couponShards,
+            PlatformTransactionManager transactionManager,
+            @Value("${coupon.duplicate-check:index}") Mode mode
+    ) {
+        this.couponStore = couponStore;
+        this.couponShards = couponShards;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.mode = mode;
+        this.enabled = mode == Mode.INDEX;
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(ActiveCodeIndex.class);
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            log.info("Active code index disabled, duplicate check mode is {}", mode);
+            return;
+        }
+
+        long[] warmed = new long[1];
+        couponShards.forEach(shard -> readTransaction.executeWithoutResult(status -> {
+            try (Stream<String> activeCodes = couponStore.streamCodesByStatus(CouponStatus.ACTIVE)) {
+                warmed[0] += addAll(activeCodes.iterator());
+            }
+        }));
+        warm = true;
+
+        log.info("Active code index warmed with {} codes", warmed[0]);
+    }
+
+    // Codes are packed a chunk at a time off the cursor and added under one write lock per chunk
+    private long addAll(Iterator<String> activeCodes) {
+
+        long[] chunk = new long[WARM_UP_CHUNK_SIZE];
+        long added = 0;
+
+        while (activeCodes.hasNext()) {
+            int size = 0;
+            while (size < chunk.length && activeCodes.hasNext()) {
+                long packed = CouponCode.pack(activeCodes.next());
+                if (packed != CouponCode.INVALID) {
+                    chunk[size++] = packed;
+                }
+            }
+
+            lock.writeLock().lock();
+            try {
+                for (int i = 0; i < size; i++) {
+                    codes.add(chunk[i]);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            added += size;
+        }
+        return added;
+    }
+
+    public boolean needsDatabaseCheck(String code) {
+        if (mode == Mode.CONSTRAINT) {
+            return false;
+        }
+        if (!warm) {
+            return true;
+        }
+
+        long packed = CouponCode.pack(code);
+        if (packed == CouponCode.INVALID) {
+            return true;
+        }
+
+        lock.readLock().lock();
+        try {
+            return codes.contains(packed);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void add(String code) {
+        long packed = CouponCode.pack(code);
+        if (!enabled || packed == CouponCode.INVALID) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            codes.add(packed);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeAfterCommit(String code) {
+        if (!enabled) {
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remove(code);
+                }
+            });
+        } else {
+            remove(code);
+        }
+    }
+
+    private void remove(String code) {
+        long packed = CouponCode.pack(code);
+        if (packed == CouponCode.INVALID) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            codes.remove(packed);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return codes.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
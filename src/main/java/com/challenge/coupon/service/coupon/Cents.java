@@ -0,0 +1,24 @@
+package com.challenge.coupon.service.coupon;
+
+import java.math.BigDecimal;
+
+/**
+ * Money as a {@code long} count of cents. Conversions are exact: an amount with more than two
+ * decimal places, or beyond the {@code long} range, is rejected instead of rounded, so pricing
+ * arithmetic never rounds at all.
+ */
+final class Cents {
+
+    private Cents() {}
+
+    /**
+     * @throws ArithmeticException if {@code amount} has a non-zero fraction of a cent or does not fit
+     */
+    static long of(BigDecimal amount) {
+        return amount.movePointRight(2).longValueExact();
+    }
+
+    static BigDecimal toAmount(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+}
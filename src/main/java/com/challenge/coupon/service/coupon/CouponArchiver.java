@@ -0,0 +1,137 @@
+package com.challenge.coupon.service.coupon;
+
+import com.challenge.coupon.config.datasource.CouponShards;
+import com.challenge.coupon.domain.entity.coupon.CouponStatus;
+import com.challenge.coupon.repository.CouponArchiveRepository;
+import com.challenge.coupon.repository.CouponKey;
+import com.challenge.coupon.repository.CouponRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Moves DELETED coupons, and INACTIVE ones expired for longer than
+ * {@code coupon.archive.inactive-after}, from the live table into {@code coupon_archive}, so
+ * the live table and its indexes stay sized to coupons that can still be used. Each batch
+ * is copied and deleted in its own transaction; a coupon updated between the copy and the
+ * delete keeps its live row and loses the copy. Reads by id, lookups, listing and export
+ * fall back to the archive, so the move is not visible through the API. Each shard archives
+ * into its own {@code coupon_archive}, one shard after the other. The copy is table to table,
+ * so it is off with {@code coupon.storage.backend=mapped}, which keeps every coupon in its log.
+ */
+@Component
+@ConditionalOnProperty(name = "coupon.archive.enabled", havingValue = "true", matchIfMissing = true)
+@ConditionalOnProperty(name = "coupon.storage.backend", havingValue = "jpa", matchIfMissing = true)
+public class CouponArchiver {
+
+    private final CouponRepository couponRepository;
+    private final CouponArchiveRepository couponArchiveRepository;
+    private final CouponShards couponShards;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration inactiveAfter;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+
+    private final Counter archived;
+
+    public CouponArchiver(
+            CouponRepository couponRepository,
+            CouponArchiveRepository couponArchiveRepository,
+            CouponShards couponShards,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${coupon.archive.inactive-after:30d}") Duration inactiveAfter,
+            @Value("${coupon.archive.batch-size:500}") int batchSize,
+            @Value("${coupon.archive.max-batches-per-run:100}") int maxBatchesPerRun
+    ) {
+        this.couponRepository = couponRepository;
+        this.couponArchiveRepository = couponArchiveRepository;
+        this.couponShards = couponShards;
+        this.transactionTemplate = transactionTemplate;
+        this.inactiveAfter = inactiveAfter;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+
+        this.archived = Counter.builder("coupon.archive.moved")
+                .description("Coupons moved from the live table to the archive")
+                .register(meterRegistry);
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(CouponArchiver.class);
+
+    @Scheduled(
+            initialDelayString = "${coupon.archive.interval:5m}",
+            fixedDelayString = "${coupon.archive.interval:5m}"
+    )
+    public void archive() {
+
+        LocalDateTime now = LocalDateTime.now();
+        long[] total = new long[1];
+
+        couponShards.forEach(shard -> total[0] += archiveShard(now));
+
+        if (total[0] > 0) {
+            log.info("Archived {} DELETED and long-INACTIVE coupons", total[0]);
+        }
+    }
+
+    private long archiveShard(LocalDateTime now) {
+
+        long total = 0;
+
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            int moved = archiveBatch(now);
+            total += moved;
+
+            if (moved < batchSize) {
+                break;
+            }
+        }
+
+        return total;
+    }
+
+    int archiveBatch(LocalDateTime now) {
+
+        Integer moved = transactionTemplate.execute(status -> {
+            List<CouponKey> keys = new ArrayList<>(
+                    couponRepository.findKeysByStatus(CouponStatus.DELETED, Limit.of(batchSize))
+            );
+
+            if (keys.size() < batchSize) {
+                keys.addAll(couponRepository.findExpired(
+                        CouponStatus.INACTIVE, now.minus(inactiveAfter), Limit.of(batchSize - keys.size())
+                ));
+            }
+
+            if (keys.isEmpty()) {
+                return 0;
+            }
+
+            List<UUID> ids = keys.stream().map(CouponKey::getId).toList();
+            int copied = couponArchiveRepository.copyFromLive(ids, now.minus(inactiveAfter), now);
+            int deleted = couponRepository.deleteArchived(ids);
+
+            if (deleted < copied) {
+                couponArchiveRepository.deleteStillLive(ids);
+            }
+            return deleted;
+        });
+
+        archived.increment(moved);
+        return moved;
+    }
+}
@@ -0,0 +1,16 @@
+package com.challenge.coupon.service.coupon;
+
+import com.challenge.coupon.domain.entity.coupon.Coupon;
+
+import java.util.List;
+
+public record CouponBatchResult(
+        int index,
+        Coupon coupon,
+        List<String> errors
+) {
+
+    public boolean created() {
+        return coupon != null;
+    }
+}
@@ -0,0 +1,137 @@
+package com.challenge.coupon.service.coupon;
+
+import com.challenge.coupon.domain.entity.coupon.Coupon;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache for {@link CouponService#findById}. Entries are detached
+ * snapshots, so callers always get their own copy; missing ids are cached for the shorter
+ * negative TTL. Hit, miss and eviction counts are published as {@code cache.*} metrics
+ * tagged {@code cache=coupon}.
+ * <p>
+ * Misses are loaded outside the cache so no JDBC call runs under a map monitor. Every
+ * invalidation bumps a generation counter for the key's stripe, and a loaded snapshot is only
+ * stored if that generation is unchanged, so a load that raced a delete or redeem cannot put
+ * the old state back after the invalidation.
+ */
+@Component
+public class CouponCache {
+
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final Cache<UUID, Optional<Coupon>> cache;
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    public CouponCache(
+            MeterRegistry meterRegistry,
+            @Value("${coupon.cache.maximum-size:100000}") long maximumSize,
+            @Value("${coupon.cache.ttl:30s}") Duration ttl,
+            @Value("${coupon.cache.negative-ttl:2s}") Duration negativeTtl
+    ) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new SnapshotExpiry(ttl.toNanos(), negativeTtl.toNanos()))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "coupon");
+    }
+
+    public Optional<Coupon> get(UUID id, Function<UUID, Optional<Coupon>> loader) {
+
+        Optional<Coupon> snapshot = cache.getIfPresent(id);
+
+        // Loaded outside the cache's compute lock: a JDBC call under that monitor pins virtual threads.
+        if (snapshot == null) {
+            int stripe = stripe(id);
+            long generation = generations.get(stripe);
+            Optional<Coupon> loaded = loader.apply(id).map(CouponCache::copy);
+
+            // The bump happens before the entry is removed, so a put that sees the old generation is removed after it
+            cache.asMap().compute(id, (key, current) ->
+                    current != null || generations.get(stripe) != generation ? current : loaded
+            );
+            snapshot = loaded;
+        }
+
+        return snapshot.map(CouponCache::copy);
+    }
+
+    // A hit answers without touching the database; a miss (or a cached "not found") returns empty
+    public Optional<Coupon> getIfPresent(UUID id) {
+
+        Optional<Coupon> snapshot = cache.getIfPresent(id);
+        return snapshot == null ? Optional.empty() : snapshot.map(CouponCache::copy);
+    }
+
+    public void invalidate(UUID id) {
+
+        evict(id);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(id);
+                }
+            });
+        }
+    }
+
+    private void evict(UUID id) {
+        generations.incrementAndGet(stripe(id));
+        cache.invalidate(id);
+    }
+
+    private static int stripe(UUID id) {
+        return (id.hashCode() * 0x9E3779B9) >>> 22;
+    }
+
+    private static Coupon copy(Coupon coupon) {
+        Coupon copy = new Coupon(
+                coupon.getId(),
+                coupon.getCode(),
+                coupon.getDescription(),
+                coupon.getDiscountValue(),
+                coupon.getExpirationDate(),
+                coupon.getStatus(),
+                coupon.getPublished(),
+                coupon.getRedeemed()
+        );
+        copy.setVersion(coupon.getVersion());
+        copy.setUpdatedAt(coupon.getUpdatedAt());
+        return copy;
+    }
+
+    private record SnapshotExpiry(long ttlNanos, long negativeTtlNanos) implements Expiry<UUID, Optional<Coupon>> {
+
+        @Override
+        public long expireAfterCreate(UUID key, Optional<Coupon> value, long currentTime) {
+            return value.isPresent() ? ttlNanos : negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(UUID key, Optional<Coupon> value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(UUID key, Optional<Coupon> value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
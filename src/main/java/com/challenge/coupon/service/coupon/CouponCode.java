@@ -0,0 +1,93 @@
+package com.challenge.coupon.service.coupon;
+
+/**
+ * Packs a normalized 6-character alphanumeric coupon code into a base-62 {@code long}
+ * (0-9, A-Z, a-z), so code sets can be kept as primitives instead of strings. Codes made
+ * only of digits and upper-case letters also have a dense base-36 index, used by
+ * {@link CouponCodeGenerator}.
+ */
+public final class CouponCode {
+
+    public static final int LENGTH = 6;
+    public static final int RADIX = 62;
+    public static final long SPACE = 56_800_235_584L;
+    public static final long INVALID = -1L;
+    public static final int UPPER_RADIX = 36;
+    public static final long UPPER_SPACE = 2_176_782_336L;
+
+    private static final char[] ALPHABET =
+            "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz".toCharArray();
+
+    private CouponCode() {}
+
+    public static long pack(String code) {
+        if (code == null || code.length() != LENGTH) {
+            return INVALID;
+        }
+
+        long packed = 0;
+        for (int i = 0; i < LENGTH; i++) {
+            int digit = digit(code.charAt(i));
+            if (digit < 0) {
+                return INVALID;
+            }
+            packed = packed * RADIX + digit;
+        }
+        return packed;
+    }
+
+    public static String unpack(long packed) {
+        if (packed < 0 || packed >= SPACE) {
+            throw new IllegalArgumentException("Packed code out of range: " + packed);
+        }
+
+        char[] chars = new char[LENGTH];
+        for (int i = LENGTH - 1; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (packed % RADIX)];
+            packed /= RADIX;
+        }
+        return new String(chars);
+    }
+
+    public static long packUpper(String code) {
+        if (code == null || code.length() != LENGTH) {
+            return INVALID;
+        }
+
+        long packed = 0;
+        for (int i = 0; i < LENGTH; i++) {
+            int digit = digit(code.charAt(i));
+            if (digit < 0 || digit >= UPPER_RADIX) {
+                return INVALID;
+            }
+            packed = packed * UPPER_RADIX + digit;
+        }
+        return packed;
+    }
+
+    public static String unpackUpper(long packed) {
+        if (packed < 0 || packed >= UPPER_SPACE) {
+            throw new IllegalArgumentException("Packed code out of range: " + packed);
+        }
+
+        char[] chars = new char[LENGTH];
+        for (int i = LENGTH - 1; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (packed % UPPER_RADIX)];
+            packed /= UPPER_RADIX;
+        }
+        return new String(chars);
+    }
+
+    private static int digit(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'A' && c <= 'Z') {
+            return c - 'A' + 10;
+        }
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a' + 36;
+        }
+        return -1;
+    }
+}
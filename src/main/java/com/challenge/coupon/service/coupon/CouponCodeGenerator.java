@@ -0,0 +1,174 @@
+package com.challenge.coupon.service.coupon;
+
+import com.challenge.coupon.config.datasource.CouponShards;
+import com.challenge.coupon.domain.entity.exception.DomainException;
+import com.challenge.coupon.repository.CouponStore;
+import com.challenge.coupon.support.MappedBitSet;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Issues coupon codes that were never used before. Every digit/upper-case code has one bit
+ * in a memory-mapped bitmap of the 36^6 space (about 272 MB, sparse on disk), set once the
+ * code is stored or issued here. The bitmap is mapped and rebuilt from the stored codes on the
+ * first {@link #generate}, so a node that never generates never maps it; with
+ * {@code coupon.generator.bitmap-file} set it is also kept across restarts, so codes issued but
+ * never used are not issued again.
+ * <p>
+ * Uniqueness is per node: codes stored through another node, or committed while the bitmap
+ * is being rebuilt, are not marked here. Creating a coupon with such a code is rejected by
+ * {@code uk_coupon_active_code} like any other duplicate, and the client asks for a new code.
+ */
+@Component
+public class CouponCodeGenerator {
+
+    static final int MAX_COUNT = 1_000_000;
+    // Bits picked or codes marked per hold of the bitmap lock, so creates marking their code wait for one chunk only
+    private static final int CHUNK_SIZE = 4_096;
+
+    private final CouponStore couponStore;
+    private final CouponShards couponShards;
+    private final TransactionTemplate readTransaction;
+    private final String bitmapFile;
+    private final SecureRandom random = new SecureRandom();
+    private volatile MappedBitSet used;
+    private volatile boolean warm;
+
+    public CouponCodeGenerator(
+            CouponStore couponStore,
+            CouponShards couponShards,
+            PlatformTransactionManager transactionManager,
+            @Value("${coupon.generator.bitmap-file:}") String bitmapFile
+    ) {
+        this.couponStore = couponStore;
+        this.couponShards = couponShards;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.bitmapFile = bitmapFile;
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(CouponCodeGenerator.class);
+
+    public List<String> generate(int count) {
+
+        if (count < 1 || count > MAX_COUNT) {
+            throw new DomainException("Count must be between 1 and " + MAX_COUNT);
+        }
+
+        MappedBitSet bitmap = bitmap();
+        List<String> codes = new ArrayList<>(count);
+
+        while (codes.size() < count) {
+            synchronized (bitmap) {
+                if (bitmap.size() - bitmap.cardinality() < count - codes.size()) {
+                    throw new DomainException("Not enough unused codes left to generate " + count);
+                }
+
+                for (int i = Math.min(CHUNK_SIZE, count - codes.size()); i > 0; i--) {
+                    long bit = bitmap.nextClearBit(random.nextLong(bitmap.size()));
+                    if (bit < 0) {
+                        bit = bitmap.nextClearBit(0);
+                    }
+                    bitmap.set(bit);
+                    codes.add(CouponCode.unpackUpper(bit));
+                }
+            }
+        }
+
+        log.info("Generated {} coupon codes", count);
+        return codes;
+    }
+
+    // Until the first generate there is no bitmap, and the rebuild will read the code from the store instead
+    public void markUsed(String code) {
+        MappedBitSet bitmap = used;
+        if (bitmap == null) {
+            return;
+        }
+
+        synchronized (bitmap) {
+            mark(bitmap, code);
+        }
+    }
+
+    public long usedCount() {
+        MappedBitSet bitmap = bitmap();
+        synchronized (bitmap) {
+            return bitmap.cardinality();
+        }
+    }
+
+    // Published before the stored codes are read, so codes created during the rebuild are marked by markUsed
+    private MappedBitSet bitmap() {
+        if (warm) {
+            return used;
+        }
+
+        synchronized (this) {
+            if (!warm) {
+                used = bitmapFile.isBlank()
+                        ? MappedBitSet.temporary(CouponCode.UPPER_SPACE)
+                        : MappedBitSet.open(Path.of(bitmapFile), CouponCode.UPPER_SPACE);
+
+                long[] stored = new long[1];
+                couponShards.forEach(shard -> readTransaction.executeWithoutResult(status -> {
+                    try (Stream<String> codes = couponStore.streamAllCodes()) {
+                        stored[0] += markAll(used, codes.iterator());
+                    }
+                }));
+                warm = true;
+
+                log.info("Code generator bitmap rebuilt from {} stored codes, {} codes used", stored[0], usedCount());
+            }
+        }
+        return used;
+    }
+
+    // Each chunk is read from the cursor before the lock is taken, so fetching rows never blocks markUsed
+    private static long markAll(MappedBitSet bitmap, Iterator<String> codes) {
+        long marked = 0;
+        List<String> chunk = new ArrayList<>(CHUNK_SIZE);
+
+        while (codes.hasNext()) {
+            chunk.clear();
+            while (chunk.size() < CHUNK_SIZE && codes.hasNext()) {
+                chunk.add(codes.next());
+            }
+
+            synchronized (bitmap) {
+                chunk.forEach(code -> mark(bitmap, code));
+            }
+            marked += chunk.size();
+        }
+        return marked;
+    }
+
+    private static void mark(MappedBitSet bitmap, String code) {
+        long packed = CouponCode.packUpper(code);
+        if (packed != CouponCode.INVALID) {
+            bitmap.set(packed);
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        MappedBitSet bitmap = used;
+        if (bitmap != null) {
+            synchronized (bitmap) {
+                bitmap.close();
+            }
+        }
+    }
+}
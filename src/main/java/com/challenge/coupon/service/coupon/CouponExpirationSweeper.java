@@ -0,0 +1,137 @@
+package com.challenge.coupon.service.coupon;
+
+import com.challenge.coupon.config.datasource.CouponShards;
+import com.challenge.coupon.domain.entity.coupon.CouponStatus;
+import com.challenge.coupon.repository.CouponKey;
+import com.challenge.coupon.repository.CouponStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Moves ACTIVE coupons past their expiration date to INACTIVE. Each batch is selected through
+ * the (status, expirationDate) index and updated in its own short transaction, so the sweep
+ * never holds locks on more than one batch at a time. Shards are swept one after the other.
+ */
+@Component
+@ConditionalOnProperty(name = "coupon.expiration.enabled", havingValue = "true", matchIfMissing = true)
+public class CouponExpirationSweeper {
+
+    private final CouponStore couponStore;
+    private final CouponCache couponCache;
+    private final ActiveCodeIndex activeCodeIndex;
+    private final CouponShards couponShards;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+
+    private final Counter swept;
+    private volatile double lagSeconds;
+
+    public CouponExpirationSweeper(
+            CouponStore couponStore,
+            CouponCache couponCache,
+            ActiveCodeIndex activeCodeIndex,
+            CouponShards couponShards,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${coupon.expiration.batch-size:500}") int batchSize,
+            @Value("${coupon.expiration.max-batches-per-run:100}") int maxBatchesPerRun
+    ) {
+        this.couponStore = couponStore;
+        this.couponCache = couponCache;
+        this.activeCodeIndex = activeCodeIndex;
+        this.couponShards = couponShards;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+
+        this.swept = Counter.builder("coupon.expiration.swept")
+                .description("Coupons moved from ACTIVE to INACTIVE after expiring")
+                .register(meterRegistry);
+        Gauge.builder("coupon.expiration.lag", this, sweeper -> sweeper.lagSeconds)
+                .description("Age of the oldest expired coupon still ACTIVE after the last sweep")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(CouponExpirationSweeper.class);
+
+    @Scheduled(
+            initialDelayString = "${coupon.expiration.sweep-interval:1m}",
+            fixedDelayString = "${coupon.expiration.sweep-interval:1m}"
+    )
+    public void sweep() {
+
+        LocalDateTime now = LocalDateTime.now();
+        long[] total = new long[1];
+        double[] lag = new double[1];
+
+        couponShards.forEach(shard -> {
+            total[0] += sweepShard(now);
+            lag[0] = Math.max(lag[0], couponStore.findOldestExpiration(CouponStatus.ACTIVE, now)
+                    .map(oldest -> (double) Duration.between(oldest, now).toSeconds())
+                    .orElse(0.0));
+        });
+        lagSeconds = lag[0];
+
+        if (total[0] > 0) {
+            log.info("Expiration sweep moved {} coupons to INACTIVE, lag is {}s", total[0], (long) lagSeconds);
+        }
+    }
+
+    private long sweepShard(LocalDateTime now) {
+
+        long total = 0;
+
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            SweepResult result = sweepBatch(now);
+            total += result.updated();
+
+            if (result.found() < batchSize) {
+                break;
+            }
+        }
+
+        return total;
+    }
+
+    SweepResult sweepBatch(LocalDateTime now) {
+
+        SweepResult result = transactionTemplate.execute(status -> {
+            List<CouponKey> expired = couponStore.findExpired(CouponStatus.ACTIVE, now, Limit.of(batchSize));
+
+            if (expired.isEmpty()) {
+                return new SweepResult(0, 0);
+            }
+
+            List<UUID> ids = expired.stream().map(CouponKey::getId).toList();
+            int updated = couponStore.updateStatus(ids, CouponStatus.ACTIVE, CouponStatus.INACTIVE);
+
+            for (CouponKey key : expired) {
+                couponCache.invalidate(key.getId());
+                activeCodeIndex.removeAfterCommit(key.getCode());
+            }
+
+            return new SweepResult(expired.size(), updated);
+        });
+
+        swept.increment(result.updated());
+        return result;
+    }
+
+    record SweepResult(int found, int updated) {}
+}
@@ -0,0 +1,110 @@
+package com.challenge.coupon.service.coupon;
+
+import com.challenge.coupon.config.datasource.CouponShards;
+import com.challenge.coupon.controller.api.CouponResponse;
+import com.challenge.coupon.domain.entity.coupon.ArchivedCoupon;
+import com.challenge.coupon.domain.entity.coupon.Coupon;
+import com.challenge.coupon.domain.entity.coupon.CouponStatus;
+import com.challenge.coupon.repository.CouponArchiveRepository;
+import com.challenge.coupon.repository.CouponStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.stream.Stream;
+
+/**
+ * Writes coupons as NDJSON straight from a forward-only cursor. Each entity is detached
+ * once written, so the persistence context (and the heap) stays flat regardless of table size.
+ * Shards are exported one after the other, each from its own read-only transaction.
+ */
+@Component
+public class CouponExporter {
+
+    private static final byte NEWLINE = '\n';
+
+    private final CouponStore couponStore;
+    private final CouponArchiveRepository couponArchiveRepository;
+    private final EntityManager entityManager;
+    private final CouponShards couponShards;
+    private final TransactionTemplate readTransaction;
+    private final ObjectWriter writer;
+
+    public CouponExporter(
+            CouponStore couponStore,
+            CouponArchiveRepository couponArchiveRepository,
+            EntityManager entityManager,
+            CouponShards couponShards,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper
+    ) {
+        this.couponStore = couponStore;
+        this.couponArchiveRepository = couponArchiveRepository;
+        this.entityManager = entityManager;
+        this.couponShards = couponShards;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.writer = objectMapper.writerFor(CouponResponse.class);
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(CouponExporter.class);
+
+    public long export(CouponFilter filter, OutputStream output) throws IOException {
+
+        BufferedOutputStream buffered = new BufferedOutputStream(output, 64 * 1024);
+        long[] exported = new long[1];
+
+        try {
+            couponShards.forEach(shard -> exported[0] += readTransaction.execute(status -> exportShard(filter, buffered)));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        buffered.flush();
+        log.info("Exported {} coupons with status={} and published={}", exported[0], filter.status(), filter.published());
+
+        return exported[0];
+    }
+
+    // Write failures leave as UncheckedIOException, the same way a failing cursor surfaces from the stream
+    private long exportShard(CouponFilter filter, BufferedOutputStream buffered) {
+
+        long exported = 0;
+
+        try (Stream<Coupon> coupons = couponStore.streamAll(filter.status(), filter.published())) {
+            for (Coupon coupon : (Iterable<Coupon>) coupons::iterator) {
+                buffered.write(writer.writeValueAsBytes(CouponResponse.from(coupon)));
+                buffered.write(NEWLINE);
+                entityManager.detach(coupon);
+                exported++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        // Archived rows are never ACTIVE, so an ACTIVE export skips the cold table entirely
+        if (filter.status() != CouponStatus.ACTIVE) {
+            try (Stream<ArchivedCoupon> archived = couponArchiveRepository.streamAll(filter.status(), filter.published())) {
+                for (ArchivedCoupon coupon : (Iterable<ArchivedCoupon>) archived::iterator) {
+                    buffered.write(writer.writeValueAsBytes(CouponResponse.from(coupon.toCoupon())));
+                    buffered.write(NEWLINE);
+                    entityManager.detach(coupon);
+                    exported++;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        return exported;
+    }
+}
@@ -0,0 +1,8 @@
+package com.challenge.coupon.service.coupon;
+
+import com.challenge.coupon.domain.entity.coupon.CouponStatus;
+
+public record CouponFilter(
+        CouponStatus status,
+        Boolean published
+) {}
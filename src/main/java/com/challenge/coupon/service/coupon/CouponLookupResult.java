@@ -0,0 +1,18 @@
+package com.challenge.coupon.service.coupon;
+
+import com.challenge.coupon.domain.entity.coupon.Coupon;
+
+public record CouponLookupResult(
+        String key,
+        Coupon coupon,
+        String reason
+) {
+
+    public boolean found() {
+        return coupon != null;
+    }
+
+    public boolean valid() {
+        return coupon != null && reason == null;
+    }
+}
@@ -0,0 +1,18 @@
+package com.challenge.coupon.service.coupon;
+
+import java.math.BigDecimal;
+
+public record CouponQuoteLine(
+        String code,
+        long discountCents,
+        String reason
+) {
+
+    public boolean applied() {
+        return reason == null;
+    }
+
+    public BigDecimal discount() {
+        return Cents.toAmount(discountCents);
+    }
+}
@@ -0,0 +1,29 @@
+package com.challenge.coupon.service.coupon;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public record CouponQuoteResult(
+        int index,
+        long amountCents,
+        long discountCents,
+        List<CouponQuoteLine> coupons,
+        List<String> errors
+) {
+
+    public boolean quoted() {
+        return errors.isEmpty();
+    }
+
+    public BigDecimal amount() {
+        return Cents.toAmount(amountCents);
+    }
+
+    public BigDecimal discount() {
+        return Cents.toAmount(discountCents);
+    }
+
+    public BigDecimal total() {
+        return Cents.toAmount(amountCents - discountCents);
+    }
+}
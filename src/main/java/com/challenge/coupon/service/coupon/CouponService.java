@@ -1,66 +1,122 @@
 package com.challenge.coupon.service.coupon;
 
+import com.challenge.coupon.config.datasource.CouponShards;
+import com.challenge.coupon.config.datasource.ReadYourWrites;
 import com.challenge.coupon.controller.api.CouponCreateRequest;
+import com.challenge.coupon.controller.api.CouponQuoteCartRequest;
+import com.challenge.coupon.domain.entity.coupon.ArchivedCoupon;
 import com.challenge.coupon.domain.entity.coupon.Coupon;
 import com.challenge.coupon.domain.entity.coupon.CouponStatus;
 import com.challenge.coupon.domain.entity.exception.*;
-import com.challenge.coupon.repository.CouponRepository;
-import jakarta.transaction.Transactional;
+import com.challenge.coupon.domain.entity.outbox.CouponEventType;
+import com.challenge.coupon.repository.CouponArchiveRepository;
+import com.challenge.coupon.repository.CouponStore;
+import com.challenge.coupon.repository.CouponVersion;
+import com.challenge.coupon.service.outbox.CouponOutbox;
+import com.challenge.coupon.support.LongIntHashMap;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.hibernate.exception.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
 
 @Service
 public class CouponService {
 
-    private final CouponRepository couponRepository;
+    private final CouponStore couponStore;
+    private final CouponArchiveRepository couponArchiveRepository;
+    private final ActiveCodeIndex activeCodeIndex;
+    private final CouponCache couponCache;
+    private final CouponOutbox couponOutbox;
+    private final CouponCodeGenerator couponCodeGenerator;
+    private final ReadYourWrites readYourWrites;
+    private final CouponShards couponShards;
+    private final Validator validator;
 
-    public CouponService(CouponRepository couponRepository) {
-        this.couponRepository = couponRepository;
+    public CouponService(
+            CouponStore couponStore,
+            CouponArchiveRepository couponArchiveRepository,
+            ActiveCodeIndex activeCodeIndex,
+            CouponCache couponCache,
+            CouponOutbox couponOutbox,
+            CouponCodeGenerator couponCodeGenerator,
+            ReadYourWrites readYourWrites,
+            CouponShards couponShards,
+            Validator validator
+    ) {
+        this.couponStore = couponStore;
+        this.couponArchiveRepository = couponArchiveRepository;
+        this.activeCodeIndex = activeCodeIndex;
+        this.couponCache = couponCache;
+        this.couponOutbox = couponOutbox;
+        this.couponCodeGenerator = couponCodeGenerator;
+        this.readYourWrites = readYourWrites;
+        this.couponShards = couponShards;
+        this.validator = validator;
     }
 
     private static final Logger log = LoggerFactory.getLogger(CouponService.class);
 
-    private String replaceCode(String code) {
+    static final int MAX_BATCH_SIZE = 10_000;
+    static final int MAX_PAGE_SIZE = 1_000;
+    private static final int LOOKUP_CHUNK_SIZE = 1_000;
+    static final int MAX_LOOKUP_SIZE = LOOKUP_CHUNK_SIZE;
+    static final int MAX_QUOTE_CODES = LOOKUP_CHUNK_SIZE;
+    static final int MAX_CART_COUPONS = 10;
+    // Same order as H2's uuid comparison, so live and archived pages merge like one table
+    private static final Comparator<UUID> ID_ORDER = Comparator
+            .comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+            .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+    private static final BigDecimal MIN_DISCOUNT_VALUE = new BigDecimal("0.5");
+    private static final String ACTIVE_CODE_CONSTRAINT = "uk_coupon_active_code";
+
+    static String replaceCode(String code) {
         return code.replaceAll("[^a-zA-Z0-9]", "");
     }
 
-    private void validateMinimumDiscountValue(BigDecimal discountValue) {
-        if (discountValue.compareTo(new BigDecimal("0.5")) < 0) {
-            throw new InvalidDiscountValueException("Discount amount shown is less than the minimum allowed");
-        }
-    }
+    // Runs every rule and collects all violations, so a rejected request costs no exception and reports everything at once
+    static CouponValidation validate(CouponCreateRequest request) {
 
-    private void validateExpirationDate(LocalDateTime expirationDate) {
-        LocalDateTime now = LocalDateTime.now();
+        List<String> errors = new ArrayList<>(3);
 
-        if (expirationDate.isBefore(now)) {
-            throw new InvalidExpirationDateException("The expiration date must be a future date");
+        if (request.discountValue().compareTo(MIN_DISCOUNT_VALUE) < 0) {
+            errors.add("Discount amount shown is less than the minimum allowed");
         }
-    }
-
-    private void validate(CouponCreateRequest request) {
-        validateMinimumDiscountValue(request.discountValue());
-        validateExpirationDate(request.expirationDate());
-    }
-
-    @Transactional
-    public Coupon create(CouponCreateRequest request) {
 
-        validate(request);
+        if (request.expirationDate().isBefore(LocalDateTime.now())) {
+            errors.add("The expiration date must be a future date");
+        }
 
         String replacedCode = replaceCode(request.code());
 
         if (replacedCode.length() != 6) {
-            throw new InvalidCodeException("Coupon code must contain exactly 6 alphanumeric characters");
+            errors.add("Coupon code must contain exactly 6 alphanumeric characters");
         }
 
-        if (couponRepository.existsByCodeAndStatus(replacedCode, CouponStatus.ACTIVE)) {
-            throw new DuplicateCodeException("Coupon code already exists");
+        if (!errors.isEmpty()) {
+            return new CouponValidation(null, errors);
         }
 
         Coupon coupon = new Coupon();
@@ -73,7 +129,40 @@ public class CouponService {
         coupon.setStatus(CouponStatus.ACTIVE);
         coupon.setRedeemed(false);
 
-        Coupon registered = couponRepository.save(coupon);
+        return new CouponValidation(coupon, List.of());
+    }
+
+    static Coupon toCoupon(CouponCreateRequest request) {
+
+        CouponValidation validation = validate(request);
+
+        if (!validation.valid()) {
+            throw new CouponValidationException(validation.errors());
+        }
+
+        return validation.coupon();
+    }
+
+    @Transactional
+    public Coupon create(CouponCreateRequest request) {
+
+        Coupon coupon = toCoupon(request);
+
+        return couponShards.on(couponShards.forCode(coupon.getCode()), () -> register(coupon));
+    }
+
+    private Coupon register(Coupon coupon) {
+
+        if (activeCodeIndex.needsDatabaseCheck(coupon.getCode())
+                && couponStore.existsByCodeAndStatus(coupon.getCode(), CouponStatus.ACTIVE)) {
+            throw new DuplicateCodeException("Coupon code already exists");
+        }
+
+        Coupon registered = saveActive(() -> couponStore.saveAndFlush(coupon));
+        couponOutbox.record(CouponEventType.CREATED, registered);
+        activeCodeIndex.add(coupon.getCode());
+        couponCodeGenerator.markUsed(coupon.getCode());
+        readYourWrites.written(registered.getId(), registered.getCode());
 
         log.info(
                 "Registered coupon with code={}, description={} and expirationDate={} successfully",
@@ -83,7 +172,176 @@ public class CouponService {
         return registered;
     }
 
-    private UUID parseIdStringToUuid(String id) {
+    @Transactional
+    public List<CouponBatchResult> createBatch(List<CouponCreateRequest> requests) {
+
+        if (requests.size() > MAX_BATCH_SIZE) {
+            throw new DomainException("A batch cannot contain more than " + MAX_BATCH_SIZE + " coupons");
+        }
+
+        int size = requests.size();
+        Coupon[] candidates = new Coupon[size];
+        List<List<String>> errors = new ArrayList<>(Collections.nCopies(size, List.of()));
+
+        for (int i = 0; i < size; i++) {
+            CouponCreateRequest request = requests.get(i);
+
+            if (request == null) {
+                errors.set(i, List.of("Coupon is required"));
+                continue;
+            }
+
+            List<String> violations = validator.validate(request).stream()
+                    .map(ConstraintViolation::getMessage)
+                    .toList();
+
+            if (!violations.isEmpty()) {
+                errors.set(i, violations);
+                continue;
+            }
+
+            CouponValidation validation = validate(request);
+
+            if (validation.valid()) {
+                candidates[i] = validation.coupon();
+            } else {
+                errors.set(i, validation.errors());
+            }
+        }
+
+        Set<String> existingCodes = findActiveCodes(candidates);
+        Set<String> batchCodes = new HashSet<>();
+        List<Integer> accepted = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++) {
+            Coupon candidate = candidates[i];
+
+            if (candidate == null) {
+                continue;
+            }
+
+            if (existingCodes.contains(candidate.getCode()) || !batchCodes.add(candidate.getCode())) {
+                errors.set(i, List.of("Coupon code already exists"));
+                candidates[i] = null;
+                continue;
+            }
+
+            accepted.add(i);
+        }
+
+        // A shard that fails rolls back alone; its items are reported as failed and the other shards' stay created
+        List<List<Integer>> acceptedByShard = byShard(accepted, i -> couponShards.forCode(candidates[i].getCode()));
+        List<RuntimeException> failures = couponShards.fanOutEach(false, shard -> {
+            saveBatch(acceptedByShard.get(shard).stream().map(i -> candidates[i]).toList());
+            return null;
+        }, failure -> failure);
+
+        int created = 0;
+        for (int shard = 0; shard < acceptedByShard.size(); shard++) {
+            RuntimeException failure = failures.get(shard);
+
+            if (failure != null) {
+                log.warn("Batch of {} coupons failed on shard {}", acceptedByShard.get(shard).size(), shard, failure);
+            }
+
+            for (int i : acceptedByShard.get(shard)) {
+                Coupon coupon = candidates[i];
+
+                if (failure == null) {
+                    activeCodeIndex.add(coupon.getCode());
+                    couponCodeGenerator.markUsed(coupon.getCode());
+                    readYourWrites.written(coupon.getId(), coupon.getCode());
+                    created++;
+                    continue;
+                }
+
+                // One of these codes is ACTIVE but the index missed it, so a retry must check them all in the database
+                if (failure instanceof DuplicateCodeException) {
+                    activeCodeIndex.add(coupon.getCode());
+                }
+                errors.set(i, List.of("Coupon could not be stored, retry it"));
+                candidates[i] = null;
+            }
+        }
+
+        log.info("Registered {} of {} coupons from batch successfully", created, size);
+
+        List<CouponBatchResult> results = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            results.add(new CouponBatchResult(i, candidates[i], errors.get(i)));
+        }
+
+        return results;
+    }
+
+    private List<Coupon> saveBatch(List<Coupon> coupons) {
+
+        List<Coupon> saved = saveActive(() -> couponStore.saveAllAndFlush(coupons));
+        couponOutbox.recordAll(CouponEventType.CREATED, coupons);
+        return saved;
+    }
+
+    // Items grouped by shard, in shard order and keeping their own order; a shard nothing maps to gets an empty list
+    private <T> List<List<T>> byShard(Collection<T> items, ToIntFunction<T> shardOf) {
+
+        List<List<T>> groups = new ArrayList<>(couponShards.count());
+        for (int shard = 0; shard < couponShards.count(); shard++) {
+            groups.add(new ArrayList<>());
+        }
+        for (T item : items) {
+            groups.get(shardOf.applyAsInt(item)).add(item);
+        }
+        return groups;
+    }
+
+    private static <T> T saveActive(Supplier<T> save) {
+
+        try {
+            return save.get();
+        } catch (DataIntegrityViolationException e) {
+            if (isActiveCodeViolation(e)) {
+                throw new DuplicateCodeException("Coupon code already exists");
+            }
+            throw e;
+        }
+    }
+
+    private static boolean isActiveCodeViolation(DataIntegrityViolationException e) {
+
+        return e.getCause() instanceof ConstraintViolationException violation
+                && violation.getConstraintName() != null
+                && violation.getConstraintName().toLowerCase().contains(ACTIVE_CODE_CONSTRAINT);
+    }
+
+    private Set<String> findActiveCodes(Coupon[] candidates) {
+
+        List<String> codes = new ArrayList<>();
+        for (Coupon candidate : candidates) {
+            if (candidate != null && activeCodeIndex.needsDatabaseCheck(candidate.getCode())) {
+                codes.add(candidate.getCode());
+            }
+        }
+
+        List<List<String>> codesByShard = byShard(codes, couponShards::forCode);
+        Set<String> existing = new HashSet<>();
+        couponShards.fanOut(true, shard -> findActiveCodes(codesByShard.get(shard)))
+                .forEach(existing::addAll);
+
+        return existing;
+    }
+
+    private List<String> findActiveCodes(List<String> codes) {
+
+        List<String> existing = new ArrayList<>();
+        for (int from = 0; from < codes.size(); from += LOOKUP_CHUNK_SIZE) {
+            List<String> chunk = codes.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, codes.size()));
+            existing.addAll(couponStore.findCodesByCodeInAndStatus(chunk, CouponStatus.ACTIVE));
+        }
+
+        return existing;
+    }
+
+    static UUID parseIdStringToUuid(String id) {
         try {
             return UUID.fromString(id);
         } catch (IllegalArgumentException e) {
@@ -94,9 +352,32 @@ public class CouponService {
     @Transactional
     public void delete(String id) {
 
-       Coupon coupon = couponRepository.findById(parseIdStringToUuid(id)).orElseThrow(() ->
-               new DomainNotFoundException("Coupon not found")
-       );
+        delete(id, null);
+    }
+
+    /**
+     * Deletes the coupon only if its current version is one of {@code ifMatchVersions}; a null
+     * set means unconditional. The save is version-checked, so a concurrent change between the
+     * read and the write fails the precondition too.
+     */
+    @Transactional
+    public void delete(String id, Set<Long> ifMatchVersions) {
+
+       UUID uuid = parseIdStringToUuid(id);
+
+       couponShards.on(couponShards.forId(uuid), () -> delete(uuid, ifMatchVersions));
+    }
+
+    private void delete(UUID uuid, Set<Long> ifMatchVersions) {
+
+       Coupon coupon = couponStore.findById(uuid).orElse(null);
+
+       if (coupon == null) {
+           deleteArchived(uuid, ifMatchVersions);
+           return;
+       }
+
+       checkVersion(coupon.getVersion(), ifMatchVersions);
 
        if (coupon.getStatus().equals(CouponStatus.DELETED)) {
            throw new DomainException("You cannot delete a coupon that has already been deleted");
@@ -104,14 +385,486 @@ public class CouponService {
 
        coupon.setStatus(CouponStatus.DELETED);
 
-       couponRepository.save(coupon);
+       saveVersioned(() -> couponStore.saveAndFlush(coupon), ifMatchVersions);
+       couponOutbox.record(CouponEventType.DELETED, coupon);
+       couponCache.invalidate(coupon.getId());
+       activeCodeIndex.removeAfterCommit(coupon.getCode());
+       readYourWrites.written(coupon.getId(), coupon.getCode());
        log.info("Coupon with id={} was successfully deleted", coupon.getId());
     }
 
+    private void deleteArchived(UUID id, Set<Long> ifMatchVersions) {
+
+        ArchivedCoupon archived = couponArchiveRepository.findById(id).orElseThrow(() ->
+                new DomainNotFoundException("Coupon not found")
+        );
+
+        checkVersion(archived.getVersion(), ifMatchVersions);
+
+        if (archived.getStatus() == CouponStatus.DELETED) {
+            throw new DomainException("You cannot delete a coupon that has already been deleted");
+        }
+
+        archived.setStatus(CouponStatus.DELETED);
+
+        saveVersioned(() -> couponArchiveRepository.saveAndFlush(archived), ifMatchVersions);
+        couponOutbox.record(CouponEventType.DELETED, archived.toCoupon());
+        couponCache.invalidate(id);
+        readYourWrites.written(id, archived.getCode());
+        log.info("Archived coupon with id={} was successfully deleted", id);
+    }
+
+    private static void checkVersion(Long version, Set<Long> ifMatchVersions) {
+
+        if (ifMatchVersions != null && !ifMatchVersions.contains(version)) {
+            throw new PreconditionFailedException("Coupon has been modified since it was read");
+        }
+    }
+
+    private static void saveVersioned(Runnable save, Set<Long> ifMatchVersions) {
+
+        try {
+            save.run();
+        } catch (OptimisticLockingFailureException e) {
+            if (ifMatchVersions != null) {
+                throw new PreconditionFailedException("Coupon has been modified since it was read");
+            }
+            throw e;
+        }
+    }
+
+    private Optional<Coupon> findLiveOrArchived(UUID id) {
+
+        return couponShards.on(couponShards.forId(id), () -> couponStore.findById(id)
+                .or(() -> couponArchiveRepository.findById(id).map(ArchivedCoupon::toCoupon)));
+    }
+
+    // Not transactional itself so cache hits take no connection; the loaders are SimpleJpaRepository's read-only findById
     public Coupon findById(String id) {
 
-        return couponRepository.findById(parseIdStringToUuid(id)).orElseThrow(() ->
+        UUID uuid = parseIdStringToUuid(id);
+
+        return readYourWrites.read(List.of(uuid.toString()), () -> couponCache.get(uuid, this::findLiveOrArchived))
+                .orElseThrow(() -> new DomainNotFoundException("Coupon not found"));
+    }
+
+    // Answers conditional GETs: a cached snapshot is used as is, so a 304 never contradicts what findById would return;
+    // on a miss only version and updated_at are read, not the TEXT description
+    public CouponVersion findVersion(String id) {
+
+        UUID uuid = parseIdStringToUuid(id);
+
+        Optional<Coupon> cached = couponCache.getIfPresent(uuid);
+        if (cached.isPresent()) {
+            return new CouponVersion(cached.get().getVersion(), cached.get().getUpdatedAt());
+        }
+
+        return readYourWrites.read(List.of(uuid.toString()), () -> couponShards.on(couponShards.forId(uuid), () ->
+                        couponStore.findVersionById(uuid).or(() -> couponArchiveRepository.findVersionById(uuid))))
+                .orElseThrow(() -> new DomainNotFoundException("Coupon not found"));
+    }
+
+    @Transactional(readOnly = true)
+    public List<Coupon> list(CouponFilter filter, String after, int size) {
+
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new DomainException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        UUID afterId = after == null ? null : parseIdStringToUuid(after);
+
+        List<List<Coupon>> pages = couponShards.fanOut(true, shard -> page(filter, afterId, size));
+
+        if (pages.size() == 1) {
+            return pages.getFirst();
+        }
+
+        // Every shard page is ordered and starts after the same id, so the first size ids of their merge are the page
+        return pages.stream()
+                .flatMap(List::stream)
+                .sorted(Comparator.comparing(Coupon::getId, ID_ORDER))
+                .limit(size)
+                .toList();
+    }
+
+    private List<Coupon> page(CouponFilter filter, UUID afterId, int size) {
+
+        List<Coupon> live = couponStore.findPage(afterId, filter.status(), filter.published(), Limit.of(size));
+
+        if (filter.status() == CouponStatus.ACTIVE) {
+            return live;
+        }
+
+        List<Coupon> archived = couponArchiveRepository.findPage(afterId, filter.status(), filter.published(), Limit.of(size))
+                .stream()
+                .map(ArchivedCoupon::toCoupon)
+                .toList();
+
+        if (archived.isEmpty()) {
+            return live;
+        }
+
+        return Stream.concat(live.stream(), archived.stream())
+                .sorted(Comparator.comparing(Coupon::getId, ID_ORDER))
+                .limit(size)
+                .toList();
+    }
+
+    @Transactional(readOnly = true)
+    public List<CouponLookupResult> lookup(List<String> codes, List<String> ids) {
+
+        List<String> requestedCodes = codes == null ? List.of() : codes;
+        List<String> requestedIds = ids == null ? List.of() : ids;
+
+        if (requestedCodes.size() + requestedIds.size() > MAX_LOOKUP_SIZE) {
+            throw new DomainException("A lookup cannot contain more than " + MAX_LOOKUP_SIZE + " coupons");
+        }
+
+        Set<String> normalizedCodes = new HashSet<>();
+        for (String code : requestedCodes) {
+            String normalized = normalizeCodeOrNull(code);
+            if (normalized != null) {
+                normalizedCodes.add(normalized);
+            }
+        }
+
+        Set<UUID> parsedIds = new HashSet<>();
+        for (String id : requestedIds) {
+            UUID uuid = parseUuidOrNull(id);
+            if (uuid != null) {
+                parsedIds.add(uuid);
+            }
+        }
+
+        List<String> keys = new ArrayList<>(normalizedCodes);
+        parsedIds.forEach(uuid -> keys.add(uuid.toString()));
+
+        List<Coupon> found = readYourWrites.read(keys, () -> findByCodesAndIds(normalizedCodes, parsedIds));
+
+        Map<String, Coupon> byCode = new HashMap<>();
+        Map<UUID, Coupon> byId = new HashMap<>();
+        for (Coupon coupon : found) {
+            if (normalizedCodes.contains(coupon.getCode())) {
+                byCode.merge(coupon.getCode(), coupon, CouponService::preferredForCode);
+            }
+            if (parsedIds.contains(coupon.getId())) {
+                byId.put(coupon.getId(), coupon);
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<CouponLookupResult> results = new ArrayList<>(requestedCodes.size() + requestedIds.size());
+
+        for (String code : requestedCodes) {
+            String normalized = normalizeCodeOrNull(code);
+            if (normalized == null) {
+                results.add(new CouponLookupResult(code, null, "Coupon code must contain exactly 6 alphanumeric characters"));
+                continue;
+            }
+            results.add(lookupResult(code, byCode.get(normalized), now));
+        }
+
+        for (String id : requestedIds) {
+            UUID uuid = parseUuidOrNull(id);
+            if (uuid == null) {
+                results.add(new CouponLookupResult(id, null, "Invalid coupon ID format"));
+                continue;
+            }
+            results.add(lookupResult(id, byId.get(uuid), now));
+        }
+
+        return results;
+    }
+
+    private List<Coupon> findByCodesAndIds(Set<String> codes, Set<UUID> ids) {
+
+        List<List<String>> codesByShard = byShard(codes, couponShards::forCode);
+        List<List<UUID>> idsByShard = byShard(ids, couponShards::forId);
+
+        List<Coupon> found = new ArrayList<>();
+        couponShards.fanOut(true, shard -> findOnShard(codesByShard.get(shard), idsByShard.get(shard)))
+                .forEach(found::addAll);
+        return found;
+    }
+
+    private List<Coupon> findOnShard(List<String> codes, List<UUID> ids) {
+
+        List<Coupon> coupons = new ArrayList<>();
+        if (!codes.isEmpty()) {
+            coupons.addAll(couponStore.findByCodeIn(codes));
+        }
+        if (!ids.isEmpty()) {
+            coupons.addAll(couponStore.findAllById(ids));
+        }
+        coupons.addAll(findArchivedMisses(coupons, codes, ids));
+        return coupons;
+    }
+
+    private List<Coupon> findArchivedMisses(List<Coupon> found, Collection<String> codes, Collection<UUID> ids) {
+
+        Set<String> missingCodes = new HashSet<>(codes);
+        Set<UUID> missingIds = new HashSet<>(ids);
+        for (Coupon coupon : found) {
+            missingCodes.remove(coupon.getCode());
+            missingIds.remove(coupon.getId());
+        }
+
+        List<Coupon> archived = new ArrayList<>();
+        if (!missingCodes.isEmpty()) {
+            couponArchiveRepository.findByCodeIn(missingCodes).forEach(coupon -> archived.add(coupon.toCoupon()));
+        }
+        if (!missingIds.isEmpty()) {
+            couponArchiveRepository.findAllById(missingIds).forEach(coupon -> archived.add(coupon.toCoupon()));
+        }
+        return archived;
+    }
+
+    /**
+     * Prices each cart with its coupons applied. Every distinct code in the batch is resolved and
+     * checked once, then the carts are priced in integer cents: a cart amount with more than two
+     * decimal places is rejected rather than rounded, coupons apply in request order, each one
+     * capped at what is left of the cart so the total never goes below zero, and a code repeated
+     * in the same cart applies once. Quoting does not redeem anything.
+     */
+    @Transactional(readOnly = true)
+    public List<CouponQuoteResult> quote(List<CouponQuoteCartRequest> carts) {
+
+        List<CouponQuoteCartRequest> requested = carts == null ? List.of() : carts;
+
+        if (requested.size() > MAX_BATCH_SIZE) {
+            throw new DomainException("A quote cannot contain more than " + MAX_BATCH_SIZE + " carts");
+        }
+
+        int size = requested.size();
+        long[] amounts = new long[size];
+        long[][] packedCodes = new long[size][];
+        List<List<String>> errors = new ArrayList<>(Collections.nCopies(size, List.of()));
+        LongIntHashMap slots = new LongIntHashMap();
+        List<String> distinctCodes = new ArrayList<>();
+
+        for (int i = 0; i < size; i++) {
+            CouponQuoteCartRequest cart = requested.get(i);
+            List<String> cartErrors = cartErrors(cart);
+
+            if (!cartErrors.isEmpty()) {
+                errors.set(i, cartErrors);
+                continue;
+            }
+
+            amounts[i] = Cents.of(cart.amount());
+            List<String> codes = cart.codes() == null ? List.of() : cart.codes();
+            packedCodes[i] = new long[codes.size()];
+
+            for (int j = 0; j < codes.size(); j++) {
+                String normalized = normalizeCodeOrNull(codes.get(j));
+                long packed = CouponCode.pack(normalized);
+                packedCodes[i][j] = packed;
+
+                if (packed != CouponCode.INVALID && slots.get(packed) == LongIntHashMap.MISSING) {
+                    slots.put(packed, distinctCodes.size());
+                    distinctCodes.add(normalized);
+                }
+            }
+        }
+
+        if (distinctCodes.size() > MAX_QUOTE_CODES) {
+            throw new DomainException("A quote cannot reference more than " + MAX_QUOTE_CODES + " distinct coupons");
+        }
+
+        Map<String, Coupon> byCode = findByCodes(distinctCodes);
+        LocalDateTime now = LocalDateTime.now();
+        long[] discounts = new long[distinctCodes.size()];
+        String[] reasons = new String[distinctCodes.size()];
+
+        for (int slot = 0; slot < distinctCodes.size(); slot++) {
+            Coupon coupon = byCode.get(distinctCodes.get(slot));
+            reasons[slot] = coupon == null ? "Coupon not found" : invalidReason(coupon, now);
+            discounts[slot] = coupon == null ? 0 : Cents.of(coupon.getDiscountValue());
+        }
+
+        List<CouponQuoteResult> results = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++) {
+            if (packedCodes[i] == null) {
+                results.add(new CouponQuoteResult(i, 0, 0, List.of(), errors.get(i)));
+                continue;
+            }
+
+            List<String> codes = requested.get(i).codes();
+            long[] packed = packedCodes[i];
+            List<CouponQuoteLine> lines = new ArrayList<>(packed.length);
+            long remaining = amounts[i];
+
+            for (int j = 0; j < packed.length; j++) {
+                String reason;
+                long discount = 0;
+
+                if (packed[j] == CouponCode.INVALID) {
+                    reason = "Coupon code must contain exactly 6 alphanumeric characters";
+                } else if (appliedEarlier(packed, j)) {
+                    reason = "Coupon already applied to this cart";
+                } else {
+                    int slot = slots.get(packed[j]);
+                    reason = reasons[slot];
+                    if (reason == null) {
+                        discount = Math.min(discounts[slot], remaining);
+                        remaining -= discount;
+                    }
+                }
+
+                lines.add(new CouponQuoteLine(codes.get(j), discount, reason));
+            }
+
+            results.add(new CouponQuoteResult(i, amounts[i], amounts[i] - remaining, lines, List.of()));
+        }
+
+        log.info("Quoted {} carts with {} distinct coupons", size, distinctCodes.size());
+        return results;
+    }
+
+    private static List<String> cartErrors(CouponQuoteCartRequest cart) {
+
+        if (cart == null) {
+            return List.of("Cart is required");
+        }
+
+        List<String> errors = new ArrayList<>(2);
+
+        if (cart.amount() == null) {
+            errors.add("Amount is required");
+        } else if (cart.amount().signum() < 0) {
+            errors.add("Amount must not be negative");
+        } else {
+            try {
+                Cents.of(cart.amount());
+            } catch (ArithmeticException e) {
+                errors.add("Amount must be in whole cents and within range");
+            }
+        }
+
+        if (cart.codes() != null && cart.codes().size() > MAX_CART_COUPONS) {
+            errors.add("A cart cannot have more than " + MAX_CART_COUPONS + " coupons");
+        }
+
+        return errors;
+    }
+
+    private static boolean appliedEarlier(long[] packed, int index) {
+
+        for (int k = 0; k < index; k++) {
+            if (packed[k] == packed[index]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Map<String, Coupon> findByCodes(List<String> codes) {
+
+        if (codes.isEmpty()) {
+            return Map.of();
+        }
+
+        Set<String> requested = new HashSet<>(codes);
+        List<Coupon> found = readYourWrites.read(codes, () -> findByCodesAndIds(requested, Set.of()));
+
+        Map<String, Coupon> byCode = new HashMap<>();
+        for (Coupon coupon : found) {
+            byCode.merge(coupon.getCode(), coupon, CouponService::preferredForCode);
+        }
+        return byCode;
+    }
+
+    private static CouponLookupResult lookupResult(String key, Coupon coupon, LocalDateTime now) {
+
+        if (coupon == null) {
+            return new CouponLookupResult(key, null, "Coupon not found");
+        }
+
+        return new CouponLookupResult(key, coupon, invalidReason(coupon, now));
+    }
+
+    // A code may have been reused after its coupon was deleted: the ACTIVE row wins, then the latest to expire
+    private static Coupon preferredForCode(Coupon current, Coupon candidate) {
+
+        if (current.getStatus() == CouponStatus.ACTIVE) {
+            return current;
+        }
+        if (candidate.getStatus() == CouponStatus.ACTIVE) {
+            return candidate;
+        }
+        return candidate.getExpirationDate().isAfter(current.getExpirationDate()) ? candidate : current;
+    }
+
+    private static String normalizeCodeOrNull(String code) {
+        String normalized = code == null ? null : replaceCode(code);
+        return normalized != null && normalized.length() == 6 ? normalized : null;
+    }
+
+    private static UUID parseUuidOrNull(String id) {
+        try {
+            return id == null ? null : UUID.fromString(id);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    @Transactional
+    public Coupon redeem(String id) {
+
+        return redeem(parseIdStringToUuid(id));
+    }
+
+    @Transactional
+    public Coupon redeemByCode(String code) {
+
+        String normalized = replaceCode(code);
+
+        return couponShards.on(couponShards.forCode(normalized), () -> {
+            Coupon coupon = couponStore.findByCodeAndStatus(normalized, CouponStatus.ACTIVE).orElseThrow(() ->
+                    new DomainNotFoundException("Coupon not found")
+            );
+
+            return redeem(coupon.getId());
+        });
+    }
+
+    private Coupon redeem(UUID id) {
+
+        return couponShards.on(couponShards.forId(id), () -> redeemOnShard(id));
+    }
+
+    private Coupon redeemOnShard(UUID id) {
+
+        LocalDateTime now = LocalDateTime.now();
+        int updated = couponStore.redeemById(id, now);
+        couponCache.invalidate(id);
+
+        Coupon coupon = findLiveOrArchived(id).orElseThrow(() ->
                 new DomainNotFoundException("Coupon not found")
         );
+
+        if (updated == 0) {
+            throw new CouponNotRedeemableException(invalidReason(coupon, now));
+        }
+
+        readYourWrites.written(coupon.getId(), coupon.getCode());
+
+        log.info("Coupon with id={} was successfully redeemed", coupon.getId());
+        return coupon;
+    }
+
+    private static String invalidReason(Coupon coupon, LocalDateTime now) {
+
+        if (coupon.getRedeemed()) {
+            return "Coupon has already been redeemed";
+        }
+        if (coupon.getStatus() != CouponStatus.ACTIVE) {
+            return "Only active coupons can be redeemed";
+        }
+        if (!coupon.getExpirationDate().isAfter(now)) {
+            return "Coupon has expired";
+        }
+        return null;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,15 @@
+package com.challenge.coupon.service.coupon;
+
+import com.challenge.coupon.domain.entity.coupon.Coupon;
+
+import java.util.List;
+
+public record CouponValidation(
+        Coupon coupon,
+        List<String> errors
+) {
+
+    public boolean valid() {
+        return errors.isEmpty();
+    }
+}
@@ -0,0 +1,96 @@
+package com.challenge.coupon.service.coupon;
+
+import com.challenge.coupon.controller.api.CouponResponse;
+import com.challenge.coupon.domain.entity.coupon.Coupon;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Encoded {@link CouponResponse} bytes per coupon id, version and format, so repeated reads of an
+ * unchanged coupon skip the mapping and serialization entirely. Every write bumps the version, so
+ * an entry is never stale, only no longer asked for. Bounded by total encoded size and published
+ * as {@code cache.*} metrics tagged {@code cache=coupon-encoded}.
+ */
+@Component
+public class EncodedCouponCache {
+
+    private final Map<MediaType, ObjectWriter> writers;
+    private final Cache<Key, byte[]> cache;
+
+    public EncodedCouponCache(
+            ObjectMapper objectMapper,
+            MappingJackson2CborHttpMessageConverter cborConverter,
+            MeterRegistry meterRegistry,
+            @Value("${coupon.encoded-cache.enabled:true}") boolean enabled,
+            @Value("${coupon.encoded-cache.maximum-size:64MB}") DataSize maximumSize,
+            @Value("${coupon.encoded-cache.ttl:10m}") Duration ttl
+    ) {
+        this.writers = Map.of(
+                MediaType.APPLICATION_JSON, objectMapper.writerFor(CouponResponse.class),
+                MediaType.APPLICATION_CBOR, cborConverter.getObjectMapper().writerFor(CouponResponse.class)
+        );
+
+        if (enabled) {
+            this.cache = Caffeine.newBuilder()
+                    .maximumWeight(maximumSize.toBytes())
+                    .<Key, byte[]>weigher((key, bytes) -> bytes.length)
+                    .expireAfterAccess(ttl)
+                    .recordStats()
+                    .build();
+
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, "coupon-encoded");
+        } else {
+            this.cache = null;
+        }
+    }
+
+    public byte[] encode(Coupon coupon, MediaType format) {
+
+        ObjectWriter writer = writers.get(format);
+
+        if (writer == null) {
+            throw new IllegalArgumentException("Unsupported coupon format " + format);
+        }
+
+        if (cache == null || coupon.getVersion() == null) {
+            return write(writer, coupon);
+        }
+
+        Key key = new Key(coupon.getId(), coupon.getVersion(), format);
+        byte[] encoded = cache.getIfPresent(key);
+
+        if (encoded == null) {
+            encoded = write(writer, coupon);
+            cache.put(key, encoded);
+        }
+
+        return encoded;
+    }
+
+    private static byte[] write(ObjectWriter writer, Coupon coupon) {
+
+        try {
+            return writer.writeValueAsBytes(CouponResponse.from(coupon));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record Key(UUID id, long version, MediaType format) {
+    }
+}
@@ -0,0 +1,181 @@
+package com.challenge.coupon.service.coupon;
+
+import com.challenge.coupon.controller.api.CouponCreateRequest;
+import com.challenge.coupon.domain.entity.coupon.Coupon;
+import com.challenge.coupon.domain.entity.coupon.ShardedUuidGenerator;
+import com.challenge.coupon.domain.entity.coupon.CouponStatus;
+import com.challenge.coupon.domain.entity.exception.DomainException;
+import com.challenge.coupon.domain.entity.exception.DomainNotFoundException;
+import com.challenge.coupon.domain.entity.exception.DuplicateCodeException;
+import com.challenge.coupon.domain.entity.outbox.CouponEventType;
+import io.r2dbc.spi.Readable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Non-blocking counterpart of {@link CouponService} for the reactive profile. Request
+ * validation and code normalization are the same static rules {@code CouponService} uses;
+ * persistence goes through R2DBC against the same schema, including the outbox.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveCouponService {
+
+    private static final String COLUMNS =
+            "id, code, description, discount_value, expiration_date, status, published, redeemed";
+    private static final String MARK_DELETED = " set status = 'DELETED', version = version + 1, updated_at = localtimestamp where id = :id";
+
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+    private final CouponCodeGenerator couponCodeGenerator;
+
+    public ReactiveCouponService(
+            DatabaseClient databaseClient,
+            TransactionalOperator transactionalOperator,
+            CouponCodeGenerator couponCodeGenerator
+    ) {
+        this.databaseClient = databaseClient;
+        this.transactionalOperator = transactionalOperator;
+        this.couponCodeGenerator = couponCodeGenerator;
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveCouponService.class);
+
+    public Mono<Coupon> create(CouponCreateRequest request) {
+
+        return Mono.fromCallable(() -> CouponService.toCoupon(request))
+                .flatMap(coupon -> existsActive(coupon.getCode())
+                        .flatMap(exists -> exists
+                                ? Mono.<Coupon>error(new DuplicateCodeException("Coupon code already exists"))
+                                : insert(coupon)))
+                .as(transactionalOperator::transactional)
+                .onErrorMap(DataIntegrityViolationException.class, e -> isActiveCodeViolation(e)
+                        ? new DuplicateCodeException("Coupon code already exists")
+                        : e)
+                .doOnNext(coupon -> couponCodeGenerator.markUsed(coupon.getCode()))
+                .doOnNext(coupon -> log.info(
+                        "Registered coupon with code={}, description={} and expirationDate={} successfully",
+                        coupon.getCode(), coupon.getDescription(), coupon.getExpirationDate()
+                ));
+    }
+
+    public Mono<Void> delete(String id) {
+
+        return Mono.fromCallable(() -> CouponService.parseIdStringToUuid(id))
+                .flatMap(this::findRow)
+                .switchIfEmpty(Mono.error(() -> new DomainNotFoundException("Coupon not found")))
+                .flatMap(coupon -> {
+                    if (coupon.getStatus() == CouponStatus.DELETED) {
+                        return Mono.error(new DomainException("You cannot delete a coupon that has already been deleted"));
+                    }
+
+                    // The row is in exactly one of the two tables; the other update matches nothing
+                    return databaseClient.sql("update coupon" + MARK_DELETED)
+                            .bind("id", coupon.getId())
+                            .fetch()
+                            .rowsUpdated()
+                            .then(databaseClient.sql("update coupon_archive" + MARK_DELETED)
+                                    .bind("id", coupon.getId())
+                                    .fetch()
+                                    .rowsUpdated())
+                            .then(recordEvent(CouponEventType.DELETED, coupon))
+                            .doOnSuccess(ignored -> log.info("Coupon with id={} was successfully deleted", coupon.getId()));
+                })
+                .as(transactionalOperator::transactional);
+    }
+
+    public Mono<Coupon> findById(String id) {
+
+        return Mono.fromCallable(() -> CouponService.parseIdStringToUuid(id))
+                .flatMap(this::findRow)
+                .switchIfEmpty(Mono.error(() -> new DomainNotFoundException("Coupon not found")));
+    }
+
+    private Mono<Boolean> existsActive(String code) {
+
+        return databaseClient.sql("select count(*) from coupon where code = :code and status = 'ACTIVE'")
+                .bind("code", code)
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .map(count -> count > 0);
+    }
+
+    private Mono<Coupon> insert(Coupon coupon) {
+
+        coupon.setId(ShardedUuidGenerator.newId(coupon.getCode()));
+
+        return databaseClient.sql("insert into coupon (" + COLUMNS + ") values "
+                        + "(:id, :code, :description, :discountValue, :expirationDate, :status, :published, :redeemed)")
+                .bind("id", coupon.getId())
+                .bind("code", coupon.getCode())
+                .bind("description", coupon.getDescription())
+                .bind("discountValue", coupon.getDiscountValue())
+                .bind("expirationDate", coupon.getExpirationDate())
+                .bind("status", coupon.getStatus().name())
+                .bind("published", coupon.getPublished())
+                .bind("redeemed", coupon.getRedeemed())
+                .fetch()
+                .rowsUpdated()
+                .then(recordEvent(CouponEventType.CREATED, coupon))
+                .thenReturn(coupon);
+    }
+
+    private Mono<Void> recordEvent(CouponEventType type, Coupon coupon) {
+
+        return databaseClient.sql("insert into coupon_event (id, type, coupon_id, code, occurred_at) "
+                        + "values (next value for coupon_event_seq, :type, :couponId, :code, :occurredAt)")
+                .bind("type", type.name())
+                .bind("couponId", coupon.getId())
+                .bind("code", coupon.getCode())
+                .bind("occurredAt", LocalDateTime.now())
+                .then();
+    }
+
+    private Mono<Coupon> findRow(UUID id) {
+
+        return findRow("coupon", id).switchIfEmpty(Mono.defer(() -> findRow("coupon_archive", id)));
+    }
+
+    private Mono<Coupon> findRow(String table, UUID id) {
+
+        return databaseClient.sql("select " + COLUMNS + ", version, updated_at from " + table + " where id = :id")
+                .bind("id", id)
+                .map(ReactiveCouponService::toCoupon)
+                .one();
+    }
+
+    private static Coupon toCoupon(Readable row) {
+
+        String status = row.get("status", String.class);
+
+        Coupon coupon = new Coupon(
+                row.get("id", UUID.class),
+                row.get("code", String.class),
+                row.get("description", String.class),
+                row.get("discount_value", BigDecimal.class),
+                row.get("expiration_date", LocalDateTime.class),
+                status == null ? null : CouponStatus.valueOf(status),
+                row.get("published", Boolean.class),
+                row.get("redeemed", Boolean.class)
+        );
+        coupon.setVersion(row.get("version", Long.class));
+        coupon.setUpdatedAt(row.get("updated_at", LocalDateTime.class));
+        return coupon;
+    }
+
+    private static boolean isActiveCodeViolation(DataIntegrityViolationException e) {
+
+        String message = e.getMessage();
+        return message != null && message.toLowerCase().contains("uk_coupon_active_code");
+    }
+}
@@ -0,0 +1,150 @@
+package com.challenge.coupon.service.outbox;
+
+import com.challenge.coupon.config.datasource.CouponShards;
+import com.challenge.coupon.domain.entity.outbox.CouponEvent;
+import com.challenge.coupon.repository.CouponEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the outbox into the {@link CouponEventSink}, oldest event first, one batch at a time.
+ * The relay pulls, so a slow sink simply leaves events waiting in the table; after a sink
+ * failure it backs off exponentially. Published rows are deleted by id rather than behind a
+ * position, so a transaction that commits after newer events were relayed is still picked up
+ * by the next batch, just out of order. Only events older than the settle delay are read,
+ * which keeps such late commits rare. An event for a coupon is only written once its previous
+ * event has committed, so with node clocks in step order always holds per coupon. Delivery
+ * is at least once: a crash between publish and delete publishes the batch again. Runs only
+ * once {@code coupon.outbox.sink} names a sink; until then events wait in the outbox.
+ */
+@Component
+@ConditionalOnProperty(name = "coupon.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+@ConditionalOnProperty("coupon.outbox.sink")
+public class CouponEventRelay {
+
+    private final CouponEventRepository couponEventRepository;
+    private final CouponEventSink sink;
+    private final CouponShards couponShards;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Duration settleDelay;
+    private final Duration maxBackoff;
+
+    private final Counter published;
+    private final Counter failures;
+    private final Timer publishTimer;
+    private final AtomicLong pending = new AtomicLong();
+
+    private Duration backoff = Duration.ZERO;
+    private long retryAtNanos;
+
+    public CouponEventRelay(
+            CouponEventRepository couponEventRepository,
+            CouponEventSink sink,
+            CouponShards couponShards,
+            MeterRegistry meterRegistry,
+            @Value("${coupon.outbox.batch-size:1000}") int batchSize,
+            @Value("${coupon.outbox.max-batches-per-run:50}") int maxBatchesPerRun,
+            @Value("${coupon.outbox.settle-delay:2s}") Duration settleDelay,
+            @Value("${coupon.outbox.max-backoff:1m}") Duration maxBackoff
+    ) {
+        this.couponEventRepository = couponEventRepository;
+        this.sink = sink;
+        this.couponShards = couponShards;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.settleDelay = settleDelay;
+        this.maxBackoff = maxBackoff;
+
+        this.published = Counter.builder("coupon.outbox.published").register(meterRegistry);
+        this.failures = Counter.builder("coupon.outbox.failures").register(meterRegistry);
+        this.publishTimer = Timer.builder("coupon.outbox.publish")
+                .description("Time the sink takes to accept one batch")
+                .register(meterRegistry);
+        Gauge.builder("coupon.outbox.pending", pending, AtomicLong::get)
+                .description("Events written but not yet acknowledged by the sink")
+                .register(meterRegistry);
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(CouponEventRelay.class);
+
+    @Scheduled(fixedDelayString = "${coupon.outbox.poll-interval:500ms}")
+    public void relay() {
+
+        if (System.nanoTime() < retryAtNanos) {
+            return;
+        }
+
+        couponShards.forEach(shard -> {
+            if (System.nanoTime() >= retryAtNanos) {
+                relayShard();
+            }
+        });
+    }
+
+    // A full count of every outbox, so it runs on the coupon count schedule rather than on every poll
+    @Scheduled(fixedDelayString = "${coupon.metrics.count-refresh:30s}")
+    public void refreshPending() {
+
+        long[] behind = new long[1];
+        couponShards.forEach(shard -> behind[0] += couponEventRepository.count());
+        pending.set(behind[0]);
+    }
+
+    // Each shard has its own outbox
+    private void relayShard() {
+
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            List<CouponEvent> events = couponEventRepository.findBatch(
+                    LocalDateTime.now().minus(settleDelay), Limit.of(batchSize)
+            );
+
+            if (events.isEmpty()) {
+                break;
+            }
+
+            try {
+                publishTimer.recordCallable(() -> {
+                    sink.publish(events);
+                    return null;
+                });
+            } catch (Exception e) {
+                failures.increment();
+                backOff(e);
+                break;
+            }
+
+            couponEventRepository.deleteAllByIdInBatch(events.stream().map(CouponEvent::getId).toList());
+            published.increment(events.size());
+            backoff = Duration.ZERO;
+
+            if (events.size() < batchSize) {
+                break;
+            }
+        }
+    }
+
+    private void backOff(Exception e) {
+        backoff = backoff.isZero() ? Duration.ofSeconds(1) : backoff.multipliedBy(2);
+        if (backoff.compareTo(maxBackoff) > 0) {
+            backoff = maxBackoff;
+        }
+        retryAtNanos = System.nanoTime() + backoff.toNanos();
+
+        log.warn("Coupon event sink failed, retrying in {}", backoff, e);
+    }
+}
@@ -0,0 +1,15 @@
+package com.challenge.coupon.service.outbox;
+
+import com.challenge.coupon.domain.entity.outbox.CouponEvent;
+
+import java.util.List;
+
+/**
+ * Destination of the outbox relay. Delivery is at-least-once: a batch is re-sent if the
+ * relay stops between publishing it and acknowledging it, so sinks should be idempotent on
+ * {@link CouponEvent#getId()}.
+ */
+public interface CouponEventSink {
+
+    void publish(List<CouponEvent> events) throws Exception;
+}
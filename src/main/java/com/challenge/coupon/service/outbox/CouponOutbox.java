@@ -0,0 +1,37 @@
+package com.challenge.coupon.service.outbox;
+
+import com.challenge.coupon.domain.entity.coupon.Coupon;
+import com.challenge.coupon.domain.entity.outbox.CouponEvent;
+import com.challenge.coupon.domain.entity.outbox.CouponEventType;
+import com.challenge.coupon.repository.CouponEventRepository;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Writes coupon lifecycle events to the outbox table. Callers must already be in the
+ * transaction that changes the coupon, so the event commits (or rolls back) with it.
+ */
+@Component
+public class CouponOutbox {
+
+    private final CouponEventRepository couponEventRepository;
+
+    public CouponOutbox(CouponEventRepository couponEventRepository) {
+        this.couponEventRepository = couponEventRepository;
+    }
+
+    public void record(CouponEventType type, Coupon coupon) {
+        couponEventRepository.save(toEvent(type, coupon, LocalDateTime.now()));
+    }
+
+    public void recordAll(CouponEventType type, Collection<Coupon> coupons) {
+        LocalDateTime now = LocalDateTime.now();
+        couponEventRepository.saveAll(coupons.stream().map(coupon -> toEvent(type, coupon, now)).toList());
+    }
+
+    private static CouponEvent toEvent(CouponEventType type, Coupon coupon, LocalDateTime occurredAt) {
+        return new CouponEvent(type, coupon.getId(), coupon.getCode(), occurredAt);
+    }
+}
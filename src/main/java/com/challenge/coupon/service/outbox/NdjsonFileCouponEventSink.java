@@ -0,0 +1,69 @@
+package com.challenge.coupon.service.outbox;
+
+import com.challenge.coupon.domain.entity.outbox.CouponEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends events as NDJSON to a local file, one fsync per batch, with no rotation. Meant for
+ * tests and local runs, so only active with {@code coupon.outbox.sink=file}; production
+ * deployments plug in a broker-backed {@link CouponEventSink}.
+ */
+@Component
+@ConditionalOnProperty(name = "coupon.outbox.sink", havingValue = "file")
+public class NdjsonFileCouponEventSink implements CouponEventSink {
+
+    private static final byte NEWLINE = '\n';
+
+    private final Path file;
+    private final ObjectWriter writer;
+
+    public NdjsonFileCouponEventSink(
+            @Value("${coupon.outbox.file:${java.io.tmpdir}/coupon-events.ndjson}") Path file,
+            ObjectMapper objectMapper
+    ) {
+        this.file = file;
+        this.writer = objectMapper.writerFor(Message.class);
+    }
+
+    @Override
+    public void publish(List<CouponEvent> events) throws IOException {
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+             OutputStream output = new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024)) {
+
+            for (CouponEvent event : events) {
+                output.write(writer.writeValueAsBytes(Message.from(event)));
+                output.write(NEWLINE);
+            }
+
+            output.flush();
+            channel.force(false);
+        }
+    }
+
+    record Message(long id, String type, String couponId, String code, String occurredAt) {
+
+        static Message from(CouponEvent event) {
+            return new Message(
+                    event.getId(),
+                    event.getType().name(),
+                    event.getCouponId().toString(),
+                    event.getCode(),
+                    event.getOccurredAt().toString()
+            );
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.challenge.coupon.support;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A concurrency limit that follows latency, AIMD style. A short moving average of latency (about
+ * 10 samples) is compared with a long one (about 500) that stands for the latency when not
+ * overloaded. While the short one stays within {@code tolerance} times the long one, the limit
+ * grows by one per limit's worth of samples, and only while at least half of it is in use, so a
+ * quiet period cannot inflate it. Beyond that the limit is cut by 10%, at most once per round
+ * trip: samples that started before the last cut were admitted under the old limit and say
+ * nothing about the new one. The long average only learns while the short one is at or below
+ * it, so it does not chase the queueing it is meant to detect; while overloaded it creeps up
+ * instead, to accept a lasting slowdown after several thousand samples. Acquiring is a CAS on
+ * the in-flight count and never waits.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private static final double SHORT_ALPHA = 2.0 / (10 + 1);
+    private static final double LONG_ALPHA = 2.0 / (500 + 1);
+    private static final double LONG_DRIFT = 1.0001;
+    private static final double BACKOFF = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+
+    // Guarded by this
+    private double estimate;
+    private double shortLatency;
+    private double longLatency;
+    private long lastDecreaseNanos = Long.MIN_VALUE;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double tolerance) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit || tolerance < 1) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= initial <= max and tolerance >= 1");
+        }
+
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.limit = initialLimit;
+        this.estimate = initialLimit;
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // Releases a permit taken by tryAcquire, with the latency of the work it admitted
+    public void release(long latencyNanos) {
+        int inUse = inFlight.getAndDecrement();
+        sample(latencyNanos, inUse, System.nanoTime());
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void sample(long latencyNanos, int inUse, long now) {
+        double latency = Math.max(1, latencyNanos);
+
+        if (longLatency == 0) {
+            shortLatency = latency;
+            longLatency = latency;
+            return;
+        }
+
+        shortLatency += (latency - shortLatency) * SHORT_ALPHA;
+
+        if (shortLatency > tolerance * longLatency) {
+            longLatency *= LONG_DRIFT;
+
+            if (now - latencyNanos > lastDecreaseNanos) {
+                estimate = Math.max(minLimit, estimate * BACKOFF);
+                lastDecreaseNanos = now;
+            }
+        } else {
+            if (shortLatency <= longLatency) {
+                longLatency += (latency - longLatency) * LONG_ALPHA;
+            }
+
+            if (inUse >= estimate / 2) {
+                estimate = Math.min(maxLimit, estimate + 1 / estimate);
+            }
+        }
+
+        limit = (int) estimate;
+    }
+}
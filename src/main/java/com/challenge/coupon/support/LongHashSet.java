@@ -0,0 +1,130 @@
+package com.challenge.coupon.support;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing set of primitive longs. Not thread-safe; callers guard it.
+ * {@code Long.MIN_VALUE} is reserved as the empty-slot marker.
+ */
+public class LongHashSet {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final long REMOVED = Long.MIN_VALUE + 1;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] slots;
+    private int size;
+    private int used;
+
+    public LongHashSet(int expectedSize) {
+        this.slots = newTable(tableSizeFor(expectedSize));
+    }
+
+    public LongHashSet() {
+        this(16);
+    }
+
+    public boolean contains(long value) {
+        checkKey(value);
+        return slots[indexOf(slots, value)] == value;
+    }
+
+    public boolean add(long value) {
+        checkKey(value);
+        int index = indexOf(slots, value);
+
+        if (slots[index] == value) {
+            return false;
+        }
+
+        int free = firstFree(slots, value);
+        if (slots[free] == EMPTY) {
+            used++;
+        }
+        slots[free] = value;
+        size++;
+
+        if (used > slots.length * LOAD_FACTOR) {
+            rehash(tableSizeFor(size * 2));
+        }
+        return true;
+    }
+
+    public boolean remove(long value) {
+        checkKey(value);
+        int index = indexOf(slots, value);
+
+        if (slots[index] != value) {
+            return false;
+        }
+
+        slots[index] = REMOVED;
+        size--;
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(slots, EMPTY);
+        size = 0;
+        used = 0;
+    }
+
+    private void rehash(int capacity) {
+        long[] old = slots;
+        slots = newTable(capacity);
+        used = 0;
+
+        for (long value : old) {
+            if (value != EMPTY && value != REMOVED) {
+                slots[firstFree(slots, value)] = value;
+                used++;
+            }
+        }
+    }
+
+    private static int indexOf(long[] table, long value) {
+        int mask = table.length - 1;
+        int index = mix(value) & mask;
+
+        while (table[index] != EMPTY && table[index] != value) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private static int firstFree(long[] table, long value) {
+        int mask = table.length - 1;
+        int index = mix(value) & mask;
+
+        while (table[index] != EMPTY && table[index] != REMOVED) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private static int mix(long value) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        return Math.max(16, capacity);
+    }
+
+    private static long[] newTable(int capacity) {
+        long[] table = new long[capacity];
+        Arrays.fill(table, EMPTY);
+        return table;
+    }
+
+    private static void checkKey(long value) {
+        if (value == EMPTY || value == REMOVED) {
+            throw new IllegalArgumentException("Reserved value: " + value);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.challenge.coupon.support;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from primitive longs to non-negative ints. Not thread-safe; callers
+ * guard it. {@code Long.MIN_VALUE} and {@code Long.MIN_VALUE + 1} are reserved keys.
+ */
+public class LongIntHashMap {
+
+    public static final int MISSING = -1;
+
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final long REMOVED = Long.MIN_VALUE + 1;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+    private int used;
+
+    public LongIntHashMap(int expectedSize) {
+        int capacity = tableSizeFor(expectedSize);
+        this.keys = newKeys(capacity);
+        this.values = new int[capacity];
+    }
+
+    public LongIntHashMap() {
+        this(16);
+    }
+
+    /**
+     * Returns the value mapped to {@code key}, or {@link #MISSING}.
+     */
+    public int get(long key) {
+        checkKey(key);
+        int index = indexOf(keys, key);
+        return keys[index] == key ? values[index] : MISSING;
+    }
+
+    /**
+     * Maps {@code key} to {@code value} and returns the previous value, or {@link #MISSING}.
+     */
+    public int put(long key, int value) {
+        checkKey(key);
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative value: " + value);
+        }
+
+        int index = indexOf(keys, key);
+        if (keys[index] == key) {
+            int previous = values[index];
+            values[index] = value;
+            return previous;
+        }
+
+        int free = firstFree(keys, key);
+        if (keys[free] == EMPTY) {
+            used++;
+        }
+        keys[free] = key;
+        values[free] = value;
+        size++;
+
+        if (used > keys.length * LOAD_FACTOR) {
+            rehash(tableSizeFor(size * 2));
+        }
+        return MISSING;
+    }
+
+    /**
+     * Removes {@code key} and returns its value, or {@link #MISSING}.
+     */
+    public int remove(long key) {
+        checkKey(key);
+        int index = indexOf(keys, key);
+
+        if (keys[index] != key) {
+            return MISSING;
+        }
+
+        keys[index] = REMOVED;
+        size--;
+        return values[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = newKeys(capacity);
+        values = new int[capacity];
+        used = 0;
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key != EMPTY && key != REMOVED) {
+                int free = firstFree(keys, key);
+                keys[free] = key;
+                values[free] = oldValues[i];
+                used++;
+            }
+        }
+    }
+
+    private static int indexOf(long[] table, long key) {
+        int mask = table.length - 1;
+        int index = mix(key) & mask;
+
+        while (table[index] != EMPTY && table[index] != key) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private static int firstFree(long[] table, long key) {
+        int mask = table.length - 1;
+        int index = mix(key) & mask;
+
+        while (table[index] != EMPTY && table[index] != REMOVED) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        return Math.max(16, capacity);
+    }
+
+    private static long[] newKeys(int capacity) {
+        long[] table = new long[capacity];
+        Arrays.fill(table, EMPTY);
+        return table;
+    }
+
+    private static void checkKey(long key) {
+        if (key == EMPTY || key == REMOVED) {
+            throw new IllegalArgumentException("Reserved key: " + key);
+        }
+    }
+}
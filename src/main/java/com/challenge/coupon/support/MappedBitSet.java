@@ -0,0 +1,150 @@
+package com.challenge.coupon.support;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Fixed-size bit set backed by a memory-mapped file, so large sets live outside the heap
+ * and only the pages actually touched are resident. A new file starts empty; an existing one
+ * is counted on the first {@link #cardinality()} call, so opening it reads nothing. Not
+ * thread-safe; callers guard it. Limited to {@code 8 * Integer.MAX_VALUE} bits by the single mapping.
+ */
+public class MappedBitSet implements AutoCloseable {
+
+    private final Path file;
+    private final boolean temporary;
+    private final long size;
+    private final MappedByteBuffer words;
+    // -1 until an existing file has been counted
+    private long cardinality;
+
+    private MappedBitSet(Path file, boolean temporary, long size) {
+        if (size <= 0 || wordCount(size) * Long.BYTES > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Unsupported bit set size: " + size);
+        }
+
+        this.file = file;
+        this.temporary = temporary;
+        this.size = size;
+
+        long bytes = wordCount(size) * Long.BYTES;
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            this.cardinality = raf.length() == 0 ? 0 : -1;
+            if (raf.length() != bytes) {
+                raf.setLength(bytes);
+            }
+            this.words = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not map bit set file " + file, e);
+        }
+    }
+
+    /**
+     * Maps {@code file}, creating it if needed; bits already set in it are kept.
+     */
+    public static MappedBitSet open(Path file, long size) {
+        return new MappedBitSet(file, false, size);
+    }
+
+    /**
+     * Maps a fresh temporary file that is deleted on {@link #close()}.
+     */
+    public static MappedBitSet temporary(long size) {
+        try {
+            return new MappedBitSet(Files.createTempFile("bitset-", ".bin"), true, size);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create bit set file", e);
+        }
+    }
+
+    public boolean get(long bit) {
+        checkBit(bit);
+        return (words.getLong(offset(bit >>> 6)) & (1L << bit)) != 0;
+    }
+
+    /**
+     * Sets {@code bit} and returns whether it was clear before.
+     */
+    public boolean set(long bit) {
+        checkBit(bit);
+        int offset = offset(bit >>> 6);
+        long word = words.getLong(offset);
+        long mask = 1L << bit;
+
+        if ((word & mask) != 0) {
+            return false;
+        }
+
+        words.putLong(offset, word | mask);
+        if (cardinality >= 0) {
+            cardinality++;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the first clear bit at or after {@code from}, or -1 if there is none.
+     */
+    public long nextClearBit(long from) {
+        checkBit(from);
+        long word = from >>> 6;
+        long inverted = ~words.getLong(offset(word)) & (-1L << from);
+        long count = wordCount(size);
+
+        while (inverted == 0) {
+            if (++word == count) {
+                return -1;
+            }
+            inverted = ~words.getLong(offset(word));
+        }
+
+        long bit = (word << 6) + Long.numberOfTrailingZeros(inverted);
+        return bit < size ? bit : -1;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public long cardinality() {
+        if (cardinality < 0) {
+            long count = 0;
+            for (long word = 0, last = wordCount(size); word < last; word++) {
+                count += Long.bitCount(words.getLong(offset(word)));
+            }
+            cardinality = count;
+        }
+        return cardinality;
+    }
+
+    @Override
+    public void close() {
+        words.force();
+        if (temporary) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not delete bit set file " + file, e);
+            }
+        }
+    }
+
+    private void checkBit(long bit) {
+        if (bit < 0 || bit >= size) {
+            throw new IndexOutOfBoundsException("Bit out of range: " + bit);
+        }
+    }
+
+    private static long wordCount(long size) {
+        return (size + 63) >>> 6;
+    }
+
+    private static int offset(long word) {
+        return (int) (word * Long.BYTES);
+    }
+}
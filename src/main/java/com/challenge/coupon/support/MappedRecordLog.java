@@ -0,0 +1,213 @@
+package com.challenge.coupon.support;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of records in a memory-mapped file. Each record is an {@code int} payload
+ * length, the payload's CRC32C and the payload, padded to 8 bytes, and is addressed by its
+ * offset. Opening a file replays it up to the first record that is missing or fails its
+ * checksum, a write torn by a crash, and zeroes everything after it, so appends continue from
+ * the last intact record and pages flushed out of order cannot resurface later. The file doubles when full, up to the 2 GB a single mapping holds.
+ * Not thread-safe; callers guard it.
+ */
+public class MappedRecordLog implements AutoCloseable {
+
+    private static final int HEADER = 2 * Integer.BYTES;
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE & ~7;
+
+    private Path file;
+    private final RandomAccessFile raf;
+    private MappedByteBuffer buffer;
+    private int capacity;
+    private int end;
+    private boolean tornTail;
+
+    private MappedRecordLog(Path file, int initialSize, Visitor visitor) {
+        if (initialSize < HEADER || initialSize > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Unsupported log size: " + initialSize);
+        }
+
+        this.file = file;
+
+        try {
+            this.raf = new RandomAccessFile(file.toFile(), "rw");
+            long length = raf.length();
+            if (length > MAX_CAPACITY) {
+                throw new IllegalStateException("Log file " + file + " is larger than a single mapping");
+            }
+            map(Math.max(align((int) length), align(initialSize)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not map log file " + file, e);
+        }
+
+        this.end = replay(0, visitor);
+        for (int offset = end; offset < capacity; offset += Long.BYTES) {
+            if (buffer.getLong(offset) != 0) {
+                buffer.putLong(offset, 0);
+                tornTail = true;
+            }
+        }
+    }
+
+    /**
+     * Maps {@code file}, creating it if needed, and passes every intact record to {@code visitor}
+     * in append order.
+     */
+    public static MappedRecordLog open(Path file, int initialSize, Visitor visitor) {
+        return new MappedRecordLog(file, initialSize, visitor);
+    }
+
+    /**
+     * Appends {@code payload}, from its position to its limit, and returns the record's offset.
+     */
+    public int append(ByteBuffer payload) {
+        int length = payload.remaining();
+        if (length == 0) {
+            throw new IllegalArgumentException("Empty record");
+        }
+
+        int offset = end;
+        int size = recordSize(length);
+        if ((long) offset + size > MAX_CAPACITY) {
+            throw new IllegalStateException("Log file " + file + " is full");
+        }
+        if (offset + size > capacity) {
+            grow(offset + size);
+        }
+
+        CRC32C crc = new CRC32C();
+        crc.update(payload.duplicate());
+
+        buffer.put(offset + HEADER, payload.duplicate(), payload.position(), length);
+        buffer.putInt(offset + Integer.BYTES, (int) crc.getValue());
+        buffer.putInt(offset, length);
+        end = offset + size;
+        return offset;
+    }
+
+    /**
+     * Returns a read-only view of the payload of the record at {@code offset}.
+     */
+    public ByteBuffer read(int offset) {
+        return buffer.slice(offset + HEADER, buffer.getInt(offset)).asReadOnlyBuffer();
+    }
+
+    /**
+     * Returns the bytes the record at {@code offset} takes in the file, header and padding included.
+     */
+    public int sizeAt(int offset) {
+        return recordSize(buffer.getInt(offset));
+    }
+
+    /**
+     * Passes the intact records from {@code from} onwards to {@code visitor} and returns the
+     * offset after the last one.
+     */
+    public int replay(int from, Visitor visitor) {
+        int offset = from;
+
+        while (offset + HEADER <= capacity) {
+            int length = buffer.getInt(offset);
+            if (length <= 0 || length > capacity - offset - HEADER) {
+                break;
+            }
+
+            ByteBuffer payload = buffer.slice(offset + HEADER, length).asReadOnlyBuffer();
+            CRC32C crc = new CRC32C();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != buffer.getInt(offset + Integer.BYTES)) {
+                break;
+            }
+
+            visitor.record(offset, payload);
+            offset += recordSize(length);
+        }
+        return offset;
+    }
+
+    public int end() {
+        return end;
+    }
+
+    /**
+     * Whether opening the file found a torn or corrupt record and discarded it with what followed.
+     */
+    public boolean tornTail() {
+        return tornTail;
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    public void force() {
+        buffer.force();
+    }
+
+    /**
+     * Flushes the log and atomically renames its file over {@code target}; the mapping stays valid.
+     */
+    public void moveTo(Path target) {
+        force();
+        try {
+            Files.move(file, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not move log file " + file + " to " + target, e);
+        }
+        file = target;
+    }
+
+    @Override
+    public void close() {
+        force();
+        try {
+            raf.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not close log file " + file, e);
+        }
+    }
+
+    private void grow(int required) {
+        int grown = capacity;
+        while (grown < required) {
+            grown = (int) Math.min(MAX_CAPACITY, grown * 2L);
+        }
+
+        try {
+            map(grown);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not grow log file " + file, e);
+        }
+    }
+
+    private void map(int size) throws IOException {
+        if (raf.length() < size) {
+            raf.setLength(size);
+        }
+        buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+        capacity = size;
+    }
+
+    private static int recordSize(int length) {
+        return align(HEADER + length);
+    }
+
+    private static int align(int bytes) {
+        return (int) Math.min(MAX_CAPACITY, (bytes + 7L) & ~7L);
+    }
+
+    @FunctionalInterface
+    public interface Visitor {
+
+        void record(int offset, ByteBuffer payload);
+    }
+}
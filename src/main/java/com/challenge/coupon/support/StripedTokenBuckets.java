@@ -0,0 +1,115 @@
+package com.challenge.coupon.support;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-key token buckets in a fixed number of lock-free stripes. A bucket is a single long, the
+ * theoretical arrival time of the next request (GCRA), so taking a token is one CAS and a full
+ * bucket is simply one whose time is in the past. Keys hash to a stripe and probe a short run of
+ * slots in it; when the run is full, the bucket idle the longest is replaced. An idle bucket is
+ * full, so replacing it loses nothing; under a flood of distinct keys a busy one may be replaced
+ * and its key starts over with a full bucket.
+ */
+public class StripedTokenBuckets {
+
+    private static final int PROBES = 8;
+
+    private final AtomicReferenceArray<Bucket>[] stripes;
+    private final int stripeMask;
+    private final int slotMask;
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final LongSupplier clock;
+
+    @SuppressWarnings("unchecked")
+    public StripedTokenBuckets(int stripes, int slotsPerStripe, double ratePerSecond, int burst, LongSupplier clock) {
+        if (Integer.bitCount(stripes) != 1 || Integer.bitCount(slotsPerStripe) != 1 || slotsPerStripe < PROBES) {
+            throw new IllegalArgumentException("Stripes and slots per stripe must be powers of two");
+        }
+        if (ratePerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate must be positive and burst at least 1");
+        }
+
+        this.stripes = new AtomicReferenceArray[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new AtomicReferenceArray<>(slotsPerStripe);
+        }
+        this.stripeMask = stripes - 1;
+        this.slotMask = slotsPerStripe - 1;
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / ratePerSecond));
+        this.burstNanos = intervalNanos * burst;
+        this.clock = clock;
+    }
+
+    /**
+     * Takes a token from {@code key}'s bucket. Returns 0 when one was taken, otherwise the
+     * nanoseconds until the next token is available; a refused call takes nothing.
+     */
+    public long tryTake(String key) {
+        long now = clock.getAsLong();
+        Bucket bucket = bucket(key, now);
+
+        while (true) {
+            long arrival = bucket.get();
+            long next = Math.max(arrival, now) + intervalNanos;
+            long wait = next - now - burstNanos;
+
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(arrival, next)) {
+                return 0;
+            }
+        }
+    }
+
+    private Bucket bucket(String key, long now) {
+        int hash = key.hashCode() * 0x9E3779B9;
+        AtomicReferenceArray<Bucket> stripe = stripes[(hash >>> 24) & stripeMask];
+        int start = hash & slotMask;
+
+        int victimSlot = -1;
+        Bucket victim = null;
+
+        for (int probe = 0; probe < PROBES; probe++) {
+            int slot = (start + probe) & slotMask;
+            Bucket bucket = stripe.get(slot);
+
+            if (bucket == null) {
+                Bucket created = new Bucket(key, now);
+                if (stripe.compareAndSet(slot, null, created)) {
+                    return created;
+                }
+                bucket = stripe.get(slot);
+            }
+            if (bucket.key.equals(key)) {
+                return bucket;
+            }
+            if (victim == null || bucket.get() < victim.get()) {
+                victim = bucket;
+                victimSlot = slot;
+            }
+        }
+
+        Bucket created = new Bucket(key, now);
+        if (stripe.compareAndSet(victimSlot, victim, created)) {
+            return created;
+        }
+
+        // Lost the race for the slot: share the winner's bucket if it is ours, else use this one once
+        Bucket winner = stripe.get(victimSlot);
+        return winner.key.equals(key) ? winner : created;
+    }
+
+    private static final class Bucket extends AtomicLong {
+
+        private final String key;
+
+        private Bucket(String key, long arrival) {
+            super(arrival);
+            this.key = key;
+        }
+    }
+}
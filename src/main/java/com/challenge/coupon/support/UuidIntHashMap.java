@@ -0,0 +1,120 @@
+package com.challenge.coupon.support;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Open-addressing map from UUIDs, kept as their two primitive halves, to non-negative ints.
+ * Entries are never removed. Not thread-safe; callers guard it.
+ */
+public class UuidIntHashMap {
+
+    public static final int MISSING = -1;
+
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] mostBits;
+    private long[] leastBits;
+    private int[] values;
+    private int size;
+
+    public UuidIntHashMap(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    public UuidIntHashMap() {
+        this(16);
+    }
+
+    /**
+     * Returns the value mapped to {@code id}, or {@link #MISSING}.
+     */
+    public int get(UUID id) {
+        int index = indexOf(id.getMostSignificantBits(), id.getLeastSignificantBits());
+        return values[index];
+    }
+
+    /**
+     * Maps {@code id} to {@code value} and returns the previous value, or {@link #MISSING}.
+     */
+    public int put(UUID id, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative value: " + value);
+        }
+
+        long most = id.getMostSignificantBits();
+        long least = id.getLeastSignificantBits();
+        int index = indexOf(most, least);
+        int previous = values[index];
+
+        mostBits[index] = most;
+        leastBits[index] = least;
+        values[index] = value;
+
+        if (previous == MISSING && ++size > values.length * LOAD_FACTOR) {
+            rehash(values.length * 2);
+        }
+        return previous;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns every mapped value, in no particular order.
+     */
+    public int[] values() {
+        int[] present = new int[size];
+        int count = 0;
+        for (int value : values) {
+            if (value != MISSING) {
+                present[count++] = value;
+            }
+        }
+        return present;
+    }
+
+    private int indexOf(long most, long least) {
+        int mask = values.length - 1;
+        int index = mix(most, least) & mask;
+
+        while (values[index] != MISSING && (mostBits[index] != most || leastBits[index] != least)) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldMost = mostBits;
+        long[] oldLeast = leastBits;
+        int[] oldValues = values;
+        allocate(capacity);
+
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != MISSING) {
+                int index = indexOf(oldMost[i], oldLeast[i]);
+                mostBits[index] = oldMost[i];
+                leastBits[index] = oldLeast[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        mostBits = new long[capacity];
+        leastBits = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, MISSING);
+    }
+
+    private static int mix(long most, long least) {
+        long h = (most ^ Long.rotateLeft(least, 32)) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        return Math.max(16, capacity);
+    }
+}
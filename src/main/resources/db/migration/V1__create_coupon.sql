@@ -0,0 +1,13 @@
+create table coupon (
+    id              uuid          not null,
+    code            varchar(6)    not null,
+    description     text          not null,
+    discount_value  numeric(38,2) not null,
+    expiration_date timestamp(6)  not null,
+    status          varchar(16),
+    published       boolean       not null,
+    redeemed        boolean       not null,
+    primary key (id)
+);
+
+create index idx_coupon_status_expiration on coupon (status, expiration_date);
@@ -0,0 +1,10 @@
+-- Serves existsByCodeAndStatus and the other code lookups.
+create index idx_coupon_code_status on coupon (code, status);
+
+-- Only one ACTIVE coupon per code: active_code is null for every other status,
+-- and a unique index accepts any number of nulls.
+alter table coupon add column active_code varchar(6) generated always as (
+    case when status = 'ACTIVE' then code end
+);
+
+create unique index uk_coupon_active_code on coupon (active_code);
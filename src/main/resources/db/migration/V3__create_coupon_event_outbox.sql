@@ -0,0 +1,16 @@
+create sequence coupon_event_seq start with 1 increment by 1;
+
+create table coupon_event (
+    id          bigint       not null,
+    type        varchar(16)  not null,
+    coupon_id   uuid         not null,
+    code        varchar(6)   not null,
+    occurred_at timestamp(6) not null,
+    primary key (id)
+);
+
+create table outbox_position (
+    consumer varchar(64) not null,
+    last_id  bigint      not null,
+    primary key (consumer)
+);
@@ -0,0 +1,5 @@
+alter table coupon add column version bigint default 0 not null;
+alter table coupon add column updated_at timestamp(6) default localtimestamp not null;
+
+alter table coupon_archive add column version bigint default 0 not null;
+alter table coupon_archive add column updated_at timestamp(6) default localtimestamp not null;
@@ -0,0 +1,5 @@
+-- Hibernate takes event ids 50 at a time (allocationSize = 50), one sequence call per block.
+alter sequence coupon_event_seq increment by 50;
+
+-- Blocks from different nodes interleave, so the relay reads events in occurred_at order instead of id order.
+create index idx_coupon_event_occurred_at on coupon_event (occurred_at, id);
@@ -0,0 +1,62 @@
+package com.challenge.coupon.config.admission;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:admission-test;DB_CLOSE_DELAY=-1",
+        "coupon.admission.client-rate=0.01",
+        "coupon.admission.client-burst=1",
+        "coupon.admission.trusted-proxies=127.0.0.1"
+})
+@AutoConfigureMockMvc
+public class AdmissionControlTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @DisplayName("Should answer 429 with Retry-After once a client's bucket is empty, without affecting other clients")
+    void shouldRateLimitPerClient() throws Exception {
+        mockMvc.perform(get("/coupon").header("X-Client-Id", "alice"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/coupon").header("X-Client-Id", "alice"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "100"))
+                .andExpect(jsonPath("$.status").value(429))
+                .andExpect(jsonPath("$.errors[0]").value("Too many requests from this client"));
+
+        mockMvc.perform(get("/coupon").header("X-Client-Id", "bob"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("Should key on the remote address when the client header comes from an untrusted address")
+    void shouldIgnoreClientHeaderFromUntrustedAddress() throws Exception {
+        mockMvc.perform(get("/coupon").header("X-Client-Id", "carol").with(remoteAddr("10.0.0.9")))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/coupon").header("X-Client-Id", "dave").with(remoteAddr("10.0.0.9")))
+                .andExpect(status().isTooManyRequests());
+
+        mockMvc.perform(get("/coupon").header("X-Client-Id", "carol").with(remoteAddr("10.0.0.10")))
+                .andExpect(status().isOk());
+    }
+
+    private static RequestPostProcessor remoteAddr(String address) {
+        return request -> {
+            request.setRemoteAddr(address);
+            return request;
+        };
+    }
+}
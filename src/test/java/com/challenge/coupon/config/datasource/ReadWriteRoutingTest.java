@@ -0,0 +1,138 @@
+package com.challenge.coupon.config.datasource;
+
+import com.challenge.coupon.controller.api.CouponCreateRequest;
+import com.challenge.coupon.domain.entity.coupon.Coupon;
+import com.challenge.coupon.domain.entity.exception.DomainNotFoundException;
+import com.challenge.coupon.service.coupon.CouponLookupResult;
+import com.challenge.coupon.service.coupon.CouponService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two in-memory H2 databases stand in for a primary and its replica; the test itself plays
+ * the replication stream by copying the heartbeat (and rows, where needed) across.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:rw-primary;DB_CLOSE_DELAY=-1",
+        "coupon.datasource.replica.url=jdbc:h2:mem:rw-replica;DB_CLOSE_DELAY=-1",
+        "coupon.datasource.replica.max-lag=2s",
+        "coupon.datasource.replica.lag-probe-interval=1h",
+        "coupon.expiration.enabled=false",
+        "coupon.outbox.relay.enabled=false"
+})
+public class ReadWriteRoutingTest {
+
+    @Autowired
+    private CouponService couponService;
+
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void setUp() {
+        Flyway.configure()
+                .dataSource("jdbc:h2:mem:rw-replica;DB_CLOSE_DELAY=-1", "sa", "")
+                .load()
+                .migrate();
+
+        primary = new JdbcTemplate(primaryDataSource);
+        replica = new JdbcTemplate(replicaDataSource);
+    }
+
+    @Test
+    @DisplayName("Should serve read-only lookups from the replica while it is within the lag tolerance")
+    void shouldReadFromReplicaWhenFresh() {
+        UUID id = insertCoupon(replicaWriter(), "REPL01");
+        replicateHeartbeat(LocalDateTime.now());
+        double replicaRoutes = routes("replica");
+
+        Coupon coupon = couponService.findById(id.toString());
+
+        assertEquals("REPL01", coupon.getCode());
+        assertTrue(couponService.lookup(List.of("REPL01"), null).getFirst().valid());
+        assertEquals(replicaRoutes + 2, routes("replica"));
+    }
+
+    @Test
+    @DisplayName("Should fall back to the primary when the replica lags beyond the tolerance")
+    void shouldBypassLaggingReplica() {
+        UUID id = insertCoupon(replicaWriter(), "LAGG01");
+        replicateHeartbeat(LocalDateTime.now().minusMinutes(1));
+
+        assertFalse(replicaLagMonitor.replicaUsable());
+        assertThrows(DomainNotFoundException.class, () -> couponService.findById(id.toString()));
+    }
+
+    @Test
+    @DisplayName("Should write to the primary and read the caller's own write back before it replicates")
+    void shouldReadYourOwnWrites() {
+        replicateHeartbeat(LocalDateTime.now());
+
+        Coupon created = couponService.create(new CouponCreateRequest(
+                "RYW001", "Read your writes", BigDecimal.TEN, LocalDateTime.now().plusDays(1), true
+        ));
+
+        assertEquals(1, primary.queryForObject("select count(*) from coupon where code = 'RYW001'", Integer.class));
+        assertEquals(0, replica.queryForObject("select count(*) from coupon where code = 'RYW001'", Integer.class));
+        assertTrue(replicaLagMonitor.replicaUsable());
+
+        assertEquals("RYW001", couponService.findById(created.getId().toString()).getCode());
+        CouponLookupResult result = couponService.lookup(List.of("RYW001"), null).getFirst();
+        assertTrue(result.valid());
+    }
+
+    private void replicateHeartbeat(LocalDateTime replicatedUpTo) {
+        replicaWriter().update("update replication_heartbeat set beat_at = ? where id = 1", Timestamp.valueOf(replicatedUpTo));
+        replicaLagMonitor.probe();
+    }
+
+    // Writes into the replica the way the replication stream would, bypassing its read-only pool
+    private JdbcTemplate replicaWriter() {
+        return new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:rw-replica;DB_CLOSE_DELAY=-1", "sa", ""));
+    }
+
+    private static UUID insertCoupon(JdbcTemplate jdbc, String code) {
+        UUID id = UUID.randomUUID();
+        jdbc.update("""
+                insert into coupon (id, code, description, discount_value, expiration_date, status, published, redeemed)
+                values (?, ?, 'Replica only', 10, ?, 'ACTIVE', true, false)
+                """, id, code, Timestamp.valueOf(LocalDateTime.now().plusDays(1)));
+        return id;
+    }
+
+    private double routes(String target) {
+        return meterRegistry.get("coupon.datasource.route").tag("target", target).counter().count();
+    }
+}
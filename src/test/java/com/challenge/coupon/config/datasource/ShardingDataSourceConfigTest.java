@@ -0,0 +1,44 @@
+package com.challenge.coupon.config.datasource;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.core.NestedExceptionUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShardingDataSourceConfigTest {
+
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withUserConfiguration(ShardingDataSourceConfig.class)
+            .withPropertyValues("coupon.sharding.urls=jdbc:h2:mem:config-shard-0,jdbc:h2:mem:config-shard-1");
+
+    @Test
+    @DisplayName("Should refuse to start sharded with a read replica")
+    void shouldRejectReplica() {
+        runner.withPropertyValues("coupon.datasource.replica.url=jdbc:h2:mem:config-replica").run(context ->
+                assertEquals(
+                        "coupon.sharding.urls cannot be combined with coupon.datasource.replica.url",
+                        NestedExceptionUtils.getRootCause(context.getStartupFailure()).getMessage()
+                ));
+    }
+
+    @Test
+    @DisplayName("Should refuse to start sharded with the mapped store")
+    void shouldRejectMappedStore() {
+        runner.withPropertyValues("coupon.storage.backend=mapped").run(context ->
+                assertEquals(
+                        "coupon.sharding.urls cannot be combined with coupon.storage.backend=mapped",
+                        NestedExceptionUtils.getRootCause(context.getStartupFailure()).getMessage()
+                ));
+    }
+
+    @Test
+    @DisplayName("Should start sharded on the JPA store without a replica")
+    void shouldStartShardedAlone() {
+        runner.run(context -> {
+            assertNull(context.getStartupFailure());
+            assertEquals(2, context.getBean(ShardRoutingDataSource.class).shards().size());
+        });
+    }
+}
@@ -0,0 +1,215 @@
+package com.challenge.coupon.config.datasource;
+
+import com.challenge.coupon.controller.api.CouponCreateRequest;
+import com.challenge.coupon.domain.entity.coupon.Coupon;
+import com.challenge.coupon.domain.entity.coupon.CouponStatus;
+import com.challenge.coupon.domain.entity.coupon.ShardedUuidGenerator;
+import com.challenge.coupon.domain.entity.exception.DuplicateCodeException;
+import com.challenge.coupon.service.coupon.CouponBatchResult;
+import com.challenge.coupon.service.coupon.CouponFilter;
+import com.challenge.coupon.service.coupon.CouponLookupResult;
+import com.challenge.coupon.service.coupon.CouponService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Three in-memory H2 databases stand in for the shards; the test reads each one directly to
+ * check where rows landed.
+ */
+@SpringBootTest(properties = {
+        "coupon.sharding.urls=jdbc:h2:mem:shard-0;DB_CLOSE_DELAY=-1,"
+                + "jdbc:h2:mem:shard-1;DB_CLOSE_DELAY=-1,"
+                + "jdbc:h2:mem:shard-2;DB_CLOSE_DELAY=-1",
+        "coupon.expiration.enabled=false",
+        "coupon.archive.enabled=false",
+        "coupon.outbox.relay.enabled=false"
+})
+public class ShardingTest {
+
+    private static final int SHARDS = 3;
+
+    @Autowired
+    private CouponService couponService;
+
+    @Autowired
+    private CouponShards couponShards;
+
+    @Test
+    @DisplayName("Should store each coupon, and its outbox event, only on the shard its code hashes to, with the bucket in the id")
+    void shouldPlaceCouponsByCode() {
+        List<Coupon> created = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            created.add(couponService.create(request(String.format("PLC%03d", i))));
+        }
+
+        Set<Integer> used = new HashSet<>();
+        for (Coupon coupon : created) {
+            int shard = couponShards.forCode(coupon.getCode());
+            used.add(shard);
+
+            assertEquals(ShardedUuidGenerator.bucket(coupon.getCode()), ShardedUuidGenerator.bucket(coupon.getId()));
+            assertEquals(shard, couponShards.forId(coupon.getId()));
+            for (int other = 0; other < SHARDS; other++) {
+                int expected = other == shard ? 1 : 0;
+                assertEquals(expected, count(other, "select count(*) from coupon where id = ?", coupon.getId()));
+                assertEquals(expected, count(other, "select count(*) from coupon_event where coupon_id = ?", coupon.getId()));
+            }
+        }
+        assertEquals(SHARDS, used.size());
+    }
+
+    @Test
+    @DisplayName("Should find, redeem and delete by id and code on the owning shard")
+    void shouldRouteByIdAndCode() {
+        List<Coupon> created = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            created.add(couponService.create(request(String.format("RTE%03d", i))));
+        }
+
+        for (Coupon coupon : created) {
+            String id = coupon.getId().toString();
+            assertEquals(coupon.getCode(), couponService.findById(id).getCode());
+
+            assertTrue(couponService.redeemByCode(coupon.getCode()).getRedeemed());
+            couponService.delete(id);
+
+            assertEquals(CouponStatus.DELETED, couponService.findById(id).getStatus());
+            assertEquals(2L, couponService.findVersion(id).version());
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject a second active coupon with the same code, since both land on one shard")
+    void shouldRejectDuplicateCode() {
+        couponService.create(request("DUP001"));
+
+        assertThrows(DuplicateCodeException.class, () -> couponService.create(request("DUP-001")));
+    }
+
+    @Test
+    @DisplayName("Should create a batch across shards and merge listing pages and lookups from all of them")
+    void shouldFanOutBatchListAndLookup() {
+        List<CouponCreateRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            requests.add(request(String.format("FAN%03d", i)));
+        }
+        requests.add(request("FAN000"));
+
+        List<CouponBatchResult> results = couponService.createBatch(requests);
+
+        Set<UUID> created = new HashSet<>();
+        List<String> codes = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            created.add(results.get(i).coupon().getId());
+            codes.add(results.get(i).coupon().getCode());
+        }
+        assertEquals(List.of("Coupon code already exists"), results.get(25).errors());
+        for (int shard = 0; shard < SHARDS; shard++) {
+            assertTrue(count(shard, "select count(*) from coupon where code like 'FAN%'") > 0);
+        }
+
+        List<UUID> listed = new ArrayList<>();
+        String after = null;
+        List<Coupon> page;
+        do {
+            page = couponService.list(new CouponFilter(null, null), after, 7);
+            page.forEach(coupon -> listed.add(coupon.getId()));
+            after = page.isEmpty() ? null : page.getLast().getId().toString();
+        } while (page.size() == 7);
+
+        assertEquals(listed.size(), new HashSet<>(listed).size());
+        assertTrue(listed.containsAll(created));
+        for (int i = 1; i < listed.size(); i++) {
+            UUID previous = listed.get(i - 1);
+            UUID current = listed.get(i);
+            assertTrue(Long.compareUnsigned(previous.getMostSignificantBits(), current.getMostSignificantBits()) < 0
+                    || previous.getMostSignificantBits() == current.getMostSignificantBits()
+                    && Long.compareUnsigned(previous.getLeastSignificantBits(), current.getLeastSignificantBits()) < 0);
+        }
+
+        List<CouponLookupResult> found = couponService.lookup(codes, List.of());
+        assertEquals(25, found.size());
+        assertTrue(found.stream().allMatch(CouponLookupResult::valid));
+    }
+
+    @Test
+    @DisplayName("Should keep what the other shards committed and report every item of the shard that failed")
+    void shouldReportFailedShardOfBatch() {
+        String taken = "PRT000";
+        int failing = couponShards.forCode(taken);
+        jdbc(failing).update(
+                "insert into coupon (id, code, description, discount_value, expiration_date, status, published, redeemed) "
+                        + "values (?, ?, 'Stored by another node', 10, ?, 'ACTIVE', true, false)",
+                ShardedUuidGenerator.newId(taken), taken, LocalDateTime.now().plusDays(1)
+        );
+
+        List<CouponCreateRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            requests.add(request(String.format("PRT%03d", i)));
+        }
+
+        List<CouponBatchResult> results = couponService.createBatch(requests);
+
+        List<CouponCreateRequest> failed = new ArrayList<>();
+        List<String> created = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            String code = requests.get(i).code();
+            if (couponShards.forCode(code) == failing) {
+                assertEquals(List.of("Coupon could not be stored, retry it"), results.get(i).errors());
+                failed.add(requests.get(i));
+            } else {
+                assertTrue(results.get(i).created());
+                assertEquals(1, count(couponShards.forCode(code), "select count(*) from coupon where code = ?", code));
+                created.add(code);
+            }
+        }
+        assertTrue(failed.size() > 1 && !created.isEmpty());
+        assertEquals(1, count(failing, "select count(*) from coupon where code like 'PRT%'"));
+        assertTrue(couponService.lookup(created, List.of()).stream().allMatch(CouponLookupResult::valid));
+
+        List<CouponBatchResult> retried = couponService.createBatch(failed);
+
+        for (int i = 0; i < failed.size(); i++) {
+            if (failed.get(i).code().equals(taken)) {
+                assertEquals(List.of("Coupon code already exists"), retried.get(i).errors());
+            } else {
+                assertTrue(retried.get(i).created());
+            }
+        }
+    }
+
+    private static long count(int shard, String sql, Object... args) {
+        return jdbc(shard).queryForObject(sql, Long.class, args);
+    }
+
+    private static JdbcTemplate jdbc(int shard) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:shard-" + shard + ";DB_CLOSE_DELAY=-1", "sa", ""
+        );
+        return new JdbcTemplate(dataSource);
+    }
+
+    private static CouponCreateRequest request(String code) {
+        return new CouponCreateRequest(
+                code,
+                "Cupom de desconto",
+                new BigDecimal("10.00"),
+                LocalDateTime.now().plusDays(30),
+                true
+        );
+    }
+}
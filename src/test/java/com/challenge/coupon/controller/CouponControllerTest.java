@@ -0,0 +1,219 @@
+package com.challenge.coupon.controller;
+
+import com.challenge.coupon.controller.api.CouponCreateRequest;
+import com.challenge.coupon.controller.api.CouponResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:controller-test;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+public class CouponControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cborConverter;
+
+    @Test
+    @DisplayName("Should answer 304 while the version is unchanged and a new ETag once the coupon changes")
+    void shouldRevalidateWithETag() throws Exception {
+        String id = create("ETG001");
+
+        String etag = mockMvc.perform(get("/coupon/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertEquals("\"0\"", etag);
+
+        mockMvc.perform(get("/coupon/{id}", id).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+
+        mockMvc.perform(post("/coupon/{id}/redeem", id)).andExpect(status().isOk());
+
+        mockMvc.perform(get("/coupon/{id}", id).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.redeemed").value(true));
+    }
+
+    @Test
+    @DisplayName("Should only delete when If-Match carries the current version")
+    void shouldDeleteOnlyWhenIfMatchIsCurrent() throws Exception {
+        String id = create("ETG002");
+
+        mockMvc.perform(delete("/coupon/{id}", id).header(HttpHeaders.IF_MATCH, "\"7\""))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.status").value(412))
+                .andExpect(jsonPath("$.errors[0]").value("Coupon has been modified since it was read"));
+
+        mockMvc.perform(delete("/coupon/{id}", id).header(HttpHeaders.IF_MATCH, "W/\"0\""))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(delete("/coupon/{id}", id).header(HttpHeaders.IF_MATCH, "\"0\""))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/coupon/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.status").value("DELETED"));
+    }
+
+    @Test
+    @DisplayName("Should create and read a coupon in CBOR through the same request and response records")
+    void shouldRoundTripCbor() throws Exception {
+        ObjectMapper cbor = cborConverter.getObjectMapper();
+        CouponCreateRequest request = new CouponCreateRequest(
+                "CBR001", "Binary coupon", new BigDecimal("12.50"), LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS), true
+        );
+
+        byte[] created = mockMvc.perform(post("/coupon")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(cbor.writeValueAsBytes(request)))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        CouponResponse response = cbor.readValue(created, CouponResponse.class);
+        assertEquals("CBR001", response.code());
+        assertEquals(0, new BigDecimal("12.50").compareTo(response.discountValue()));
+
+        byte[] found = mockMvc.perform(get("/coupon/{id}", response.id()).accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0-cbor\""))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        String json = mockMvc.perform(get("/coupon/{id}", response.id()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals(response, cbor.readValue(found, CouponResponse.class));
+        assertEquals(response, objectMapper.readValue(json, CouponResponse.class));
+
+        mockMvc.perform(delete("/coupon/{id}", response.id()).header(HttpHeaders.IF_MATCH, "\"0-cbor\""))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    @DisplayName("Should report every broken rule of a rejected coupon in one ErrorResponse")
+    void shouldReportAllValidationErrors() throws Exception {
+        mockMvc.perform(post("/coupon")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of(
+                                "code", "AB1",
+                                "description", "Rejected coupon",
+                                "discountValue", 0.1,
+                                "expirationDate", LocalDateTime.now().plusDays(1).toString(),
+                                "published", true
+                        ))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(400))
+                .andExpect(jsonPath("$.errors.length()").value(2))
+                .andExpect(jsonPath("$.errors[0]").value("Discount amount shown is less than the minimum allowed"))
+                .andExpect(jsonPath("$.errors[1]").value("Coupon code must contain exactly 6 alphanumeric characters"));
+    }
+
+    @Test
+    @DisplayName("Should answer 400 in an ErrorResponse when a query parameter has the wrong type")
+    void shouldRejectInvalidStatusFilter() throws Exception {
+        mockMvc.perform(get("/coupon").param("status", "bogus"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(400))
+                .andExpect(jsonPath("$.errors[0]").value("Invalid value 'bogus' for parameter status"));
+    }
+
+    @Test
+    @DisplayName("Should quote carts with exact cent amounts and per-coupon outcomes")
+    void shouldQuoteCarts() throws Exception {
+        create("QTE001");
+
+        mockMvc.perform(post("/coupon/quote")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"carts": [
+                                  {"amount": 25.90, "codes": ["QTE-001", "MISS01"]},
+                                  {"amount": 10.001, "codes": ["QTE001"]}
+                                ]}
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.quoted").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.carts[0].discount").value(10.00))
+                .andExpect(jsonPath("$.carts[0].total").value(15.90))
+                .andExpect(jsonPath("$.carts[0].coupons[0].applied").value(true))
+                .andExpect(jsonPath("$.carts[0].coupons[1].reason").value("Coupon not found"))
+                .andExpect(jsonPath("$.carts[1].errors[0]").value("Amount must be in whole cents and within range"));
+    }
+
+    @Test
+    @DisplayName("Should rebuild the generator bitmap from the stored codes on the first generate")
+    void shouldGenerateCodes() throws Exception {
+        create("GEN001");
+
+        mockMvc.perform(post("/coupon/generate").param("count", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(5))
+                .andExpect(jsonPath("$.codes.length()").value(5))
+                .andExpect(jsonPath("$.codes[0]").value(matchesPattern("[0-9A-Z]{6}")));
+    }
+
+    @Test
+    @DisplayName("Should expose Prometheus metrics with the repository latency histogram")
+    void shouldExposePrometheus() throws Exception {
+        create("PRM001");
+
+        String metrics = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertTrue(metrics.contains("coupon_operations_seconds"));
+        assertTrue(metrics.contains("spring_data_repository_invocations_seconds_bucket"));
+    }
+
+    private String create(String code) throws Exception {
+        String body = mockMvc.perform(post("/coupon")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of(
+                                "code", code,
+                                "description", "Conditional request coupon",
+                                "discountValue", 10,
+                                "expirationDate", LocalDateTime.now().plusDays(1).toString(),
+                                "published", true
+                        ))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+
+        return objectMapper.readTree(body).get("id").asText();
+    }
+}
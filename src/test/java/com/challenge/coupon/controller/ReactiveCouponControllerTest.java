@@ -0,0 +1,117 @@
+package com.challenge.coupon.controller;
+
+import com.challenge.coupon.controller.api.CouponResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.datasource.url=jdbc:h2:mem:reactive-test;DB_CLOSE_DELAY=-1",
+                "coupon.reactive.r2dbc-url=r2dbc:h2:mem:///reactive-test;DB_CLOSE_DELAY=-1"
+        }
+)
+@ActiveProfiles("reactive")
+public class ReactiveCouponControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    @DisplayName("Should create, find and delete a coupon through the reactive stack")
+    void shouldCreateFindAndDelete() {
+        CouponResponse created = webTestClient.post().uri("/coupon")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request("RX-0001"))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(CouponResponse.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertNotNull(created);
+        assertEquals("RX0001", created.code());
+        assertEquals("ACTIVE", created.status().name());
+
+        webTestClient.get().uri("/coupon/{id}", created.id())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.code").isEqualTo("RX0001")
+                .jsonPath("$.description").isEqualTo("Reactive coupon");
+
+        webTestClient.delete().uri("/coupon/{id}", created.id())
+                .exchange()
+                .expectStatus().isNoContent();
+
+        webTestClient.delete().uri("/coupon/{id}", created.id())
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.errors[0]").isEqualTo("You cannot delete a coupon that has already been deleted");
+    }
+
+    @Test
+    @DisplayName("Should reject a duplicate active code with the shared error shape")
+    void shouldRejectDuplicateCode() {
+        webTestClient.post().uri("/coupon")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request("RX0002"))
+                .exchange()
+                .expectStatus().isCreated();
+
+        webTestClient.post().uri("/coupon")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request("RX0002"))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(400)
+                .jsonPath("$.errors[0]").isEqualTo("Coupon code already exists");
+    }
+
+    @Test
+    @DisplayName("Should return bean validation and lookup errors with the shared error shape")
+    void shouldReturnErrorResponses() {
+        webTestClient.post().uri("/coupon")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("code", "RX0003"))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(400)
+                .jsonPath("$.errors").isNotEmpty();
+
+        webTestClient.get().uri("/coupon/{id}", "not-a-uuid")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(400);
+
+        webTestClient.get().uri("/coupon/{id}", "00000000-0000-0000-0000-000000000000")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.errors[0]").isEqualTo("Coupon not found");
+    }
+
+    private static Map<String, Object> request(String code) {
+        return Map.of(
+                "code", code,
+                "description", "Reactive coupon",
+                "discountValue", 10,
+                "expirationDate", LocalDateTime.now().plusDays(1).toString(),
+                "published", true
+        );
+    }
+}
@@ -0,0 +1,57 @@
+package com.challenge.coupon.repository;
+
+import com.challenge.coupon.domain.entity.coupon.Coupon;
+import com.challenge.coupon.domain.entity.coupon.CouponStatus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+public class CouponArchiveRepositoryTest {
+
+    @Autowired
+    private CouponRepository couponRepository;
+
+    @Autowired
+    private CouponArchiveRepository couponArchiveRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Should archive only coupons still matching the rule and unchanged since the copy")
+    void shouldArchiveOnlyUnchangedCoupons() {
+        LocalDateTime now = LocalDateTime.now();
+        UUID deleted = save("DEL001", CouponStatus.DELETED, now.plusDays(1));
+        UUID changed = save("DEL002", CouponStatus.DELETED, now.plusDays(1));
+        UUID recent = save("INA001", CouponStatus.INACTIVE, now.minusDays(1));
+        List<UUID> ids = List.of(deleted, changed, recent);
+
+        assertEquals(2, couponArchiveRepository.copyFromLive(ids, now.minusDays(30), now));
+        jdbcTemplate.update("update coupon set version = version + 1 where id = ?", changed);
+
+        assertEquals(1, couponRepository.deleteArchived(ids));
+        assertEquals(1, couponArchiveRepository.deleteStillLive(ids));
+
+        assertEquals(List.of(deleted), jdbcTemplate.queryForList("select id from coupon_archive", UUID.class));
+        assertEquals(
+                List.of("DEL002", "INA001"),
+                jdbcTemplate.queryForList("select code from coupon where code in ('DEL001', 'DEL002', 'INA001') order by code", String.class)
+        );
+    }
+
+    private UUID save(String code, CouponStatus status, LocalDateTime expiration) {
+        return couponRepository.saveAndFlush(new Coupon(
+                null, code, "Cupom arquivado", BigDecimal.TEN, expiration, status, true, false
+        )).getId();
+    }
+}
@@ -0,0 +1,67 @@
+package com.challenge.coupon.repository;
+
+import com.challenge.coupon.domain.entity.outbox.CouponEvent;
+import com.challenge.coupon.domain.entity.outbox.CouponEventType;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class CouponEventRepositoryTest {
+
+    @Autowired
+    private CouponEventRepository couponEventRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    @DisplayName("Should take event ids from the sequence 50 at a time and send the inserts as JDBC batches")
+    void shouldPoolIdsAndBatchInserts() {
+        LocalDateTime now = LocalDateTime.now();
+        List<CouponEvent> events = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            events.add(event(now));
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        couponEventRepository.saveAll(events);
+        couponEventRepository.flush();
+
+        assertEquals(1_000, statistics.getEntityInsertCount());
+        // 20 sequence calls for the ids plus the batched insert
+        assertTrue(statistics.getPrepareStatementCount() <= 25, "Statements prepared: " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("Should read settled events oldest first whatever their ids")
+    void shouldReadBatchByOccurrence() {
+        LocalDateTime now = LocalDateTime.now();
+        CouponEvent later = couponEventRepository.save(event(now.minusSeconds(5)));
+        CouponEvent earlier = couponEventRepository.save(event(now.minusSeconds(10)));
+        couponEventRepository.save(event(now));
+        couponEventRepository.flush();
+
+        List<CouponEvent> batch = couponEventRepository.findBatch(now.minusSeconds(1), Limit.of(10));
+
+        assertEquals(List.of(earlier.getId(), later.getId()), batch.stream().map(CouponEvent::getId).toList());
+    }
+
+    private static CouponEvent event(LocalDateTime occurredAt) {
+        return new CouponEvent(CouponEventType.CREATED, UUID.randomUUID(), "ABC123", occurredAt);
+    }
+}
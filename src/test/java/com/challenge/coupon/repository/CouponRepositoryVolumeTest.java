@@ -0,0 +1,125 @@
+package com.challenge.coupon.repository;
+
+import com.challenge.coupon.domain.entity.coupon.Coupon;
+import com.challenge.coupon.domain.entity.coupon.CouponStatus;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class CouponRepositoryVolumeTest {
+
+    @Autowired
+    private CouponRepository couponRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    @DisplayName("Should resolve existsByCodeAndStatus through the (code, status) index")
+    void shouldUseCodeStatusIndex() {
+        String plan = jdbcTemplate.queryForObject(
+                "explain select 1 from coupon where code = 'ABC123' and status = 'ACTIVE'", String.class
+        );
+
+        assertTrue(plan.toUpperCase().contains("IDX_COUPON_CODE_STATUS"), plan);
+    }
+
+    @Test
+    @DisplayName("Should resolve bulk code lookups through the (code, status) index")
+    void shouldUseCodeStatusIndexForBulkLookup() {
+        String plan = jdbcTemplate.queryForObject(
+                "explain select * from coupon where code in ('ABC123', 'XYZ789', 'QWE456')", String.class
+        );
+
+        assertTrue(plan.toUpperCase().contains("IDX_COUPON_CODE_STATUS"), plan);
+    }
+
+    // Latency by table size is measured by CouponLookupBenchmark; here the plan is checked once the table is large
+    @Test
+    @DisplayName("Should keep resolving code lookups through the (code, status) index with 100k rows")
+    void shouldUseCodeStatusIndexOnLargeTable() {
+        insertCoupons(0, 100_000);
+        jdbcTemplate.execute("analyze");
+
+        String plan = jdbcTemplate.queryForObject(
+                "explain select 1 from coupon where code = '004242' and status = 'ACTIVE'", String.class
+        );
+
+        assertTrue(plan.toUpperCase().contains("IDX_COUPON_CODE_STATUS"), plan);
+        assertFalse(plan.toUpperCase().contains("TABLESCAN"), plan);
+        assertTrue(couponRepository.existsByCodeAndStatus("004242", CouponStatus.ACTIVE));
+    }
+
+    @Test
+    @DisplayName("Should send saveAll inserts as JDBC batches instead of one statement per row")
+    void shouldBatchInserts() {
+        List<Coupon> coupons = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            String code = "B" + code(i).substring(1);
+            coupons.add(new Coupon(
+                    null, code, "Batch test", BigDecimal.TEN,
+                    LocalDateTime.now().plusDays(1), CouponStatus.ACTIVE, true, false
+            ));
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        couponRepository.saveAll(coupons);
+        couponRepository.flush();
+
+        assertEquals(1_000, statistics.getEntityInsertCount());
+        assertTrue(statistics.getPrepareStatementCount() <= 2, "Statements prepared: " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("Should reject a second ACTIVE coupon with the same code but accept it once the first is deleted")
+    void shouldEnforceUniqueActiveCode() {
+        insertCoupon("DUP001", "ACTIVE");
+
+        assertThrows(DataIntegrityViolationException.class, () -> insertCoupon("DUP001", "ACTIVE"));
+
+        jdbcTemplate.update("update coupon set status = 'DELETED' where code = 'DUP001'");
+        insertCoupon("DUP001", "ACTIVE");
+
+        assertTrue(couponRepository.existsByCodeAndStatus("DUP001", CouponStatus.ACTIVE));
+        assertTrue(couponRepository.existsByCodeAndStatus("DUP001", CouponStatus.DELETED));
+    }
+
+    private void insertCoupons(int from, int to) {
+        jdbcTemplate.update("""
+                insert into coupon (id, code, description, discount_value, expiration_date, status, published, redeemed)
+                select random_uuid(), lpad(x, 6, '0'), 'Volume test', 10, dateadd('DAY', 30, current_timestamp),
+                       case when mod(x, 4) = 0 then 'DELETED' else 'ACTIVE' end, true, false
+                from system_range(?, ?)
+                """, from, to - 1);
+    }
+
+    private void insertCoupon(String code, String status) {
+        jdbcTemplate.update("""
+                insert into coupon (id, code, description, discount_value, expiration_date, status, published, redeemed)
+                values (random_uuid(), ?, 'Constraint test', 10, dateadd('DAY', 30, current_timestamp), ?, true, false)
+                """, code, status);
+    }
+
+    private static String code(int value) {
+        return String.format("%06d", value);
+    }
+}
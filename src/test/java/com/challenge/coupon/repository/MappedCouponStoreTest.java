@@ -0,0 +1,348 @@
+package com.challenge.coupon.repository;
+
+import com.challenge.coupon.domain.entity.coupon.Coupon;
+import com.challenge.coupon.domain.entity.coupon.CouponStatus;
+import com.challenge.coupon.domain.entity.exception.DuplicateCodeException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappedCouponStoreTest {
+
+    private static final LocalDateTime EXPIRATION = LocalDateTime.now().plusDays(30).truncatedTo(ChronoUnit.MICROS);
+
+    @TempDir
+    private Path directory;
+
+    private MappedCouponStore store;
+
+    @AfterEach
+    void tearDown() {
+        if (store != null) {
+            store.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Should assign id and version on save and read every field back")
+    void shouldRoundTripCoupon() {
+        store = open();
+
+        Coupon saved = store.saveAndFlush(coupon("ABC123"));
+        Coupon found = store.findById(saved.getId()).orElseThrow();
+
+        assertNotNull(saved.getId());
+        assertEquals(0L, saved.getVersion());
+        assertEquals("ABC123", found.getCode());
+        assertEquals("Descrição do cupom", found.getDescription());
+        assertEquals(new BigDecimal("12.50"), found.getDiscountValue());
+        assertEquals(EXPIRATION, found.getExpirationDate());
+        assertEquals(CouponStatus.ACTIVE, found.getStatus());
+        assertTrue(found.getPublished());
+        assertFalse(found.getRedeemed());
+        assertEquals(0L, found.getVersion());
+        assertEquals(new CouponVersion(0L, found.getUpdatedAt()), store.findVersionById(saved.getId()).orElseThrow());
+        assertTrue(store.existsByCodeAndStatus("ABC123", CouponStatus.ACTIVE));
+        assertFalse(store.existsByCodeAndStatus("ABC123", CouponStatus.DELETED));
+        assertTrue(store.findById(UUID.randomUUID()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should allow one ACTIVE coupon per code and reuse the code once it is deleted")
+    void shouldEnforceOneActiveCouponPerCode() {
+        store = open();
+        Coupon first = store.saveAndFlush(coupon("ABC123"));
+
+        assertThrows(DuplicateCodeException.class, () -> store.saveAndFlush(coupon("ABC123")));
+
+        first.setStatus(CouponStatus.DELETED);
+        store.saveAndFlush(first);
+        Coupon second = store.saveAndFlush(coupon("ABC123"));
+
+        assertEquals(second.getId(), store.findByCodeAndStatus("ABC123", CouponStatus.ACTIVE).orElseThrow().getId());
+        assertEquals(first.getId(), store.findByCodeAndStatus("ABC123", CouponStatus.DELETED).orElseThrow().getId());
+    }
+
+    @Test
+    @DisplayName("Should reject a save carrying a stale version")
+    void shouldRejectStaleVersion() {
+        store = open();
+        Coupon saved = store.saveAndFlush(coupon("ABC123"));
+        Coupon stale = store.findById(saved.getId()).orElseThrow();
+
+        saved.setStatus(CouponStatus.DELETED);
+        store.saveAndFlush(saved);
+        stale.setStatus(CouponStatus.INACTIVE);
+
+        assertEquals(1L, saved.getVersion());
+        assertThrows(OptimisticLockingFailureException.class, () -> store.saveAndFlush(stale));
+        assertEquals(CouponStatus.DELETED, store.findById(saved.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    @DisplayName("Should append a save made in a transaction only on commit and reserve its code until it completes")
+    void shouldAppendOnCommit() {
+        store = open();
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            Coupon saved = store.saveAndFlush(coupon("ABC123"));
+
+            assertTrue(store.findById(saved.getId()).isEmpty());
+            assertThrows(DuplicateCodeException.class, () -> store.saveAndFlush(coupon("ABC123")));
+
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            TransactionSynchronizationUtils.invokeAfterCommit(synchronizations);
+            TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, TransactionSynchronization.STATUS_COMMITTED);
+
+            assertEquals(saved.getVersion(), store.findById(saved.getId()).orElseThrow().getVersion());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should write no coupon of a batch that repeats an active code")
+    void shouldRejectBatchAtomically() {
+        store = open();
+        store.saveAndFlush(coupon("ABC123"));
+
+        assertThrows(DuplicateCodeException.class, () -> store.saveAllAndFlush(List.of(coupon("DEF456"), coupon("ABC123"))));
+        assertThrows(DuplicateCodeException.class, () -> store.saveAllAndFlush(List.of(coupon("GHI789"), coupon("GHI789"))));
+
+        assertEquals(1, store.size());
+        assertEquals(2, store.saveAllAndFlush(List.of(coupon("DEF456"), coupon("GHI789"))).size());
+        assertEquals(List.of("DEF456"), store.findCodesByCodeInAndStatus(List.of("DEF456", "XYZ999"), CouponStatus.ACTIVE));
+    }
+
+    @Test
+    @DisplayName("Should page by id in unsigned order and filter by status")
+    void shouldPageById() {
+        store = open();
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(store.saveAndFlush(coupon("AAA00" + i)).getId());
+        }
+        Coupon deleted = store.findById(ids.get(2)).orElseThrow();
+        deleted.setStatus(CouponStatus.DELETED);
+        store.saveAndFlush(deleted);
+        ids.sort((a, b) -> {
+            int most = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+            return most != 0 ? most : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+        });
+
+        List<Coupon> first = store.findPage(null, null, null, Limit.of(3));
+        List<Coupon> rest = store.findPage(first.getLast().getId(), null, null, Limit.of(3));
+
+        assertEquals(ids, Stream.concat(first.stream(), rest.stream()).map(Coupon::getId).toList());
+        assertEquals(4, store.findPage(null, CouponStatus.ACTIVE, true, Limit.of(10)).size());
+        assertEquals(List.of(deleted.getId()), store.findPage(null, CouponStatus.DELETED, null, Limit.of(10)).stream().map(Coupon::getId).toList());
+    }
+
+    @Test
+    @DisplayName("Should find expired coupons oldest first and move them to INACTIVE")
+    void shouldExpire() {
+        store = open();
+        Coupon later = coupon("ABC123");
+        later.setExpirationDate(EXPIRATION.minusDays(40));
+        Coupon earlier = coupon("DEF456");
+        earlier.setExpirationDate(EXPIRATION.minusDays(50));
+        store.saveAllAndFlush(List.of(later, earlier, coupon("GHI789")));
+        LocalDateTime now = LocalDateTime.now();
+
+        List<CouponKey> expired = store.findExpired(CouponStatus.ACTIVE, now, Limit.of(10));
+
+        assertEquals(List.of("DEF456", "ABC123"), expired.stream().map(CouponKey::getCode).toList());
+        assertEquals(earlier.getExpirationDate(), store.findOldestExpiration(CouponStatus.ACTIVE, now).orElseThrow());
+        assertEquals(2, store.updateStatus(List.of(later.getId(), earlier.getId()), CouponStatus.ACTIVE, CouponStatus.INACTIVE));
+        assertEquals(0, store.updateStatus(List.of(later.getId()), CouponStatus.ACTIVE, CouponStatus.INACTIVE));
+        assertEquals(1L, store.findById(later.getId()).orElseThrow().getVersion());
+        assertTrue(store.findExpired(CouponStatus.ACTIVE, now, Limit.of(10)).isEmpty());
+        assertEquals(List.of("GHI789"), store.streamCodesByStatus(CouponStatus.ACTIVE).toList());
+        assertEquals(3, store.countByStatus().stream().mapToLong(CouponStatusCount::getTotal).sum());
+        try (Stream<Coupon> inactive = store.streamAll(CouponStatus.INACTIVE, null)) {
+            assertEquals(2, inactive.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Should redeem an active coupon only once")
+    void shouldRedeemOnce() {
+        store = open();
+        Coupon saved = store.saveAndFlush(coupon("ABC123"));
+
+        assertEquals(1, store.redeemById(saved.getId(), LocalDateTime.now()));
+        assertEquals(0, store.redeemById(saved.getId(), LocalDateTime.now()));
+
+        Coupon found = store.findById(saved.getId()).orElseThrow();
+        assertTrue(found.getRedeemed());
+        assertEquals(1L, found.getVersion());
+    }
+
+    @Test
+    @DisplayName("Should rebuild the latest state by replaying the log on reopen")
+    void shouldRecoverByReplay() {
+        store = open();
+        Coupon deleted = store.saveAndFlush(coupon("ABC123"));
+        Coupon active = store.saveAndFlush(coupon("XYZ789"));
+        deleted.setStatus(CouponStatus.DELETED);
+        store.saveAndFlush(deleted);
+        store.close();
+
+        store = open();
+
+        assertEquals(2, store.size());
+        assertEquals(CouponStatus.DELETED, store.findById(deleted.getId()).orElseThrow().getStatus());
+        assertEquals(1L, store.findById(deleted.getId()).orElseThrow().getVersion());
+        assertFalse(store.existsByCodeAndStatus("ABC123", CouponStatus.ACTIVE));
+        assertEquals(active.getId(), store.findByCodeAndStatus("XYZ789", CouponStatus.ACTIVE).orElseThrow().getId());
+    }
+
+    @Test
+    @DisplayName("Should discard a torn write at the end of the log and keep appending after the last intact record")
+    void shouldDiscardTornTail() throws IOException {
+        store = open();
+        Coupon kept = store.saveAndFlush(coupon("ABC123"));
+        Coupon torn = store.saveAndFlush(coupon("XYZ789"));
+        store.close();
+        store = null;
+
+        try (RandomAccessFile raf = new RandomAccessFile(file().toFile(), "rw")) {
+            long tornRecord = findRecordOffset(torn.getId());
+            raf.seek(tornRecord + 40);
+            raf.writeLong(-1L);
+        }
+
+        store = open();
+        Coupon appended = store.saveAndFlush(coupon("QWE456"));
+        store.close();
+        store = open();
+
+        assertTrue(store.findById(kept.getId()).isPresent());
+        assertTrue(store.findById(torn.getId()).isEmpty());
+        assertTrue(store.findById(appended.getId()).isPresent());
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    @DisplayName("Should find every coupon of a code with no ACTIVE one through the code index, also after a compaction")
+    void shouldFindInactiveCodesByIndex() {
+        store = open();
+        Coupon first = store.saveAndFlush(coupon("ABC123"));
+        first.setStatus(CouponStatus.DELETED);
+        store.saveAndFlush(first);
+        Coupon second = store.saveAndFlush(coupon("ABC123"));
+        second.setStatus(CouponStatus.INACTIVE);
+        store.saveAndFlush(second);
+        Coupon other = store.saveAndFlush(coupon("DEF456"));
+        other.setCode("ABC123");
+        store.saveAndFlush(coupon("GHI789"));
+
+        assertThrows(IllegalArgumentException.class, () -> store.saveAndFlush(other));
+        assertEquals(Set.of(first.getId(), second.getId()), ids(store.findByCodeIn(List.of("ABC123", "ABC-123"))));
+        assertEquals(first.getId(), store.findByCodeAndStatus("ABC123", CouponStatus.DELETED).orElseThrow().getId());
+        assertEquals(Set.of(other.getId()), ids(store.findByCodeIn(List.of("DEF456"))));
+
+        store.compact();
+
+        assertEquals(Set.of(first.getId(), second.getId()), ids(store.findByCodeIn(List.of("ABC123"))));
+        assertEquals(List.of("ABC123"), store.findCodesByCodeInAndStatus(List.of("ABC123", "GHI789"), CouponStatus.INACTIVE));
+    }
+
+    @Test
+    @DisplayName("Should compact superseded records away while keeping the latest state")
+    void shouldCompact() throws IOException {
+        store = open();
+        List<Coupon> coupons = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            coupons.add(store.saveAndFlush(coupon(String.format("CODE%02d", i))));
+        }
+        for (int round = 0; round < 10; round++) {
+            for (Coupon coupon : coupons) {
+                coupon.setStatus(coupon.getStatus() == CouponStatus.ACTIVE ? CouponStatus.INACTIVE : CouponStatus.ACTIVE);
+                store.saveAndFlush(coupon);
+            }
+        }
+        Coupon deleted = coupons.getFirst();
+        deleted.setStatus(CouponStatus.DELETED);
+        store.saveAndFlush(deleted);
+        long before = Files.size(file());
+
+        store.compact();
+        Coupon added = store.saveAndFlush(coupon("NEW001"));
+        store.close();
+        store = open();
+
+        assertTrue(Files.size(file()) < before);
+        assertEquals(101, store.size());
+        assertEquals(CouponStatus.DELETED, store.findById(deleted.getId()).orElseThrow().getStatus());
+        assertEquals(10L, store.findById(coupons.get(1).getId()).orElseThrow().getVersion());
+        assertTrue(store.existsByCodeAndStatus("CODE01", CouponStatus.ACTIVE));
+        assertFalse(store.existsByCodeAndStatus("CODE00", CouponStatus.ACTIVE));
+        assertTrue(store.findById(added.getId()).isPresent());
+    }
+
+    private static Set<UUID> ids(List<Coupon> coupons) {
+        return coupons.stream().map(Coupon::getId).collect(Collectors.toSet());
+    }
+
+    private MappedCouponStore open() {
+        return new MappedCouponStore(file().toString(), DataSize.ofKilobytes(64), 0.5, DataSize.ofBytes(0), false);
+    }
+
+    private Path file() {
+        return directory.resolve("coupons.log");
+    }
+
+    // Offset in the file of the record holding id, found by scanning the 8-byte aligned record headers
+    private long findRecordOffset(UUID id) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file().toFile(), "r")) {
+            long offset = 0;
+            while (true) {
+                raf.seek(offset);
+                int length = raf.readInt();
+                raf.readInt();
+                if (raf.readLong() == id.getMostSignificantBits() && raf.readLong() == id.getLeastSignificantBits()) {
+                    return offset;
+                }
+                offset += (8 + length + 7) & ~7;
+            }
+        }
+    }
+
+    private static Coupon coupon(String code) {
+        return new Coupon(
+                null,
+                code,
+                "Descrição do cupom",
+                new BigDecimal("12.50"),
+                EXPIRATION,
+                CouponStatus.ACTIVE,
+                true,
+                false
+        );
+    }
+}
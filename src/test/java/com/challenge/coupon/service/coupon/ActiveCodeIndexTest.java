@@ -0,0 +1,51 @@
+package com.challenge.coupon.service.coupon;
+
+import com.challenge.coupon.config.datasource.CouponShards;
+import com.challenge.coupon.domain.entity.coupon.CouponStatus;
+import com.challenge.coupon.repository.CouponStore;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ActiveCodeIndexTest {
+
+    private final CouponStore couponStore = mock(CouponStore.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+    @Test
+    @DisplayName("Should warm from the streamed ACTIVE codes across chunks and close the stream")
+    void shouldWarmFromStream() {
+        AtomicBoolean closed = new AtomicBoolean();
+        when(couponStore.streamCodesByStatus(CouponStatus.ACTIVE)).thenReturn(
+                Stream.concat(IntStream.range(0, 10_000).mapToObj(i -> String.format("A%05d", i)), Stream.of("AB-12"))
+                        .onClose(() -> closed.set(true))
+        );
+        ActiveCodeIndex index = new ActiveCodeIndex(couponStore, new CouponShards("", null), transactionManager, ActiveCodeIndex.Mode.INDEX);
+
+        assertTrue(index.needsDatabaseCheck("A00001"));
+        index.warmUp();
+
+        assertTrue(closed.get());
+        assertEquals(10_000, index.size());
+        assertTrue(index.needsDatabaseCheck("A09999"));
+        assertFalse(index.needsDatabaseCheck("B00001"));
+    }
+
+    @Test
+    @DisplayName("Should not read the store when the index is disabled")
+    void shouldSkipWarmUpWhenDisabled() {
+        ActiveCodeIndex index = new ActiveCodeIndex(couponStore, new CouponShards("", null), transactionManager, ActiveCodeIndex.Mode.DATABASE);
+
+        index.warmUp();
+
+        verifyNoInteractions(couponStore);
+        assertTrue(index.needsDatabaseCheck("A00001"));
+    }
+}
@@ -0,0 +1,122 @@
+package com.challenge.coupon.service.coupon;
+
+import com.challenge.coupon.config.datasource.CouponShards;
+import com.challenge.coupon.domain.entity.coupon.CouponStatus;
+import com.challenge.coupon.repository.CouponArchiveRepository;
+import com.challenge.coupon.repository.CouponKey;
+import com.challenge.coupon.repository.CouponRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CouponArchiverTest {
+
+    private static final int BATCH_SIZE = 2;
+    private static final Duration INACTIVE_AFTER = Duration.ofDays(30);
+
+    @Mock
+    private CouponRepository couponRepository;
+
+    @Mock
+    private CouponArchiveRepository couponArchiveRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private CouponArchiver archiver;
+
+    @BeforeEach
+    void setUp() {
+        archiver = new CouponArchiver(
+                couponRepository, couponArchiveRepository, new CouponShards("", null), new TransactionTemplate(transactionManager), meterRegistry,
+                INACTIVE_AFTER, BATCH_SIZE, 10
+        );
+    }
+
+    @Test
+    @DisplayName("Should archive deleted coupons first and fill the batch with long-inactive ones")
+    void shouldArchiveDeletedThenInactiveCoupons() {
+        LocalDateTime now = LocalDateTime.now();
+        CouponKey deleted = key("DEL111");
+        CouponKey inactive = key("INA222");
+        List<UUID> ids = List.of(deleted.getId(), inactive.getId());
+
+        when(couponRepository.findKeysByStatus(CouponStatus.DELETED, Limit.of(BATCH_SIZE))).thenReturn(List.of(deleted));
+        when(couponRepository.findExpired(CouponStatus.INACTIVE, now.minus(INACTIVE_AFTER), Limit.of(1)))
+                .thenReturn(List.of(inactive));
+        when(couponArchiveRepository.copyFromLive(ids, now.minus(INACTIVE_AFTER), now)).thenReturn(2);
+        when(couponRepository.deleteArchived(ids)).thenReturn(2);
+
+        int moved = archiver.archiveBatch(now);
+
+        assertEquals(2, moved);
+        verify(couponArchiveRepository, never()).deleteStillLive(any());
+        assertEquals(2.0, meterRegistry.get("coupon.archive.moved").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should count only the coupons deleted and drop the copies of those changed after the copy")
+    void shouldDropCopiesOfChangedCoupons() {
+        LocalDateTime now = LocalDateTime.now();
+        CouponKey unchanged = key("DEL111");
+        CouponKey changed = key("DEL222");
+        List<UUID> ids = List.of(unchanged.getId(), changed.getId());
+
+        when(couponRepository.findKeysByStatus(CouponStatus.DELETED, Limit.of(BATCH_SIZE))).thenReturn(List.of(unchanged, changed));
+        when(couponArchiveRepository.copyFromLive(ids, now.minus(INACTIVE_AFTER), now)).thenReturn(2);
+        when(couponRepository.deleteArchived(ids)).thenReturn(1);
+
+        int moved = archiver.archiveBatch(now);
+
+        assertEquals(1, moved);
+        verify(couponArchiveRepository).deleteStillLive(ids);
+        assertEquals(1.0, meterRegistry.get("coupon.archive.moved").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should not touch either table when there is nothing to archive")
+    void shouldDoNothingWhenNothingToArchive() {
+        when(couponRepository.findKeysByStatus(eq(CouponStatus.DELETED), any())).thenReturn(List.of());
+        when(couponRepository.findExpired(eq(CouponStatus.INACTIVE), any(), any())).thenReturn(List.of());
+
+        archiver.archive();
+
+        verifyNoInteractions(couponArchiveRepository);
+        verify(couponRepository, never()).deleteArchived(any());
+    }
+
+    private static CouponKey key(String code) {
+        UUID id = UUID.randomUUID();
+        return new CouponKey() {
+            @Override
+            public UUID getId() {
+                return id;
+            }
+
+            @Override
+            public String getCode() {
+                return code;
+            }
+        };
+    }
+}
@@ -0,0 +1,107 @@
+package com.challenge.coupon.service.coupon;
+
+import com.challenge.coupon.domain.entity.coupon.Coupon;
+import com.challenge.coupon.domain.entity.coupon.CouponStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CouponCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CouponCache couponCache =
+            new CouponCache(meterRegistry, 100, Duration.ofMinutes(1), Duration.ofMinutes(1));
+
+    @Test
+    @DisplayName("Should load a coupon once and return independent snapshots")
+    void shouldLoadOnceAndReturnSnapshots() {
+        UUID id = UUID.randomUUID();
+        Coupon coupon = new Coupon();
+        coupon.setId(id);
+        coupon.setStatus(CouponStatus.ACTIVE);
+        AtomicInteger loads = new AtomicInteger();
+
+        Coupon first = couponCache.get(id, key -> {
+            loads.incrementAndGet();
+            return Optional.of(coupon);
+        }).orElseThrow();
+        first.setStatus(CouponStatus.DELETED);
+
+        Coupon second = couponCache.get(id, key -> {
+            loads.incrementAndGet();
+            return Optional.of(coupon);
+        }).orElseThrow();
+
+        assertEquals(1, loads.get());
+        assertEquals(CouponStatus.ACTIVE, second.getStatus());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "coupon").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    @DisplayName("Should cache negative lookups until the entry is invalidated")
+    void shouldCacheNegativeLookupsUntilInvalidated() {
+        UUID id = UUID.randomUUID();
+        AtomicInteger loads = new AtomicInteger();
+
+        couponCache.get(id, key -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+        assertTrue(couponCache.get(id, key -> Optional.of(new Coupon())).isEmpty());
+
+        couponCache.invalidate(id);
+
+        assertTrue(couponCache.get(id, key -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        }).isEmpty());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should not store a snapshot loaded before a concurrent invalidation")
+    void shouldNotStoreSnapshotLoadedBeforeInvalidation() throws Exception {
+        UUID id = UUID.randomUUID();
+        Coupon active = new Coupon();
+        active.setId(id);
+        active.setStatus(CouponStatus.ACTIVE);
+        CountDownLatch loaded = new CountDownLatch(1);
+        CountDownLatch invalidated = new CountDownLatch(1);
+
+        CompletableFuture<Optional<Coupon>> staleRead = CompletableFuture.supplyAsync(() -> couponCache.get(id, key -> {
+            loaded.countDown();
+            await(invalidated);
+            return Optional.of(active);
+        }));
+
+        assertTrue(loaded.await(5, TimeUnit.SECONDS));
+        couponCache.invalidate(id);
+        invalidated.countDown();
+
+        assertEquals(CouponStatus.ACTIVE, staleRead.get(5, TimeUnit.SECONDS).orElseThrow().getStatus());
+        assertTrue(couponCache.getIfPresent(id).isEmpty(), "The stale snapshot was cached after the invalidation");
+
+        Coupon deleted = new Coupon();
+        deleted.setId(id);
+        deleted.setStatus(CouponStatus.DELETED);
+        assertEquals(CouponStatus.DELETED, couponCache.get(id, key -> Optional.of(deleted)).orElseThrow().getStatus());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.challenge.coupon.service.coupon;
+
+import com.challenge.coupon.config.datasource.CouponShards;
+import com.challenge.coupon.domain.entity.exception.DomainException;
+import com.challenge.coupon.repository.CouponStore;
+import com.challenge.coupon.support.LongHashSet;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class CouponCodeGeneratorTest {
+
+    private final CouponStore couponStore = mock(CouponStore.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private CouponCodeGenerator generator;
+
+    @AfterEach
+    void close() {
+        if (generator != null) {
+            generator.close();
+        }
+    }
+
+    // Generation time is measured by CouponCodeGeneratorBenchmark; here only uniqueness is checked
+    @Test
+    @DisplayName("Should generate a million unique codes without touching the database per code")
+    void shouldGenerateAMillionUniqueCodes() {
+        when(couponStore.streamAllCodes()).thenAnswer(invocation -> Stream.of());
+        generator = new CouponCodeGenerator(couponStore, new CouponShards("", null), transactionManager, "");
+
+        List<String> codes = generator.generate(CouponCodeGenerator.MAX_COUNT);
+
+        LongHashSet unique = new LongHashSet(codes.size());
+        for (String code : codes) {
+            assertTrue(code.matches("[0-9A-Z]{6}"), code);
+            assertTrue(unique.add(CouponCode.packUpper(code)), "Duplicate code " + code);
+        }
+
+        assertEquals(CouponCodeGenerator.MAX_COUNT, generator.usedCount());
+        verify(couponStore, times(1)).streamAllCodes();
+        verifyNoMoreInteractions(couponStore);
+    }
+
+    @Test
+    @DisplayName("Should never issue codes already stored or created after startup")
+    void shouldSkipStoredAndCreatedCodes() {
+        when(couponStore.streamAllCodes()).thenAnswer(invocation -> Stream.of("ABC123", "abc123", "AB-12"));
+        generator = new CouponCodeGenerator(couponStore, new CouponShards("", null), transactionManager, "");
+        generator.usedCount();
+        generator.markUsed("XYZ789");
+
+        assertEquals(2, generator.usedCount());
+        assertFalse(generator.generate(1_000).contains("ABC123"));
+        assertEquals(1_002, generator.usedCount());
+    }
+
+    @Test
+    @DisplayName("Should keep issued codes across restarts when the bitmap file is configured")
+    void shouldKeepIssuedCodesInBitmapFile(@TempDir Path dir) {
+        String file = dir.resolve("codes.bin").toString();
+        when(couponStore.streamAllCodes()).thenAnswer(invocation -> Stream.of());
+
+        generator = new CouponCodeGenerator(couponStore, new CouponShards("", null), transactionManager, file);
+        generator.generate(10);
+        generator.close();
+
+        generator = new CouponCodeGenerator(couponStore, new CouponShards("", null), transactionManager, file);
+
+        assertEquals(10, generator.usedCount());
+    }
+
+    @Test
+    @DisplayName("Should not map or rebuild the bitmap before the first generate")
+    void shouldBuildBitmapOnFirstGenerate(@TempDir Path dir) {
+        Path file = dir.resolve("codes.bin");
+        when(couponStore.streamAllCodes()).thenAnswer(invocation -> Stream.of("ABC123"));
+        generator = new CouponCodeGenerator(couponStore, new CouponShards("", null), transactionManager, file.toString());
+
+        generator.markUsed("XYZ789");
+        assertFalse(Files.exists(file));
+        verifyNoInteractions(couponStore);
+
+        assertEquals(1, generator.generate(1).size());
+        assertTrue(Files.exists(file));
+        assertEquals(2, generator.usedCount());
+    }
+
+    @Test
+    @DisplayName("Should reject counts out of bounds")
+    void shouldRejectInvalidRequests() {
+        generator = new CouponCodeGenerator(couponStore, new CouponShards("", null), transactionManager, "");
+
+        assertEquals("Count must be between 1 and 1000000",
+                assertThrows(DomainException.class, () -> generator.generate(0)).getMessage());
+        assertEquals("Count must be between 1 and 1000000",
+                assertThrows(DomainException.class, () -> generator.generate(1_000_001)).getMessage());
+        verifyNoInteractions(couponStore);
+    }
+}
@@ -0,0 +1,97 @@
+package com.challenge.coupon.service.coupon;
+
+import com.challenge.coupon.config.datasource.CouponShards;
+import com.challenge.coupon.domain.entity.coupon.CouponStatus;
+import com.challenge.coupon.repository.CouponKey;
+import com.challenge.coupon.repository.CouponStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CouponExpirationSweeperTest {
+
+    private static final int BATCH_SIZE = 2;
+
+    @Mock
+    private CouponStore couponStore;
+
+    @Mock
+    private CouponCache couponCache;
+
+    @Mock
+    private ActiveCodeIndex activeCodeIndex;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private CouponExpirationSweeper sweeper;
+
+    @BeforeEach
+    void setUp() {
+        sweeper = new CouponExpirationSweeper(
+                couponStore, couponCache, activeCodeIndex, new CouponShards("", null), new TransactionTemplate(transactionManager), meterRegistry,
+                BATCH_SIZE, 10
+        );
+    }
+
+    @Test
+    @DisplayName("Should sweep expired coupons in batches until a batch comes back short")
+    void shouldSweepInBatchesUntilShortBatch() {
+        CouponKey first = key("AAA111");
+        CouponKey second = key("BBB222");
+        CouponKey third = key("CCC333");
+
+        when(couponStore.findExpired(eq(CouponStatus.ACTIVE), any(LocalDateTime.class), eq(Limit.of(BATCH_SIZE))))
+                .thenReturn(List.of(first, second))
+                .thenReturn(List.of(third));
+        when(couponStore.updateStatus(anyList(), eq(CouponStatus.ACTIVE), eq(CouponStatus.INACTIVE)))
+                .thenReturn(2, 1);
+        when(couponStore.findOldestExpiration(eq(CouponStatus.ACTIVE), any(LocalDateTime.class)))
+                .thenReturn(Optional.empty());
+
+        sweeper.sweep();
+
+        verify(couponStore, times(2)).findExpired(any(), any(), any());
+        verify(couponStore).updateStatus(List.of(first.getId(), second.getId()), CouponStatus.ACTIVE, CouponStatus.INACTIVE);
+        verify(couponStore).updateStatus(List.of(third.getId()), CouponStatus.ACTIVE, CouponStatus.INACTIVE);
+        verify(couponCache).invalidate(third.getId());
+        verify(activeCodeIndex).removeAfterCommit("CCC333");
+        assertEquals(3.0, meterRegistry.get("coupon.expiration.swept").counter().count());
+    }
+
+    private static CouponKey key(String code) {
+        UUID id = UUID.randomUUID();
+        return new CouponKey() {
+            @Override
+            public UUID getId() {
+                return id;
+            }
+
+            @Override
+            public String getCode() {
+                return code;
+            }
+        };
+    }
+}
@@ -0,0 +1,78 @@
+package com.challenge.coupon.service.coupon;
+
+import com.challenge.coupon.controller.api.CouponCreateRequest;
+import com.challenge.coupon.domain.entity.coupon.Coupon;
+import com.challenge.coupon.domain.entity.exception.CouponNotRedeemableException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class CouponRedemptionConcurrencyTest {
+
+    private static final int THREADS = 64;
+
+    @Autowired
+    private CouponService couponService;
+
+    @Test
+    @DisplayName("Should let exactly one of many concurrent callers redeem the same coupon")
+    void shouldRedeemExactlyOnceUnderContention() throws Exception {
+        Coupon coupon = couponService.create(new CouponCreateRequest(
+                "RACE01",
+                "Contended coupon",
+                BigDecimal.TEN,
+                LocalDateTime.now().plusDays(1),
+                true
+        ));
+        String id = coupon.getId().toString();
+
+        AtomicInteger winners = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            for (int i = 0; i < THREADS; i++) {
+                boolean byCode = i % 2 == 0;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        if (byCode) {
+                            couponService.redeemByCode("RACE01");
+                        } else {
+                            couponService.redeem(id);
+                        }
+                        winners.incrementAndGet();
+                    } catch (CouponNotRedeemableException e) {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        }
+
+        assertEquals(1, winners.get());
+        assertEquals(THREADS - 1, rejected.get());
+        assertTrue(couponService.findById(id).getRedeemed());
+    }
+}
@@ -0,0 +1,270 @@
+package com.challenge.coupon.service.coupon;
+
+import com.challenge.coupon.config.datasource.CouponShards;
+import com.challenge.coupon.config.datasource.ReadYourWrites;
+import com.challenge.coupon.controller.api.CouponCreateRequest;
+import com.challenge.coupon.domain.entity.coupon.Coupon;
+import com.challenge.coupon.domain.entity.coupon.CouponStatus;
+import com.challenge.coupon.domain.entity.exception.CouponNotRedeemableException;
+import com.challenge.coupon.domain.entity.exception.DomainException;
+import com.challenge.coupon.domain.entity.exception.DomainNotFoundException;
+import com.challenge.coupon.domain.entity.exception.DuplicateCodeException;
+import com.challenge.coupon.domain.entity.exception.PreconditionFailedException;
+import com.challenge.coupon.domain.entity.outbox.CouponEventType;
+import com.challenge.coupon.repository.CouponArchiveRepository;
+import com.challenge.coupon.repository.MappedCouponStore;
+import com.challenge.coupon.service.outbox.CouponOutbox;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+// The CouponServiceTest scenarios for create, batch, find, list, lookup, delete and redeem, run against the mapped store instead of JPA mocks
+@ExtendWith(MockitoExtension.class)
+public class CouponServiceMappedStoreTest {
+
+    @TempDir
+    private Path directory;
+
+    @Mock
+    private CouponArchiveRepository couponArchiveRepository;
+
+    @Mock
+    private ActiveCodeIndex activeCodeIndex;
+
+    @Mock
+    private CouponOutbox couponOutbox;
+
+    @Mock
+    private CouponCodeGenerator couponCodeGenerator;
+
+    @Mock
+    private Validator validator;
+
+    private MappedCouponStore store;
+    private CouponService couponService;
+
+    @BeforeEach
+    void setUp() {
+        store = new MappedCouponStore(directory.resolve("coupons.log").toString(), DataSize.ofKilobytes(64), 0.5, DataSize.ofMegabytes(16), false);
+        couponService = new CouponService(
+                store,
+                couponArchiveRepository,
+                activeCodeIndex,
+                new CouponCache(new SimpleMeterRegistry(), 100, Duration.ofSeconds(30), Duration.ofSeconds(2)),
+                couponOutbox,
+                couponCodeGenerator,
+                new ReadYourWrites("", Duration.ofSeconds(5)),
+                new CouponShards("", null),
+                validator
+        );
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    @DisplayName("Should create a coupon with success when all data are valid")
+    void shouldCreateASuccessfullyCoupon() {
+        Coupon coupon = couponService.create(request("ABC-123"));
+
+        assertNotNull(coupon.getId());
+        assertEquals("ABC123", coupon.getCode());
+        assertEquals(CouponStatus.ACTIVE, coupon.getStatus());
+        assertEquals(coupon.getId(), couponService.findById(coupon.getId().toString()).getId());
+        verify(couponOutbox).record(CouponEventType.CREATED, coupon);
+        verify(activeCodeIndex).add("ABC123");
+    }
+
+    @Test
+    @DisplayName("Should throw DuplicateCodeException when the index hits and the code is active in the store")
+    void shouldThrowDuplicateCodeExceptionWhenCodeIsActive() {
+        couponService.create(request("ABC123"));
+        when(activeCodeIndex.needsDatabaseCheck("ABC123")).thenReturn(true);
+
+        assertThrows(DuplicateCodeException.class, () -> couponService.create(request("ABC123")));
+    }
+
+    @Test
+    @DisplayName("Should map a second ACTIVE coupon with the same code to DuplicateCodeException without the pre-check")
+    void shouldRejectDuplicateCodeWithoutPreCheck() {
+        couponService.create(request("ABC123"));
+
+        assertThrows(DuplicateCodeException.class, () -> couponService.create(request("ABC123")));
+        verify(couponOutbox, times(1)).record(eq(CouponEventType.CREATED), any());
+    }
+
+    @Test
+    @DisplayName("Should reject a batch item whose code is already active in the store")
+    void shouldRejectBatchCodeActiveInStore() {
+        couponService.create(request("ABC123"));
+        when(activeCodeIndex.needsDatabaseCheck(any())).thenReturn(true);
+
+        List<CouponBatchResult> results = couponService.createBatch(List.of(request("ABC123"), request("DEF456")));
+
+        assertEquals(List.of("Coupon code already exists"), results.get(0).errors());
+        assertTrue(results.get(1).created());
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    @DisplayName("Should write nothing when a batch reaches the store with a code already active")
+    void shouldRejectWholeBatchWithoutPreCheck() {
+        couponService.create(request("ABC123"));
+
+        assertThrows(DuplicateCodeException.class, () -> couponService.createBatch(List.of(request("DEF456"), request("ABC123"))));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    @DisplayName("Should list and look up coupons kept in the store")
+    void shouldListAndLookUpStoredCoupons() {
+        Coupon first = couponService.create(request("ABC123"));
+        Coupon second = couponService.create(request("DEF456"));
+
+        List<Coupon> page = couponService.list(new CouponFilter(CouponStatus.ACTIVE, null), null, 10);
+        List<CouponLookupResult> found = couponService.lookup(List.of("DEF456"), List.of(first.getId().toString()));
+
+        assertEquals(Set.of(first.getId(), second.getId()), Set.of(page.get(0).getId(), page.get(1).getId()));
+        assertEquals(2, found.size());
+        assertTrue(found.stream().allMatch(CouponLookupResult::valid));
+    }
+
+    @Test
+    @DisplayName("Should soft delete a coupon successfully")
+    void shouldDeleteCoupon() {
+        Coupon coupon = couponService.create(request("ABC123"));
+
+        couponService.delete(coupon.getId().toString());
+
+        assertEquals(CouponStatus.DELETED, couponService.findById(coupon.getId().toString()).getStatus());
+        verify(couponOutbox).record(eq(CouponEventType.DELETED), argThat(deleted -> deleted.getStatus() == CouponStatus.DELETED));
+        verify(activeCodeIndex).removeAfterCommit("ABC123");
+    }
+
+    @Test
+    @DisplayName("Should throw DomainException when trying to delete an already deleted coupon")
+    void shouldNotDeleteTwice() {
+        Coupon coupon = couponService.create(request("ABC123"));
+        couponService.delete(coupon.getId().toString());
+
+        assertThrows(DomainException.class, () -> couponService.delete(coupon.getId().toString()));
+    }
+
+    @Test
+    @DisplayName("Should fail the precondition when deleting with a stale version")
+    void shouldRejectDeleteWithStaleVersion() {
+        Coupon coupon = couponService.create(request("ABC123"));
+
+        assertThrows(PreconditionFailedException.class, () -> couponService.delete(coupon.getId().toString(), Set.of(7L)));
+        couponService.delete(coupon.getId().toString(), Set.of(0L));
+
+        assertEquals(1L, couponService.findVersion(coupon.getId().toString()).version());
+    }
+
+    @Test
+    @DisplayName("Should throw DomainNotFoundException when coupon does not exists")
+    void shouldNotDeleteMissingCoupon() {
+        UUID id = UUID.randomUUID();
+        when(couponArchiveRepository.findById(id)).thenReturn(Optional.empty());
+
+        assertThrows(DomainNotFoundException.class, () -> couponService.delete(id.toString()));
+        assertThrows(DomainNotFoundException.class, () -> couponService.findById(id.toString()));
+    }
+
+    @Test
+    @DisplayName("Should redeem by code once and reject the second redemption")
+    void shouldRedeemOnce() {
+        couponService.create(request("ABC123"));
+
+        Coupon redeemed = couponService.redeemByCode("ABC-123");
+
+        assertTrue(redeemed.getRedeemed());
+        CouponNotRedeemableException exception = assertThrows(
+                CouponNotRedeemableException.class, () -> couponService.redeem(redeemed.getId().toString())
+        );
+        assertEquals("Coupon has already been redeemed", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should keep no coupon in the store when the outbox insert fails and the transaction rolls back")
+    void shouldNotKeepCouponWhenOutboxFails() {
+        TransactionTemplate transaction = new TransactionTemplate(new SynchronizingTransactionManager());
+        doThrow(new DataIntegrityViolationException("coupon_event")).when(couponOutbox).record(eq(CouponEventType.CREATED), any());
+
+        assertThrows(DataIntegrityViolationException.class, () ->
+                transaction.executeWithoutResult(status -> couponService.create(request("ABC123"))));
+
+        assertEquals(0, store.size());
+        assertTrue(store.findByCodeAndStatus("ABC123", CouponStatus.ACTIVE).isEmpty());
+
+        doNothing().when(couponOutbox).record(eq(CouponEventType.CREATED), any());
+        Coupon coupon = transaction.execute(status -> {
+            Coupon created = couponService.create(request("ABC123"));
+            assertEquals(0, store.size());
+            return created;
+        });
+
+        assertEquals(coupon.getId(), store.findByCodeAndStatus("ABC123", CouponStatus.ACTIVE).orElseThrow().getId());
+    }
+
+    private static CouponCreateRequest request(String code) {
+        return new CouponCreateRequest(
+                code,
+                "Cupom de desconto",
+                new BigDecimal("10.00"),
+                LocalDateTime.now().plusDays(30),
+                true
+        );
+    }
+
+    // No resources, only the synchronization callbacks a JPA transaction manager would fire
+    private static final class SynchronizingTransactionManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
@@ -1,27 +1,47 @@
 package com.challenge.coupon.service.coupon;
 
+import com.challenge.coupon.config.datasource.CouponShards;
+import com.challenge.coupon.config.datasource.ReadYourWrites;
 import com.challenge.coupon.controller.api.CouponCreateRequest;
+import com.challenge.coupon.controller.api.CouponQuoteCartRequest;
+import com.challenge.coupon.domain.entity.coupon.ArchivedCoupon;
 import com.challenge.coupon.domain.entity.coupon.Coupon;
 import com.challenge.coupon.domain.entity.coupon.CouponStatus;
+import com.challenge.coupon.domain.entity.exception.CouponNotRedeemableException;
+import com.challenge.coupon.domain.entity.exception.CouponValidationException;
 import com.challenge.coupon.domain.entity.exception.DomainException;
 import com.challenge.coupon.domain.entity.exception.DomainNotFoundException;
-import com.challenge.coupon.domain.entity.exception.InvalidCodeException;
-import com.challenge.coupon.domain.entity.exception.InvalidExpirationDateException;
-import com.challenge.coupon.repository.CouponRepository;
+import com.challenge.coupon.domain.entity.exception.DuplicateCodeException;
+import com.challenge.coupon.domain.entity.outbox.CouponEventType;
+import com.challenge.coupon.repository.CouponArchiveRepository;
+import com.challenge.coupon.repository.CouponStore;
+import com.challenge.coupon.service.outbox.CouponOutbox;
+import jakarta.validation.Validator;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.DisplayName;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -31,7 +51,31 @@ public class CouponServiceTest {
     private CouponService couponService;
 
     @Mock
-    private CouponRepository couponRepository;
+    private CouponStore couponStore;
+
+    @Mock
+    private CouponArchiveRepository couponArchiveRepository;
+
+    @Mock
+    private ActiveCodeIndex activeCodeIndex;
+
+    @Mock
+    private CouponCache couponCache;
+
+    @Mock
+    private CouponOutbox couponOutbox;
+
+    @Mock
+    private CouponCodeGenerator couponCodeGenerator;
+
+    @Spy
+    private ReadYourWrites readYourWrites = new ReadYourWrites("", Duration.ofSeconds(5));
+
+    @Spy
+    private CouponShards couponShards = new CouponShards("", null);
+
+    @Mock
+    private Validator validator;
 
     private static final LocalDateTime VALID_EXPIRATION = LocalDateTime.now().plusDays(30);
     private static final LocalDateTime INVALID_EXPIRATION = LocalDateTime.now().minusDays(1);
@@ -58,7 +102,7 @@ public class CouponServiceTest {
         savedCoupon.setPublished(true);
         savedCoupon.setRedeemed(false);
 
-        when(couponRepository.save(any(Coupon.class))).thenReturn(savedCoupon);
+        when(couponStore.saveAndFlush(any(Coupon.class))).thenReturn(savedCoupon);
 
         Coupon result = couponService.create(request);
 
@@ -66,12 +110,105 @@ public class CouponServiceTest {
         assertEquals("ABC123", result.getCode());
         assertEquals(CouponStatus.ACTIVE, result.getStatus());
         assertFalse(result.getRedeemed());
-        verify(couponRepository).save(any(Coupon.class));
+        verify(couponStore).saveAndFlush(any(Coupon.class));
+        verify(couponOutbox).record(CouponEventType.CREATED, savedCoupon);
+
+    }
+
+    @Test
+    @DisplayName("Should skip the duplicate query when the active code index misses")
+    void shouldSkipDuplicateQueryWhenIndexMisses() {
+        CouponCreateRequest request = new CouponCreateRequest(
+                "ABC123",
+                "Test discount",
+                BigDecimal.TEN,
+                VALID_EXPIRATION,
+                true
+        );
+
+        when(activeCodeIndex.needsDatabaseCheck("ABC123")).thenReturn(false);
+        when(couponStore.saveAndFlush(any(Coupon.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        couponService.create(request);
 
+        verify(couponStore, never()).existsByCodeAndStatus(any(), any());
+        verify(activeCodeIndex).add("ABC123");
+        verify(couponCodeGenerator).markUsed("ABC123");
     }
 
     @Test
-    @DisplayName("Should throw InvalidCodeException when coupon code does not have 6 characters ")
+    @DisplayName("Should throw DuplicateCodeException when the index hits and the code is active in the database")
+    void shouldThrowExceptionWhenIndexHitIsConfirmedByDatabase() {
+        CouponCreateRequest request = new CouponCreateRequest(
+                "ABC-123",
+                "Test discount",
+                BigDecimal.TEN,
+                VALID_EXPIRATION,
+                true
+        );
+
+        when(activeCodeIndex.needsDatabaseCheck("ABC123")).thenReturn(true);
+        when(couponStore.existsByCodeAndStatus("ABC123", CouponStatus.ACTIVE)).thenReturn(true);
+
+        DuplicateCodeException exception = assertThrows(DuplicateCodeException.class, () ->
+                couponService.create(request));
+
+        assertEquals("Coupon code already exists", exception.getMessage());
+        verify(couponStore, never()).saveAndFlush(any(Coupon.class));
+    }
+
+    @Test
+    @DisplayName("Should create a batch keeping per-item failures without aborting the valid coupons")
+    void shouldCreateBatchWithPartialFailures() {
+        List<CouponCreateRequest> requests = List.of(
+                new CouponCreateRequest("AAA111", "Valid", BigDecimal.TEN, VALID_EXPIRATION, true),
+                new CouponCreateRequest("BBB22", "Invalid code", BigDecimal.TEN, VALID_EXPIRATION, true),
+                new CouponCreateRequest("CCC333", "Already active", BigDecimal.TEN, VALID_EXPIRATION, true),
+                new CouponCreateRequest("AAA-111", "Repeated in batch", BigDecimal.TEN, VALID_EXPIRATION, true)
+        );
+
+        when(activeCodeIndex.needsDatabaseCheck(any())).thenReturn(true);
+        when(couponStore.findCodesByCodeInAndStatus(List.of("AAA111", "CCC333", "AAA111"), CouponStatus.ACTIVE))
+                .thenReturn(List.of("CCC333"));
+
+        List<CouponBatchResult> results = couponService.createBatch(requests);
+
+        assertEquals(4, results.size());
+        assertTrue(results.get(0).created());
+        assertEquals(List.of("Coupon code must contain exactly 6 alphanumeric characters"), results.get(1).errors());
+        assertEquals(List.of("Coupon code already exists"), results.get(2).errors());
+        assertEquals(List.of("Coupon code already exists"), results.get(3).errors());
+        verify(couponStore).saveAllAndFlush(List.of(results.get(0).coupon()));
+        verify(couponStore, never()).existsByCodeAndStatus(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should map a violation of the unique active code index to DuplicateCodeException")
+    void shouldMapActiveCodeConstraintViolationToDuplicateCodeException() {
+        CouponCreateRequest request = new CouponCreateRequest(
+                "ABC123",
+                "Test discount",
+                BigDecimal.TEN,
+                VALID_EXPIRATION,
+                true
+        );
+
+        ConstraintViolationException violation = new ConstraintViolationException(
+                "Unique index or primary key violation", null, "PUBLIC.UK_COUPON_ACTIVE_CODE_INDEX_7"
+        );
+        when(couponStore.saveAndFlush(any(Coupon.class)))
+                .thenThrow(new DataIntegrityViolationException("could not execute statement", violation));
+
+        DuplicateCodeException exception = assertThrows(DuplicateCodeException.class, () ->
+                couponService.create(request));
+
+        assertEquals("Coupon code already exists", exception.getMessage());
+        verify(activeCodeIndex, never()).add(any());
+        verifyNoInteractions(couponOutbox);
+    }
+
+    @Test
+    @DisplayName("Should throw CouponValidationException when coupon code does not have 6 characters ")
     void shouldThrowAExceptionWhenCouponCodeDoesNotHaveSixCharacters() {
         CouponCreateRequest request = new CouponCreateRequest(
                 "ABC12",
@@ -81,14 +218,14 @@ public class CouponServiceTest {
                 true
         );
 
-        InvalidCodeException exception = assertThrows(InvalidCodeException.class, () ->
+        CouponValidationException exception = assertThrows(CouponValidationException.class, () ->
                 couponService.create(request));
 
-        assertEquals("Coupon code must contain exactly 6 alphanumeric characters", exception.getMessage());
+        assertEquals(List.of("Coupon code must contain exactly 6 alphanumeric characters"), exception.getErrors());
     }
 
     @Test
-    @DisplayName("Should throw InvalidExpirationDate when expiration date is a invalid date")
+    @DisplayName("Should reject with CouponValidationException when expiration date is a invalid date")
     void shouldThrowExceptionWhenExpirationDateIsInvalid() {
         CouponCreateRequest request = new CouponCreateRequest(
                 "ABC123",
@@ -98,10 +235,39 @@ public class CouponServiceTest {
                 true
         );
 
-        InvalidExpirationDateException exception = assertThrows(InvalidExpirationDateException.class, () ->
+        CouponValidationException exception = assertThrows(CouponValidationException.class, () ->
+                couponService.create(request));
+
+        assertEquals(List.of("The expiration date must be a future date"), exception.getErrors());
+    }
+
+    @Test
+    @DisplayName("Should collect every broken rule in one pass without capturing a stack trace")
+    void shouldAccumulateValidationErrors() {
+        CouponCreateRequest request = new CouponCreateRequest(
+                "AB1",
+                "Desc",
+                new BigDecimal("0.10"),
+                INVALID_EXPIRATION,
+                true
+        );
+
+        CouponValidation validation = CouponService.validate(request);
+
+        assertFalse(validation.valid());
+        assertNull(validation.coupon());
+        assertEquals(List.of(
+                "Discount amount shown is less than the minimum allowed",
+                "The expiration date must be a future date",
+                "Coupon code must contain exactly 6 alphanumeric characters"
+        ), validation.errors());
+
+        CouponValidationException exception = assertThrows(CouponValidationException.class, () ->
                 couponService.create(request));
 
-        assertEquals("The expiration date must be a future date", exception.getMessage());
+        assertEquals(validation.errors(), exception.getErrors());
+        assertEquals(0, exception.getStackTrace().length);
+        verifyNoInteractions(couponStore);
     }
 
     @Test
@@ -112,13 +278,16 @@ public class CouponServiceTest {
         coupon.setId(couponId);
         coupon.setStatus(CouponStatus.ACTIVE);
 
-        when(couponRepository.findById(couponId)).thenReturn(Optional.of(coupon));
-        when(couponRepository.save(any(Coupon.class))).thenReturn(coupon);
+        when(couponStore.findById(couponId)).thenReturn(Optional.of(coupon));
+        when(couponStore.saveAndFlush(any(Coupon.class))).thenReturn(coupon);
 
         couponService.delete(couponId.toString());
 
         assertEquals(CouponStatus.DELETED, coupon.getStatus());
-        verify(couponRepository).save(coupon);
+        verify(couponStore).saveAndFlush(coupon);
+        verify(couponCache).invalidate(couponId);
+        verify(couponOutbox).record(CouponEventType.DELETED, coupon);
+        verify(activeCodeIndex).removeAfterCommit(coupon.getCode());
     }
 
     @Test
@@ -129,7 +298,7 @@ public class CouponServiceTest {
         coupon.setId(couponId);
         coupon.setStatus(CouponStatus.DELETED);
 
-        when(couponRepository.findById(couponId)).thenReturn(Optional.of(coupon));
+        when(couponStore.findById(couponId)).thenReturn(Optional.of(coupon));
 
         DomainException exception = assertThrows(DomainException.class, () ->
                 couponService.delete(couponId.toString()));
@@ -142,11 +311,234 @@ public class CouponServiceTest {
     void shouldThrowExceptionWhenCouponDoesNotExists() {
         UUID randomId = UUID.randomUUID();
 
-        when(couponRepository.findById(randomId)).thenReturn(Optional.empty());
+        when(couponStore.findById(randomId)).thenReturn(Optional.empty());
 
         DomainNotFoundException exception = assertThrows(DomainNotFoundException.class, () ->
                 couponService.delete(randomId.toString()));
 
         assertEquals("Coupon not found", exception.getMessage());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should throw DomainNotFoundException when finding a coupon that does not exist")
+    void shouldThrowExceptionWhenFindingCouponThatDoesNotExist() {
+        UUID randomId = UUID.randomUUID();
+
+        when(couponCache.get(eq(randomId), any())).thenAnswer(invocation ->
+                invocation.<Function<UUID, Optional<Coupon>>>getArgument(1).apply(randomId));
+        when(couponStore.findById(randomId)).thenReturn(Optional.empty());
+
+        DomainNotFoundException exception = assertThrows(DomainNotFoundException.class, () ->
+                couponService.findById(randomId.toString()));
+
+        assertEquals("Coupon not found", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should fall back to the archive when the coupon is no longer in the live table")
+    void shouldFindArchivedCouponById() {
+        Coupon coupon = coupon("OLD123", CouponStatus.INACTIVE, false, INVALID_EXPIRATION);
+        ArchivedCoupon archived = archived(coupon);
+
+        when(couponCache.get(eq(coupon.getId()), any())).thenAnswer(invocation ->
+                invocation.<Function<UUID, Optional<Coupon>>>getArgument(1).apply(coupon.getId()));
+        when(couponStore.findById(coupon.getId())).thenReturn(Optional.empty());
+        when(couponArchiveRepository.findById(coupon.getId())).thenReturn(Optional.of(archived));
+
+        Coupon result = couponService.findById(coupon.getId().toString());
+
+        assertSame(coupon, result);
+    }
+
+    @Test
+    @DisplayName("Should throw DomainException when deleting an archived coupon that is already deleted")
+    void shouldThrowExceptionWhenArchivedCouponAlreadyDeleted() {
+        Coupon coupon = coupon("OLD123", CouponStatus.DELETED, false, INVALID_EXPIRATION);
+        ArchivedCoupon archived = archived(coupon);
+
+        when(couponStore.findById(coupon.getId())).thenReturn(Optional.empty());
+        when(couponArchiveRepository.findById(coupon.getId())).thenReturn(Optional.of(archived));
+
+        DomainException exception = assertThrows(DomainException.class, () ->
+                couponService.delete(coupon.getId().toString()));
+
+        assertEquals("You cannot delete a coupon that has already been deleted", exception.getMessage());
+        verify(couponArchiveRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should reject redemption when the conditional update does not win")
+    void shouldRejectRedemptionWhenCouponAlreadyRedeemed() {
+        UUID couponId = UUID.randomUUID();
+        Coupon coupon = new Coupon();
+        coupon.setId(couponId);
+        coupon.setStatus(CouponStatus.ACTIVE);
+        coupon.setRedeemed(true);
+
+        when(couponStore.redeemById(eq(couponId), any(LocalDateTime.class))).thenReturn(0);
+        when(couponStore.findById(couponId)).thenReturn(Optional.of(coupon));
+
+        CouponNotRedeemableException exception = assertThrows(CouponNotRedeemableException.class, () ->
+                couponService.redeem(couponId.toString()));
+
+        assertEquals("Coupon has already been redeemed", exception.getMessage());
+        verify(couponCache).invalidate(couponId);
+    }
+
+    @Test
+    @DisplayName("Should list the page after the given cursor using keyset pagination")
+    void shouldListPageAfterCursor() {
+        UUID after = UUID.randomUUID();
+        CouponFilter filter = new CouponFilter(CouponStatus.ACTIVE, true);
+
+        when(couponStore.findPage(after, CouponStatus.ACTIVE, true, Limit.of(50))).thenReturn(List.of());
+
+        List<Coupon> result = couponService.list(filter, after.toString(), 50);
+
+        assertTrue(result.isEmpty());
+        verify(couponStore).findPage(after, CouponStatus.ACTIVE, true, Limit.of(50));
+    }
+
+    @Test
+    @DisplayName("Should merge live and archived pages in id order when the filter can match archived coupons")
+    void shouldMergeArchivedCouponsIntoPage() {
+        CouponFilter filter = new CouponFilter(CouponStatus.INACTIVE, null);
+        Coupon live = coupon("NEW123", CouponStatus.INACTIVE, false, INVALID_EXPIRATION);
+        live.setId(new UUID(0x2000000000000000L, 0));
+        Coupon archivedLow = coupon("OLD111", CouponStatus.INACTIVE, false, INVALID_EXPIRATION);
+        archivedLow.setId(new UUID(0x1000000000000000L, 0));
+        Coupon archivedHigh = coupon("OLD222", CouponStatus.INACTIVE, false, INVALID_EXPIRATION);
+        archivedHigh.setId(new UUID(0x9000000000000000L, 0));
+
+        List<ArchivedCoupon> archivedPage = List.of(archived(archivedLow), archived(archivedHigh));
+
+        when(couponStore.findPage(null, CouponStatus.INACTIVE, null, Limit.of(2))).thenReturn(List.of(live));
+        when(couponArchiveRepository.findPage(null, CouponStatus.INACTIVE, null, Limit.of(2))).thenReturn(archivedPage);
+
+        List<Coupon> result = couponService.list(filter, null, 2);
+
+        assertEquals(List.of(archivedLow, live), result);
+    }
+
+    @Test
+    @DisplayName("Should throw DomainException when page size is out of bounds")
+    void shouldThrowExceptionWhenPageSizeIsOutOfBounds() {
+        CouponFilter filter = new CouponFilter(null, null);
+
+        DomainException exception = assertThrows(DomainException.class, () ->
+                couponService.list(filter, null, 5_000));
+
+        assertEquals("Page size must be between 1 and 1000", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should resolve codes and ids in one query each and report validity per requested key")
+    void shouldLookupCodesAndIds() {
+        Coupon active = coupon("ABC123", CouponStatus.ACTIVE, false, VALID_EXPIRATION);
+        Coupon deletedWithSameCode = coupon("ABC123", CouponStatus.DELETED, false, VALID_EXPIRATION.plusDays(1));
+        Coupon redeemed = coupon("XYZ789", CouponStatus.ACTIVE, true, VALID_EXPIRATION);
+        Coupon expired = coupon("EXP001", CouponStatus.ACTIVE, false, INVALID_EXPIRATION);
+
+        when(couponStore.findByCodeIn(any())).thenReturn(List.of(deletedWithSameCode, active, redeemed));
+        when(couponStore.findAllById(any())).thenReturn(List.of(expired));
+
+        List<CouponLookupResult> results = couponService.lookup(
+                List.of("ABC-123", "XYZ789", "NOPE00", "AB"),
+                List.of(expired.getId().toString(), "not-a-uuid")
+        );
+
+        assertEquals(6, results.size());
+        assertTrue(results.get(0).valid());
+        assertSame(active, results.get(0).coupon());
+        assertEquals("Coupon has already been redeemed", results.get(1).reason());
+        assertEquals("Coupon not found", results.get(2).reason());
+        assertFalse(results.get(2).found());
+        assertEquals("Coupon code must contain exactly 6 alphanumeric characters", results.get(3).reason());
+        assertEquals("Coupon has expired", results.get(4).reason());
+        assertEquals("Invalid coupon ID format", results.get(5).reason());
+        verify(couponStore).findByCodeIn(argThat(codes -> codes.size() == 3 && codes.contains("ABC123")));
+        verify(couponStore, times(1)).findAllById(any());
+    }
+
+    @Test
+    @DisplayName("Should throw DomainException when the lookup exceeds the maximum size")
+    void shouldThrowExceptionWhenLookupIsTooLarge() {
+        List<String> codes = Collections.nCopies(CouponService.MAX_LOOKUP_SIZE + 1, "ABC123");
+
+        DomainException exception = assertThrows(DomainException.class, () ->
+                couponService.lookup(codes, null));
+
+        assertEquals("A lookup cannot contain more than 1000 coupons", exception.getMessage());
+        verifyNoInteractions(couponStore);
+    }
+
+    @Test
+    @DisplayName("Should resolve every code of the batch in one query and price carts in cents")
+    void shouldQuoteCartsWithOneQuery() {
+        Coupon tenOff = coupon("ABC123", CouponStatus.ACTIVE, false, VALID_EXPIRATION);
+        tenOff.setDiscountValue(new BigDecimal("10.00"));
+        Coupon fiveOff = coupon("XYZ789", CouponStatus.ACTIVE, false, VALID_EXPIRATION);
+        fiveOff.setDiscountValue(new BigDecimal("5.50"));
+        Coupon expired = coupon("EXP001", CouponStatus.ACTIVE, false, INVALID_EXPIRATION);
+        expired.setDiscountValue(new BigDecimal("3.00"));
+
+        when(couponStore.findByCodeIn(any())).thenReturn(List.of(tenOff, fiveOff, expired));
+
+        List<CouponQuoteResult> results = couponService.quote(List.of(
+                new CouponQuoteCartRequest(new BigDecimal("100.00"), List.of("ABC-123", "XYZ789")),
+                new CouponQuoteCartRequest(new BigDecimal("12.3"), List.of("XYZ789", "ABC123", "EXP001")),
+                new CouponQuoteCartRequest(new BigDecimal("50"), List.of("ABC123", "ABC 123", "NOPE00", "AB"))
+        ));
+
+        assertEquals(new BigDecimal("84.50"), results.get(0).total());
+        assertEquals(new BigDecimal("15.50"), results.get(0).discount());
+
+        CouponQuoteResult capped = results.get(1);
+        assertEquals(new BigDecimal("12.30"), capped.discount());
+        assertEquals(new BigDecimal("0.00"), capped.total());
+        assertEquals(680, capped.coupons().get(1).discountCents());
+        assertEquals("Coupon has expired", capped.coupons().get(2).reason());
+
+        CouponQuoteResult invalid = results.get(2);
+        assertEquals(1000, invalid.discountCents());
+        assertEquals("Coupon already applied to this cart", invalid.coupons().get(1).reason());
+        assertEquals("Coupon not found", invalid.coupons().get(2).reason());
+        assertEquals("Coupon code must contain exactly 6 alphanumeric characters", invalid.coupons().get(3).reason());
+        verify(couponStore, times(1)).findByCodeIn(argThat(codes -> codes.size() == 4));
+    }
+
+    @Test
+    @DisplayName("Should reject a cart amount with fractions of a cent instead of rounding it")
+    void shouldRejectCartAmountsThatAreNotWholeCents() {
+        List<CouponQuoteResult> results = couponService.quote(Arrays.asList(
+                new CouponQuoteCartRequest(new BigDecimal("10.005"), List.of()),
+                new CouponQuoteCartRequest(new BigDecimal("-1.00"), List.of()),
+                null,
+                new CouponQuoteCartRequest(new BigDecimal("10.50"), null)
+        ));
+
+        assertEquals(List.of("Amount must be in whole cents and within range"), results.get(0).errors());
+        assertEquals(List.of("Amount must not be negative"), results.get(1).errors());
+        assertEquals(List.of("Cart is required"), results.get(2).errors());
+        assertTrue(results.get(3).quoted());
+        assertEquals(new BigDecimal("10.50"), results.get(3).total());
+        verifyNoInteractions(couponStore);
+    }
+
+    private static ArchivedCoupon archived(Coupon coupon) {
+        ArchivedCoupon archived = mock(ArchivedCoupon.class);
+        lenient().when(archived.toCoupon()).thenReturn(coupon);
+        lenient().when(archived.getStatus()).thenReturn(coupon.getStatus());
+        return archived;
+    }
+
+    private static Coupon coupon(String code, CouponStatus status, boolean redeemed, LocalDateTime expirationDate) {
+        Coupon coupon = new Coupon();
+        coupon.setId(UUID.randomUUID());
+        coupon.setCode(code);
+        coupon.setStatus(status);
+        coupon.setRedeemed(redeemed);
+        coupon.setExpirationDate(expirationDate);
+        return coupon;
+    }
+}
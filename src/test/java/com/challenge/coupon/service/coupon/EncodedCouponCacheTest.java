@@ -0,0 +1,82 @@
+package com.challenge.coupon.service.coupon;
+
+import com.challenge.coupon.controller.api.CouponResponse;
+import com.challenge.coupon.domain.entity.coupon.Coupon;
+import com.challenge.coupon.domain.entity.coupon.CouponStatus;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EncodedCouponCacheTest {
+
+    private final MappingJackson2CborHttpMessageConverter cborConverter = new MappingJackson2CborHttpMessageConverter(
+            Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build()
+    );
+    private final EncodedCouponCache encodedCouponCache = new EncodedCouponCache(
+            Jackson2ObjectMapperBuilder.json().build(),
+            cborConverter,
+            new SimpleMeterRegistry(),
+            true,
+            DataSize.ofMegabytes(1),
+            Duration.ofMinutes(1)
+    );
+
+    @Test
+    @DisplayName("Should reuse the encoded bytes until the coupon version changes")
+    void shouldReuseBytesPerVersion() {
+        Coupon coupon = coupon();
+
+        byte[] first = encodedCouponCache.encode(coupon, MediaType.APPLICATION_JSON);
+        byte[] second = encodedCouponCache.encode(coupon, MediaType.APPLICATION_JSON);
+
+        coupon.setRedeemed(true);
+        coupon.setVersion(1L);
+        byte[] third = encodedCouponCache.encode(coupon, MediaType.APPLICATION_JSON);
+
+        assertSame(first, second);
+        assertNotSame(first, third);
+        assertTrue(new String(third).contains("\"redeemed\":true"));
+    }
+
+    @Test
+    @DisplayName("Should encode CBOR that decodes back to the same CouponResponse as JSON")
+    void shouldRoundTripCbor() throws IOException {
+        Coupon coupon = coupon();
+
+        byte[] cbor = encodedCouponCache.encode(coupon, MediaType.APPLICATION_CBOR);
+        byte[] json = encodedCouponCache.encode(coupon, MediaType.APPLICATION_JSON);
+
+        CouponResponse fromCbor = cborConverter.getObjectMapper().readValue(cbor, CouponResponse.class);
+
+        assertEquals(CouponResponse.from(coupon), fromCbor);
+        assertTrue(cbor.length < json.length);
+    }
+
+    private static Coupon coupon() {
+        Coupon coupon = new Coupon(
+                UUID.randomUUID(),
+                "ABC123",
+                "Ten percent off every order placed during the spring campaign",
+                new BigDecimal("12.50"),
+                LocalDateTime.now().plusDays(30),
+                CouponStatus.ACTIVE,
+                true,
+                false
+        );
+        coupon.setVersion(0L);
+        return coupon;
+    }
+}
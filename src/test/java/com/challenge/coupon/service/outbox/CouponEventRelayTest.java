@@ -0,0 +1,117 @@
+package com.challenge.coupon.service.outbox;
+
+import com.challenge.coupon.config.datasource.CouponShards;
+import com.challenge.coupon.domain.entity.outbox.CouponEvent;
+import com.challenge.coupon.domain.entity.outbox.CouponEventType;
+import com.challenge.coupon.repository.CouponEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CouponEventRelayTest {
+
+    @Mock
+    private CouponEventRepository couponEventRepository;
+
+    @Mock
+    private CouponEventSink sink;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private CouponEventRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        relay = new CouponEventRelay(
+                couponEventRepository, sink, new CouponShards("", null), meterRegistry,
+                2, 10, Duration.ofSeconds(2), Duration.ofMinutes(1)
+        );
+    }
+
+    @Test
+    @DisplayName("Should publish batches in id order and delete the published rows")
+    void shouldPublishAndDeletePublishedRows() throws Exception {
+        List<CouponEvent> first = List.of(event(11), event(12));
+        List<CouponEvent> second = List.of(event(13));
+
+        when(couponEventRepository.findBatch(any(LocalDateTime.class), eq(Limit.of(2)))).thenReturn(first).thenReturn(second);
+
+        relay.relay();
+
+        verify(sink).publish(first);
+        verify(sink).publish(second);
+        verify(couponEventRepository).deleteAllByIdInBatch(List.of(11L, 12L));
+        verify(couponEventRepository).deleteAllByIdInBatch(List.of(13L));
+        assertEquals(3.0, meterRegistry.get("coupon.outbox.published").counter().count());
+        verify(couponEventRepository, never()).count();
+    }
+
+    @Test
+    @DisplayName("Should still publish an event whose transaction committed after a higher id was relayed")
+    void shouldPublishLateCommitBehindRelayedId() throws Exception {
+        List<CouponEvent> relayed = List.of(event(12));
+        List<CouponEvent> late = List.of(event(11));
+
+        when(couponEventRepository.findBatch(any(LocalDateTime.class), eq(Limit.of(2)))).thenReturn(relayed).thenReturn(late);
+
+        relay.relay();
+        relay.relay();
+
+        verify(sink).publish(relayed);
+        verify(sink).publish(late);
+        verify(couponEventRepository).deleteAllByIdInBatch(List.of(12L));
+        verify(couponEventRepository).deleteAllByIdInBatch(List.of(11L));
+    }
+
+    @Test
+    @DisplayName("Should keep the events and back off when the sink fails")
+    void shouldBackOffWhenSinkFails() throws Exception {
+        List<CouponEvent> batch = List.of(event(1));
+
+        when(couponEventRepository.findBatch(any(LocalDateTime.class), eq(Limit.of(2)))).thenReturn(batch);
+        doThrow(new IOException("disk full")).when(sink).publish(batch);
+
+        relay.relay();
+        relay.relay();
+
+        verify(sink, times(1)).publish(any());
+        verify(couponEventRepository, never()).deleteAllByIdInBatch(anyIterable());
+        assertEquals(1.0, meterRegistry.get("coupon.outbox.failures").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should set the pending gauge from the outbox count when refreshed")
+    void shouldRefreshPending() {
+        when(couponEventRepository.count()).thenReturn(7L);
+
+        relay.refreshPending();
+
+        assertEquals(7.0, meterRegistry.get("coupon.outbox.pending").gauge().value());
+        verifyNoInteractions(sink);
+    }
+
+    private static CouponEvent event(long id) {
+        CouponEvent event = new CouponEvent(CouponEventType.CREATED, UUID.randomUUID(), "ABC123", LocalDateTime.now());
+        ReflectionTestUtils.setField(event, "id", id);
+        return event;
+    }
+}
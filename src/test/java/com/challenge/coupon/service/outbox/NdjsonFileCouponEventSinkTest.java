@@ -0,0 +1,56 @@
+package com.challenge.coupon.service.outbox;
+
+import com.challenge.coupon.domain.entity.outbox.CouponEvent;
+import com.challenge.coupon.domain.entity.outbox.CouponEventType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NdjsonFileCouponEventSinkTest {
+
+    @TempDir
+    private Path directory;
+
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withUserConfiguration(NdjsonFileCouponEventSink.class)
+            .withBean(ObjectMapper.class);
+
+    @Test
+    @DisplayName("Should not write any file unless coupon.outbox.sink=file is set")
+    void shouldBeOptIn() {
+        runner.run(context -> assertTrue(context.getBeansOfType(CouponEventSink.class).isEmpty()));
+    }
+
+    @Test
+    @DisplayName("Should append one NDJSON line per event to the configured file")
+    void shouldAppendEvents() {
+        Path file = directory.resolve("events.ndjson");
+
+        runner.withPropertyValues("coupon.outbox.sink=file", "coupon.outbox.file=" + file).run(context -> {
+            CouponEventSink sink = context.getBean(CouponEventSink.class);
+            sink.publish(List.of(event(1)));
+            sink.publish(List.of(event(2)));
+
+            List<String> lines = Files.readAllLines(file);
+            assertEquals(2, lines.size());
+            assertTrue(lines.get(1).contains("\"id\":2"), lines.get(1));
+        });
+    }
+
+    private static CouponEvent event(long id) {
+        CouponEvent event = new CouponEvent(CouponEventType.CREATED, UUID.randomUUID(), "ABC123", LocalDateTime.now());
+        ReflectionTestUtils.setField(event, "id", id);
+        return event;
+    }
+}
@@ -0,0 +1,149 @@
+package com.challenge.coupon.support;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A backend that serves CAPACITY requests at a time, SERVICE_MILLIS each, and queues the rest the
+ * way Tomcat threads queue on the connection pool. Closed-loop clients keep it busy; a rejected
+ * client backs off briefly and tries again, so the offered load stays at the client count.
+ */
+public class AdaptiveConcurrencyLimitTest {
+
+    private static final int CAPACITY = 4;
+    private static final long SERVICE_MILLIS = 10;
+
+    @Test
+    @DisplayName("Should keep p99 of admitted requests bounded under 5x overload, where the unprotected p99 grows with the queue")
+    void shouldBoundLatencyUnderOverload() throws InterruptedException {
+        Backend unprotected = new Backend(null);
+        unprotected.run(CAPACITY * 5, 500, 1500);
+
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 1, 200, 1.5);
+        Backend protectedBackend = new Backend(limit);
+        protectedBackend.run(CAPACITY / 2, 0, 1000);
+        protectedBackend.run(CAPACITY * 5, 1000, 2000);
+
+        long unprotectedP99 = unprotected.p99Millis();
+        long protectedP99 = protectedBackend.p99Millis();
+
+        // Unprotected, every request waits behind the whole queue: about 5x the service time
+        assertTrue(unprotectedP99 >= 45, "unprotected p99 " + unprotectedP99 + "ms");
+        assertTrue(protectedP99 <= 4 * SERVICE_MILLIS, "protected p99 " + protectedP99 + "ms");
+        assertTrue(protectedBackend.rejected() > 0);
+        assertTrue(limit.limit() < 20, "limit " + limit.limit());
+        // Shedding must not starve the backend: most of its capacity is still used
+        assertTrue(protectedBackend.admitted() >= 2000 / SERVICE_MILLIS * CAPACITY * 6 / 10,
+                "admitted " + protectedBackend.admitted());
+    }
+
+    @Test
+    @DisplayName("Should grow the limit while latency holds and never admit more than the limit at once")
+    void shouldGrowWhileLatencyHolds() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(4, 1, 50, 1.5);
+
+        for (int round = 0; round < 200; round++) {
+            int acquired = 0;
+            while (limit.tryAcquire()) {
+                acquired++;
+            }
+            assertEquals(limit.limit(), acquired);
+            assertFalse(limit.tryAcquire());
+
+            for (int i = 0; i < acquired; i++) {
+                limit.release(TimeUnit.MILLISECONDS.toNanos(SERVICE_MILLIS));
+            }
+        }
+
+        assertEquals(50, limit.limit());
+        assertEquals(0, limit.inFlight());
+    }
+
+    private static final class Backend {
+
+        private final AdaptiveConcurrencyLimit limit;
+        private final Semaphore capacity = new Semaphore(CAPACITY, true);
+        private final List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        private final AtomicLong rejected = new AtomicLong();
+
+        Backend(AdaptiveConcurrencyLimit limit) {
+            this.limit = limit;
+        }
+
+        // Runs clients for warmupMillis + measureMillis, keeping only what starts after the warm-up of this run
+        void run(int clients, long warmupMillis, long measureMillis) throws InterruptedException {
+            latencies.clear();
+            rejected.set(0);
+            long start = System.nanoTime();
+            long recordFrom = start + TimeUnit.MILLISECONDS.toNanos(warmupMillis);
+            long end = recordFrom + TimeUnit.MILLISECONDS.toNanos(measureMillis);
+            CountDownLatch done = new CountDownLatch(clients);
+
+            for (int i = 0; i < clients; i++) {
+                Thread.ofPlatform().start(() -> {
+                    try {
+                        while (System.nanoTime() < end) {
+                            request(recordFrom);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+
+            done.await();
+        }
+
+        private void request(long recordFrom) throws InterruptedException {
+            if (limit != null && !limit.tryAcquire()) {
+                if (System.nanoTime() >= recordFrom) {
+                    rejected.incrementAndGet();
+                }
+                Thread.sleep(2);
+                return;
+            }
+
+            long started = System.nanoTime();
+            capacity.acquire();
+            try {
+                Thread.sleep(SERVICE_MILLIS);
+            } finally {
+                capacity.release();
+            }
+            long latency = System.nanoTime() - started;
+
+            if (limit != null) {
+                limit.release(latency);
+            }
+            if (started >= recordFrom) {
+                latencies.add(latency);
+            }
+        }
+
+        long p99Millis() {
+            List<Long> sorted = new ArrayList<>(latencies);
+            Collections.sort(sorted);
+            return TimeUnit.NANOSECONDS.toMillis(sorted.get((int) (sorted.size() * 0.99)));
+        }
+
+        long admitted() {
+            return latencies.size();
+        }
+
+        long rejected() {
+            return rejected.get();
+        }
+    }
+}
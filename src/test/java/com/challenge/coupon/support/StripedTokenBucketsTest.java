@@ -0,0 +1,53 @@
+package com.challenge.coupon.support;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StripedTokenBucketsTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+
+    @Test
+    @DisplayName("Should allow a burst, refuse with the wait until the next token and refill at the rate")
+    void shouldAllowBurstThenRefill() {
+        StripedTokenBuckets buckets = new StripedTokenBuckets(4, 16, 10, 3, clock::get);
+
+        assertEquals(0, buckets.tryTake("client"));
+        assertEquals(0, buckets.tryTake("client"));
+        assertEquals(0, buckets.tryTake("client"));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), buckets.tryTake("client"));
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        assertEquals(0, buckets.tryTake("client"));
+        assertTrue(buckets.tryTake("client") > 0);
+
+        assertEquals(0, buckets.tryTake("other"), "Each key has its own bucket");
+    }
+
+    @Test
+    @DisplayName("Should keep serving every key when more keys than slots compete for a stripe")
+    void shouldReplaceIdleBucketsWhenFull() {
+        StripedTokenBuckets buckets = new StripedTokenBuckets(1, 8, 1, 1, clock::get);
+
+        for (int i = 0; i < 100; i++) {
+            clock.incrementAndGet();
+            assertEquals(0, buckets.tryTake("client-" + i));
+        }
+
+        clock.incrementAndGet();
+        assertEquals(0, buckets.tryTake("client-0"), "An evicted key starts over with a full bucket");
+        assertTrue(buckets.tryTake("client-0") > 0);
+    }
+
+    @Test
+    @DisplayName("Should reject stripe counts that are not powers of two")
+    void shouldRejectInvalidSizes() {
+        assertThrows(IllegalArgumentException.class, () -> new StripedTokenBuckets(3, 16, 10, 1, clock::get));
+        assertThrows(IllegalArgumentException.class, () -> new StripedTokenBuckets(4, 16, 0, 1, clock::get));
+    }
+}